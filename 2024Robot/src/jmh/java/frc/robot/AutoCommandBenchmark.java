@@ -0,0 +1,75 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.ModeConstants;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Times building the big auto sequences and scheduling one the way autonomousInit does. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutoCommandBenchmark {
+  private RobotContainer m_container;
+  private Command m_prebuiltAuto;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initHal();
+    BenchmarkSupport.enable(true);
+    m_container = new RobotContainer(ModeConstants.Mode.REPLAY);
+    m_prebuiltAuto = m_container.centerDoubleAuto();
+  }
+
+  /** Building a two note auto from scratch (the chooser does this once at startup). */
+  @Benchmark
+  public Command buildCenterDouble() {
+    return m_container.centerDoubleAuto();
+  }
+
+  /** Building a long wait-then-move auto. */
+  @Benchmark
+  public Command buildRightSideMove() {
+    return m_container.rightSideMoveAuto();
+  }
+
+  /** Building the shoot-high sequence from scratch, which every auto did before sharing. */
+  @Benchmark
+  public Command buildShootHighFresh() {
+    return m_container.shootHighCommand();
+  }
+
+  /** Building every auto in the chooser, like the RobotContainer constructor does. */
+  @Benchmark
+  public void buildAllAutos(Blackhole blackhole) {
+    blackhole.consume(m_container.buildAutos(true));
+  }
+
+  /**
+   * Building every auto with its own copy of the shot sequences (before sharing). The difference
+   * in time and gc.alloc.rate.norm from buildAllAutos is what sharing saves.
+   */
+  @Benchmark
+  public void buildAllAutosRebuilt(Blackhole blackhole) {
+    blackhole.consume(m_container.buildAutos(false));
+  }
+
+  /** Scheduling a prebuilt auto plus its first loop, then cancelling it. */
+  @Benchmark
+  public boolean scheduleAndFirstLoop() {
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.schedule(m_prebuiltAuto);
+    scheduler.run();
+    boolean scheduled = m_prebuiltAuto.isScheduled();
+    scheduler.cancel(m_prebuiltAuto);
+    return scheduled;
+  }
+}
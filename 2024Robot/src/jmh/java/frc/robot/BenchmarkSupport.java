@@ -0,0 +1,48 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.subsystems.DriveIO;
+
+/** Shared setup for the benchmarks. */
+final class BenchmarkSupport {
+  private BenchmarkSupport() {}
+
+  /** Starts the simulated HAL so WPILib classes (scheduler, NetworkTables) work on a desktop. */
+  static void initHal() {
+    HAL.initialize(500, 0);
+  }
+
+  /**
+   * Pretends the Driver Station enabled the robot. Commands that don't run when disabled are
+   * cancelled by the scheduler otherwise.
+   *
+   * @param autonomous True for autonomous, false for teleop
+   */
+  static void enable(boolean autonomous) {
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * A drive "remote" that does no I/O but keeps a running sum of everything sent to it, so the JIT
+   * can't throw the drive math away.
+   */
+  static final class SinkDriveIO implements DriveIO {
+    double m_sink = 0.0;
+
+    @Override
+    public void setVoltages(double frontLeft, double rearLeft, double frontRight, double rearRight) {
+      m_sink += frontLeft + rearLeft + frontRight + rearRight;
+    }
+
+    @Override
+    public void setVelocities(double[] velocitiesRpm, double[] feedforwardVolts) {
+      for (int i = 0; i < 4; i++) {
+        m_sink += velocitiesRpm[i] + feedforwardVolts[i];
+      }
+    }
+  }
+}
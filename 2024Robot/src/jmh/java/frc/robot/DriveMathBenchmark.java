@@ -0,0 +1,68 @@
+package frc.robot;
+
+import frc.robot.BenchmarkSupport.SinkDriveIO;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.GyroIO;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Times {@link DriveSubsystem#drive}: deadband, field-centric rotation, mecanum mixing and
+ * normalization, once per call like one teleop loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveMathBenchmark {
+  private static final int SAMPLES = 1024;
+
+  @Param({"false", "true"})
+  public boolean fieldCentric;
+
+  @Param({"false", "true"})
+  public boolean velocityMode;
+
+  private final double[] m_y = new double[SAMPLES];
+  private final double[] m_x = new double[SAMPLES];
+  private final double[] m_z = new double[SAMPLES];
+  private SinkDriveIO m_io;
+  private DriveSubsystem m_drive;
+  private int m_next = 0;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initHal();
+    m_io = new SinkDriveIO();
+    m_drive = new DriveSubsystem(m_io, new GyroIO() {});
+    if (fieldCentric) {
+      m_drive.toggleFieldCentric();
+    }
+    if (velocityMode) {
+      m_drive.toggleVelocityMode();
+    }
+
+    // Stick values spread over the whole range, including inside the deadband
+    Random random = new Random(3843);
+    for (int i = 0; i < SAMPLES; i++) {
+      m_y[i] = random.nextDouble() * 2 - 1;
+      m_x[i] = random.nextDouble() * 2 - 1;
+      m_z[i] = random.nextDouble() * 2 - 1;
+    }
+  }
+
+  @Benchmark
+  public double drive() {
+    int i = m_next;
+    m_next = (i + 1) & (SAMPLES - 1);
+    m_drive.drive(m_y[i], m_x[i], m_z[i]);
+    return m_io.m_sink;
+  }
+}
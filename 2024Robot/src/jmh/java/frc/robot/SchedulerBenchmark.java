@@ -0,0 +1,35 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.ModeConstants;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Times one {@link CommandScheduler#run()} in teleop with every subsystem periodic and every
+ * default command (joystick drive, stowed pivot) active. This is most of the 20 ms loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulerBenchmark {
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initHal();
+    BenchmarkSupport.enable(false);
+    new RobotContainer(ModeConstants.Mode.REPLAY);
+    // First run schedules the default commands
+    CommandScheduler.getInstance().run();
+  }
+
+  @Benchmark
+  public void schedulerRun() {
+    CommandScheduler.getInstance().run();
+  }
+}
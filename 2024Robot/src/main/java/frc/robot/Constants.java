@@ -4,6 +4,12 @@
 
 package frc.robot;
 
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.RobotBase;
+
 /**
  * The Constants class provides a convenient place for teams to hold robot-wide numerical or boolean
  * constants. This class should not be used for any other purpose. All constants should be declared
@@ -14,6 +20,173 @@ package frc.robot;
  */
 public final class Constants {
 
+  public static class ModeConstants {
+    public enum Mode {
+      REAL,   // Running on a real robot
+      SIM,    // Running a physics simulator on a desktop
+      REPLAY  // Re-running robot code against a recorded log file
+    }
+
+    // CHANGE THIS to REPLAY to re-run the code against a log file on a desktop
+    public static final Mode SIM_MODE = Mode.SIM;
+
+    public static final Mode CURRENT_MODE = RobotBase.isReal() ? Mode.REAL : SIM_MODE;
+
+    // Environment variable holding the log to replay (otherwise AdvantageKit asks for one)
+    public static final String REPLAY_LOG_ENV = "REPLAY_LOG_PATH";
+
+    // SIM only: true = step sim time 20ms per loop as fast as the CPU allows (no waiting)
+    public static final boolean SIM_UNTHROTTLED = false;
+  }
+
+  public static class DiagnosticsConstants {
+    // Robot loop period (the 20ms "budget" every loop must fit in)
+    public static final double LOOP_PERIOD_SECONDS = 0.02;
+
+    // Loop timing profiler (publishes to NetworkTables under "LoopTiming/")
+    public static final boolean PROFILER_ENABLED = true;
+    public static final int PROFILER_WINDOW_SIZE = 256; // Samples per timer (~5 seconds)
+    public static final int PROFILER_PUBLISH_PERIOD_LOOPS = 50; // Publish once per second
+  }
+
+  public static class PowerConstants {
+    // ==========================================
+    // BROWNOUT PREVENTION (see PowerManager)
+    // ==========================================
+    public static final boolean POWER_MANAGER_ENABLED = true;
+
+    // Battery model: volts at the robot = open-circuit volts - total current * resistance.
+    // Resistance is the battery, main breaker and wiring. Fit it from a log of a pushing match
+    // (Power/BatteryVolts against Power/TotalCurrentAmps).
+    public static final double BATTERY_RESISTANCE_OHMS = 0.02;
+    public static final double OPEN_CIRCUIT_FILTER_SECONDS = 1.0; // Smooths the estimate
+    public static final double BASE_CURRENT_AMPS = 5.0; // roboRIO, radio, PDH: not measured
+
+    // Budget so that even if every motor pulls its limit, the battery stays above this.
+    // The roboRIO browns out (motors off) at 6.8 V; the margin covers the model being off.
+    public static final double MIN_BATTERY_VOLTS = 7.5;
+    public static final double MAX_TOTAL_CURRENT_AMPS = 240.0; // Main breaker, for seconds at a time
+
+    // Supply current limits (Amps). Pivot and feeder always get theirs (the pivot holds the
+    // shooter up; jam detection needs the feeder above FEEDER_JAM_AMPS). Drive and flywheel
+    // share what's left, between their min and max.
+    public static final double PIVOT_CURRENT_LIMIT = 30.0;
+    public static final double FEEDER_CURRENT_LIMIT = 40.0;
+    public static final double DRIVE_MIN_CURRENT_LIMIT = 20.0; // Per motor
+    public static final double SHOOTER_MIN_CURRENT_LIMIT = 20.0;
+    public static final double SHOOTER_MAX_CURRENT_LIMIT = 40.0;
+
+    // Limits are sent in whole steps, lowered right away and raised at most this often, so the
+    // CAN bus doesn't get a config write every loop
+    public static final double LIMIT_STEP_AMPS = 5.0;
+    public static final double LIMIT_RAISE_PERIOD = 0.5; // seconds
+  }
+
+  public static class CanBusConstants {
+    // ==========================================
+    // CAN FRAME BUDGET
+    // ==========================================
+    // Every status frame period on the robot lives here, so the bus load can be added up in one
+    // place (see CanBusBudget). Change a period here, not in the IO classes.
+    // Run "./gradlew test" after changing anything below (CanBusBudgetTest checks the total).
+
+    // Bus model: 1 Mbit/s, and an extended (29-bit ID) frame with 8 data bytes is ~135 bits
+    // on the wire once bit stuffing is counted
+    public static final double BUS_BITS_PER_SECOND = 1_000_000.0;
+    public static final double BITS_PER_FRAME = 135.0;
+
+    // The build fails if the projected load goes above this (leave headroom for retries/bursts)
+    public static final double MAX_PROJECTED_UTILIZATION = 0.60;
+
+    // How often measured vs projected load is published (loops)
+    public static final int PUBLISH_PERIOD_LOOPS = 50;
+
+    // Startup motor configuration (see MotorConfigPipeline)
+    public static final int CONFIG_THREADS = 4; // Devices configured at the same time
+    public static final int CONFIG_TIMEOUT_MS = 100; // Per read/write, off the main thread
+    public static final int CONFIG_ATTEMPTS = 2; // Tries per device before it's marked failed
+
+    // Frames we never set, at their factory rates (ms)
+    public static final int TALON_SRX_DEFAULT_SLOW_MS = 160; // Status 3, 8, 10, 13, 14 ...
+    public static final int SPARK_DEFAULT_FAULTS_MS = 250; // Faults and warnings
+    public static final int POWER_DISTRIBUTION_FRAMES = 4; // PDH channel currents + totals
+    public static final int POWER_DISTRIBUTION_PERIOD_MS = 25;
+
+    // Control frames sent by the roboRIO (ms)
+    public static final int PHOENIX5_CONTROL_MS = 10; // Sent by Phoenix in the background
+    public static final int PHOENIX6_CONTROL_MS = 10; // Default 100 Hz control request
+    public static final int SPARK_CONTROL_MS = 20; // One setpoint per robot loop
+
+    // Frame rates that change with the robot mode. Robot.disabledInit/autonomousInit/teleopInit
+    // switch between these, so frames nobody reads in that mode don't fill the bus.
+    public enum FrameProfile {
+      // Periods in ms, shooter rates in Hz (see the fields below for what each one controls)
+      DISABLED(100, 250, 100, 100, 255, 100, 10.0, 10.0),
+      AUTONOMOUS(10, 50, 20, 10, 20, 20, ShooterConstants.SHOOTER_VELOCITY_FREQUENCY, 50.0),
+      TELEOP(10, 50, 20, 20, 100, 20, ShooterConstants.SHOOTER_VELOCITY_FREQUENCY, 50.0);
+
+      /** Talon Status_1 (output, faults) and SparkMax Status0 period for drive, pivot, shield. */
+      public final int generalMs;
+      /** Talon Status_4 (current, voltage, temperature) period. */
+      public final int ainMs;
+      /** SparkMax drive encoder velocity period (position always runs at the odometry rate). */
+      public final int driveVelocityMs;
+      /** Pivot/shield Status_2 period (the position getPosition() reads). */
+      public final int mechanismFeedbackMs;
+      /** Pivot/shield Status_10 MotionMagic and Status_13 PIDF0 period (closed-loop target/error). */
+      public final int mechanismClosedLoopMs;
+      /** Feeder Status_1 period. */
+      public final int feederGeneralMs;
+      /** Flywheel velocity and acceleration rate in Hz. */
+      public final double shooterVelocityHz;
+      /** Flywheel voltage and current rate in Hz. */
+      public final double shooterElectricalHz;
+
+      FrameProfile(
+          int generalMs,
+          int ainMs,
+          int driveVelocityMs,
+          int mechanismFeedbackMs,
+          int mechanismClosedLoopMs,
+          int feederGeneralMs,
+          double shooterVelocityHz,
+          double shooterElectricalHz) {
+        this.generalMs = generalMs;
+        this.ainMs = ainMs;
+        this.driveVelocityMs = driveVelocityMs;
+        this.mechanismFeedbackMs = mechanismFeedbackMs;
+        this.mechanismClosedLoopMs = mechanismClosedLoopMs;
+        this.feederGeneralMs = feederGeneralMs;
+        this.shooterVelocityHz = shooterVelocityHz;
+        this.shooterElectricalHz = shooterElectricalHz;
+      }
+    }
+
+    // The robot boots disabled
+    public static final FrameProfile STARTUP_PROFILE = FrameProfile.DISABLED;
+
+    // Drive TalonSRX frames (ms)
+    public static final int DRIVE_TALON_FEEDBACK_MS = 255; // No encoders: nothing to read
+    public static final int DRIVE_TALON_UNUSED_MS = 255; // Misc, MotionMagic, PIDF0
+    // With encoders, the feedback frame runs at the odometry thread rate instead
+    public static final int DRIVE_ODOMETRY_FRAME_MS =
+        (int) (1000.0 / DriveConstants.ODOMETRY_FREQUENCY);
+
+    // Drive SparkMax signals (ms). Position runs at DRIVE_ODOMETRY_FRAME_MS.
+    public static final int DRIVE_SPARK_BUS_VOLTAGE_MS = 100;
+    public static final int DRIVE_SPARK_TEMPERATURE_MS = 500;
+
+    // Pivot and shield TalonSRX frames (ms)
+    public static final int MECHANISM_MISC_MS = 255;
+
+    // Shooter TalonFX signal rates (Hz)
+    public static final double SHOOTER_TEMPERATURE_FREQUENCY = 4.0;
+
+    // Feeder TalonSRX frames (ms)
+    public static final int FEEDER_FEEDBACK_MS = 255;
+    public static final int FEEDER_MISC_MS = 255;
+  }
+
   public static class OperatorConstants {
     public static final int DRIVER_CONTROLLER_PORT = 0;
     public static final int OPERATOR_CONTROLLER_PORT = 1;
@@ -61,8 +234,22 @@ public final class Constants {
     public static final double MOTOR_I = 0.000001;
     public static final double MOTOR_I_ZONE = 0;
     public static final double MOTOR_D = 0;
-    public static final double MOTOR_FF = 0.000156;
     public static final double MOTOR_MAX_OUTPUT = 1;
+
+    // Feedforward per wheel {FL, RL, FR, RR}: volts = kS + kV * RPM + kA * RPM/s (motor RPM).
+    // The PID above only has to fix what these get wrong. Run the "Drive Characterization" auto
+    // (needs encoders) and copy the values it prints here. Until then this is 12V at max speed.
+    public static final double[] DRIVE_KS = {0.0, 0.0, 0.0, 0.0}; // Volts to overcome friction
+    public static final double[] DRIVE_KV = {0.0024, 0.0024, 0.0024, 0.0024}; // Volts per RPM
+    public static final double[] DRIVE_KA = {0.0, 0.0, 0.0, 0.0}; // Volts per RPM/s
+
+    // Characterization routine (SysId-style voltage sweeps; give the robot ~5m of space)
+    public static final double CHARACTERIZATION_RAMP_RATE = 0.5; // Volts per second (quasistatic)
+    public static final double CHARACTERIZATION_RAMP_TIME = 6.0; // seconds per direction
+    public static final double CHARACTERIZATION_STEP_VOLTS = 4.0; // Volts (dynamic)
+    public static final double CHARACTERIZATION_STEP_TIME = 1.5; // seconds per direction
+    public static final double CHARACTERIZATION_PAUSE_TIME = 1.0; // seconds to coast to a stop
+    public static final double CHARACTERIZATION_MIN_VELOCITY = 10.0; // RPM, slower samples skipped
     public static final double MOTOR_MIN_OUTPUT = -1;
 
     // SmartMotion constants
@@ -73,6 +260,30 @@ public final class Constants {
 
     // Position tolerance for autonomous
     public static final double POSITION_TOLERANCE = 0.5; // Encoder revolutions
+
+    // Geometry (MEASURE THESE on the real robot)
+    public static final double WHEEL_DIAMETER_METERS = 0.1524; // 6 inch mecanum wheels
+    public static final double DRIVE_GEAR_RATIO = 10.71; // Motor rotations per wheel rotation
+    public static final double TRACK_WIDTH_METERS = 0.55; // Left wheels to right wheels
+    public static final double WHEEL_BASE_METERS = 0.50; // Front wheels to rear wheels
+
+    // Physical properties used by the path follower (MEASURE THESE too)
+    public static final double ROBOT_MASS_KG = 50.0; // With bumpers and battery
+    public static final double ROBOT_MOI = 6.0; // kg*m^2, rough guess for a box robot
+    public static final double WHEEL_COF = 1.0; // Mecanum rollers on carpet
+    public static final double DRIVE_CURRENT_LIMIT = 40.0; // Amps per motor (max, see PowerManager)
+
+    // Odometry thread
+    public static final double ODOMETRY_FREQUENCY = 100.0; // Hz (encoder frames run at this rate)
+    public static final int ODOMETRY_QUEUE_CAPACITY = 20; // Samples held between main loops
+
+    // Simulation-only gains (the real robot uses the motor controller PID above)
+    public static final double SIM_VELOCITY_P = 0.01; // Volts per RPM of error
+    public static final double SIM_POSITION_P = 2.0; // Volts per rotation of error
+
+    // After zeroing the encoders, wait for the samples to read ~0 before re-seeding odometry
+    public static final double ENCODER_RESET_TOLERANCE_METERS = 0.02;
+    public static final double ENCODER_RESET_TIMEOUT = 0.1; // seconds
   }
 
   public static class PivotConstants {
@@ -92,6 +303,9 @@ public final class Constants {
     // Position tolerance
     public static final int POSITION_TOLERANCE = 5000;
 
+    // The position is "stale" if no pivot read has worked for this long (Talon not answering)
+    public static final double MAX_SNAPSHOT_AGE = 0.05; // seconds (2.5 loops)
+
     // Motor configuration
     public static final boolean INVERTED = false;
     public static final boolean SENSOR_PHASE = true;
@@ -110,6 +324,15 @@ public final class Constants {
     public static final int MOTION_CRUISE_VELOCITY = 100000;
     public static final int MOTION_ACCELERATION = 60000;
     public static final int MOTION_S_CURVE_STRENGTH = 0;
+
+    // What the pivot really does, for planning shield moves around it (see PivotShieldPlanner).
+    // The CIM can't reach MOTION_CRUISE_VELOCITY; measure this from Pivot/VelocityCountsPer100ms.
+    public static final double PLAN_CRUISE_VELOCITY = 320000.0; // counts per second
+    public static final double PLAN_ACCELERATION = MOTION_ACCELERATION * 10.0; // counts/s^2
+
+    // Simulation-only model (stands in for the Talon's MotionMagic loop)
+    public static final double SIM_P = 0.006; // Volts per count of error
+    public static final double SIM_MOTOR_INERTIA = 0.0005; // kg*m^2 seen by the motor
   }
 
   public static class ShieldConstants {
@@ -144,6 +367,14 @@ public final class Constants {
 
     // Initial position
     public static final double INITIAL_POSITION = 30;
+
+    // Motion planning with the pivot (see PivotShieldPlanner). The shield is down at or below
+    // CLEAR_POS; it may only be down while the pivot is past PivotConstants.SHOOTING_LOW_POS.
+    // Speeds are guesses until measured from the Shield/ logs.
+    public static final double CLEAR_POS = 10;
+    public static final double PLAN_MAX_VELOCITY = 60.0; // counts per second
+    public static final double PLAN_ACCELERATION = 300.0; // counts per second squared
+    public static final double PLAN_MARGIN_SECONDS = 0.1; // Cross at least this long after the pivot
   }
 
   public static class ShooterConstants {
@@ -161,10 +392,88 @@ public final class Constants {
     public static final boolean FEEDER_INVERTED = false;
 
     // Speed setpoints
-    public static final double SHOOTER_SPEED = 1.0;
-    public static final double SHOOTER_REVERSE_SPEED = -0.8;
     public static final double FEEDER_SPEED = 1.0;
     public static final double FEEDER_REVERSE_SPEED = -0.6;
+
+    // Flywheel velocity control (Phoenix 6 VelocityVoltage, rotations per second)
+    public static final double SHOOTER_TARGET_RPS = 85.0;
+    public static final double SHOOTER_REVERSE_RPS = -60.0;
+    public static final double AT_SPEED_TOLERANCE_RPS = 3.0; // "Ready to fire" window
+    public static final double SHOOTER_KS = 0.15; // Volts to overcome friction
+    public static final double SHOOTER_KV = 0.12; // Volts per RPS
+    public static final double SHOOTER_KP = 0.3; // Volts per RPS of error
+    public static final double SHOOTER_VELOCITY_FREQUENCY = 100.0; // Hz, velocity signal rate
+
+    // Note and jam detection from feeder current (see NoteDetector). Starting points: tune them
+    // from Shooter/FeederFilteredAmps in the logs (empty, with a note, held stuck).
+    public static final int NOTE_DETECT_WINDOW = 5; // Loops averaged (the current frame is 50 ms)
+    public static final double NOTE_DETECT_BLANKING_SECONDS = 0.25; // Ignore the start-up spike
+    public static final double NOTE_AMPS = 12.0; // Above this a note is in the feeder
+    public static final double NOTE_DEBOUNCE_SECONDS = 0.1;
+    public static final double FEEDER_JAM_AMPS = 30.0; // Above this the feeder is stuck
+    public static final double FEEDER_JAM_DEBOUNCE_SECONDS = 0.3;
+
+    // Jam clearing: back the feeder off, then try again
+    public static final double UNJAM_SPEED = 0.5; // Opposite to the direction that jammed
+    public static final double UNJAM_TIME = 0.25; // seconds
+    public static final int MAX_UNJAM_ATTEMPTS = 3; // Per goal, then the feeder stops
+
+    // Simulation-only model
+    public static final double SIM_FLYWHEEL_INERTIA = 0.004; // kg*m^2
+    public static final double SIM_FEEDER_INERTIA = 0.0005; // kg*m^2
+  }
+
+  public static class VisionConstants {
+    // ==========================================
+    // CONFIGURATION
+    // ==========================================
+    public static final boolean VISION_ENABLED = true;
+
+    // AprilTag positions for the 2024 field
+    public static final AprilTagFieldLayout APRILTAG_LAYOUT =
+        AprilTagFieldLayout.loadField(AprilTagFields.k2024Crescendo);
+
+    // Camera name must match the name set in the PhotonVision web UI
+    public static final String FRONT_CAMERA_NAME = "front";
+
+    // Where the camera sits on the robot (meters/radians from robot center, +X forward, +Y left)
+    public static final Transform3d ROBOT_TO_FRONT_CAMERA =
+        new Transform3d(0.25, 0.0, 0.30, new Rotation3d(0.0, Math.toRadians(-20), 0.0));
+
+    // How often the background thread checks the camera for new results
+    public static final double POLL_FREQUENCY = 50.0; // Hz
+    public static final int OBSERVATION_QUEUE_CAPACITY = 10; // Poses held between main loops
+
+    // Rejection limits
+    public static final double MAX_AMBIGUITY = 0.3;
+    public static final double MAX_Z_ERROR = 0.75; // meters
+
+    // Trust at 1 meter with 1 tag; grows with distance squared, shrinks with more tags
+    public static final double LINEAR_STD_DEV_BASELINE = 0.02; // meters
+    public static final double ANGULAR_STD_DEV_BASELINE = 0.06; // radians
+  }
+
+  public static class AimConstants {
+    // Shot map: distance to the speaker -> pivot counts and flywheel speed (see ShotMap)
+    public static final String SHOT_MAP_FILE = "shotmap.csv"; // in src/main/deploy
+
+    // AprilTags in the middle of each alliance's speaker
+    public static final int BLUE_SPEAKER_TAG_ID = 7;
+    public static final int RED_SPEAKER_TAG_ID = 4;
+
+    // While auto-aiming, smaller changes than these aren't sent to the motors
+    public static final double PIVOT_DEADBAND_COUNTS = 150;
+    public static final double SHOOTER_DEADBAND_RPS = 1.0;
+
+    // Shoot on the move (see MovingShotSolver). Check changes with ./gradlew test
+    public static final int SHOOT_ON_MOVE_MAX_ITERATIONS = 8;
+    public static final double SHOOT_ON_MOVE_TOLERANCE_SECONDS = 0.001;
+
+    // The shooter faces the robot's front. AUTO_FIRE only starts feeding once the robot points
+    // within this of the solver's heading, and drive turns toward it while the driver isn't turning
+    public static final double SHOT_HEADING_TOLERANCE_DEGREES = 3.0;
+    public static final double HEADING_ASSIST_P = 1.0; // Rotation stick per radian of error
+    public static final double HEADING_ASSIST_MAX_OUTPUT = 0.4; // Most rotation stick it uses
   }
 
   public static class AutoConstants {
@@ -176,10 +485,26 @@ public final class Constants {
     public static final String AUTO_4 = "Auto 4";
     public static final String AUTO_5 = "Auto 5";
     public static final String AUTO_6 = "Auto 6";
+    public static final String DRIVE_CHARACTERIZATION = "Drive Characterization";
+
+    // Path names (files in deploy/pathplanner/paths, without ".path")
+    public static final String CENTER_NOTE_PATH = "Center Note";
+    public static final String CENTER_RETURN_PATH = "Center Return";
+    public static final String RIGHT_NOTE_PATH = "Right Note";
+    public static final String RIGHT_RETURN_PATH = "Right Return";
+    public static final String LEFT_NOTE_PATH = "Left Note";
+    public static final String LEFT_RETURN_PATH = "Left Return";
+    public static final String RIGHT_LEAVE_PATH = "Right Leave";
+    public static final String LEFT_LEAVE_PATH = "Left Leave";
+
+    // Path following PID (meters and radians of error)
+    public static final double TRANSLATION_P = 5.0;
+    public static final double ROTATION_P = 5.0;
 
     // Timing constants
-    public static final double SHOOTER_SPINUP_TIME = 1.0; // seconds
+    public static final double SHOOTER_SPINUP_TIME = 1.0; // seconds, max wait for the flywheel
     public static final double FEED_TIME = 0.5; // seconds
     public static final double WAIT_TIME = 10.0; // seconds for Auto 5/6
+    public static final double MOTOR_CONFIG_WAIT_TIME = 2.0; // seconds, max wait before auto
   }
 }
\ No newline at end of file
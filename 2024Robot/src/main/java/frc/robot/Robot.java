@@ -4,17 +4,32 @@
 
 package frc.robot;
 
-import edu.wpi.first.wpilibj.TimedRobot;
+import com.pathplanner.lib.commands.FollowPathCommand;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.DiagnosticsConstants;
+import frc.robot.Constants.ModeConstants;
+import frc.robot.util.CanBusBudget;
+import frc.robot.util.LoopProfiler;
+import org.littletonrobotics.junction.LogFileUtil;
+import org.littletonrobotics.junction.LoggedRobot;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
  * each mode, as described in the TimedRobot documentation. If you change the name of this class or
  * the package after creating this project, you must also update the build.gradle file in the
  * project.
+ *
+ * <p>We extend AdvantageKit's {@link LoggedRobot} instead of TimedRobot so every subsystem's
+ * inputs are captured once per loop and saved to a WPILOG file for post-match review.
  */
-public class Robot extends TimedRobot {
+public class Robot extends LoggedRobot {
   private Command m_autonomousCommand;
 
   private RobotContainer m_robotContainer;
@@ -25,9 +40,48 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void robotInit() {
+    // Set up AdvantageKit logging. This must happen before any subsystem is created.
+    Logger.recordMetadata("ProjectName", "2024Robot");
+    Logger.recordMetadata("Mode", ModeConstants.CURRENT_MODE.toString());
+
+    switch (ModeConstants.CURRENT_MODE) {
+      case REPLAY:
+        // Run as fast as the CPU allows instead of waiting 20ms between loops
+        setUseTiming(false);
+        String logPath = System.getenv(ModeConstants.REPLAY_LOG_ENV);
+        if (logPath == null) {
+          logPath = LogFileUtil.findReplayLog();
+        }
+        Logger.setReplaySource(new WPILOGReader(logPath));
+        // Original outputs stay under "RealOutputs", re-computed ones land in "ReplayOutputs"
+        Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
+        break;
+      case SIM:
+        if (ModeConstants.SIM_UNTHROTTLED) {
+          // Don't wait between loops; simulationPeriodic() steps the clock 20ms each loop instead
+          setUseTiming(false);
+        }
+        // fall through
+      case REAL:
+      default:
+        Logger.addDataReceiver(new WPILOGWriter()); // USB stick on the roboRIO, ./logs in sim
+        Logger.addDataReceiver(new NT4Publisher()); // Live view in AdvantageScope
+        break;
+    }
+    Logger.start();
+
+    // Start recording how long each subsystem and command takes
+    LoopProfiler.install();
+
     // Instantiate our RobotContainer. This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = new RobotContainer();
+
+    // Print the projected CAN bus load and start publishing the measured load next to it
+    CanBusBudget.start();
+
+    // Run a throwaway path follower while disabled so the JIT has compiled it before auto
+    CommandScheduler.getInstance().schedule(FollowPathCommand.warmupCommand());
   }
 
   /**
@@ -43,12 +97,18 @@ public class Robot extends TimedRobot {
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods. This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    LoopProfiler.startLoop();
     CommandScheduler.getInstance().run();
+    LoopProfiler.endLoop();
+    CanBusBudget.periodic();
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
   @Override
-  public void disabledInit() {}
+  public void disabledInit() {
+    // Nothing moves while disabled, so most status frames can slow way down
+    m_robotContainer.setFrameProfile(FrameProfile.DISABLED);
+  }
 
   @Override
   public void disabledPeriodic() {}
@@ -56,6 +116,9 @@ public class Robot extends TimedRobot {
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
   @Override
   public void autonomousInit() {
+    // Auto waits on pivot position and flywheel speed, so those frames go fast
+    m_robotContainer.setFrameProfile(FrameProfile.AUTONOMOUS);
+
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
     // schedule the autonomous command (example)
@@ -70,6 +133,8 @@ public class Robot extends TimedRobot {
 
   @Override
   public void teleopInit() {
+    m_robotContainer.setFrameProfile(FrameProfile.TELEOP);
+
     // This makes sure that the autonomous stops running when
     // teleop starts running. If you want the autonomous to
     // continue until interrupted by another command, remove
@@ -87,6 +152,7 @@ public class Robot extends TimedRobot {
   public void testInit() {
     // Cancels all running commands at the start of test mode.
     CommandScheduler.getInstance().cancelAll();
+    m_robotContainer.setFrameProfile(FrameProfile.TELEOP);
   }
 
   /** This function is called periodically during test mode. */
@@ -95,9 +161,19 @@ public class Robot extends TimedRobot {
 
   /** This function is called once when the robot is first started up. */
   @Override
-  public void simulationInit() {}
+  public void simulationInit() {
+    if (ModeConstants.SIM_UNTHROTTLED) {
+      // Freeze the simulated clock. It only moves when we step it, so timers, waits and
+      // Notifiers all see exactly 20ms per loop no matter how fast the loop really runs.
+      SimHooks.pauseTiming();
+    }
+  }
 
   /** This function is called periodically whilst in simulation. */
   @Override
-  public void simulationPeriodic() {}
+  public void simulationPeriodic() {
+    if (ModeConstants.SIM_UNTHROTTLED) {
+      SimHooks.stepTiming(DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+    }
+  }
 }
@@ -4,17 +4,43 @@
 
 package frc.robot;
 
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.auto.NamedCommands;
+import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.ModeConstants;
 import frc.robot.Constants.OperatorConstants;
+import frc.robot.subsystems.DriveIO;
+import frc.robot.subsystems.DriveIOSim;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.GyroIO;
+import frc.robot.subsystems.GyroIOADIS16470;
+import frc.robot.subsystems.GyroIOSim;
+import frc.robot.subsystems.PivotIO;
 import frc.robot.subsystems.PivotSubsystem;
+import frc.robot.subsystems.PowerIO;
+import frc.robot.subsystems.PowerIORoboRIO;
+import frc.robot.subsystems.PowerManager;
+import frc.robot.subsystems.ShieldIO;
 import frc.robot.subsystems.ShieldSubsystem;
+import frc.robot.subsystems.ShooterIO;
 import frc.robot.subsystems.ShooterSubsystem;
+import frc.robot.subsystems.Superstructure;
+import frc.robot.subsystems.Superstructure.Goal;
+import frc.robot.subsystems.VisionIO;
+import frc.robot.subsystems.VisionSubsystem;
+import frc.robot.util.Blackboard;
+import frc.robot.util.CanBusBudget;
+import frc.robot.util.MotorConfigPipeline;
+import frc.robot.util.SharedCommand;
+import frc.robot.util.ShotMap;
+import frc.robot.util.TrajectoryCache;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -24,10 +50,13 @@ import frc.robot.subsystems.ShooterSubsystem;
  */
 public class RobotContainer {
   // Subsystems
-  private final DriveSubsystem m_driveSubsystem = new DriveSubsystem();
-  private final PivotSubsystem m_pivotSubsystem = new PivotSubsystem();
-  private final ShieldSubsystem m_shieldSubsystem = new ShieldSubsystem();
-  private final ShooterSubsystem m_shooterSubsystem = new ShooterSubsystem();
+  private final DriveSubsystem m_driveSubsystem;
+  private final PivotSubsystem m_pivotSubsystem;
+  private final ShieldSubsystem m_shieldSubsystem;
+  private final ShooterSubsystem m_shooterSubsystem;
+  private final VisionSubsystem m_visionSubsystem;
+  private final Superstructure m_superstructure;
+  private final PowerManager m_powerManager;
 
   // Controllers
   private final CommandXboxController m_driverController =
@@ -35,19 +64,107 @@ public class RobotContainer {
   private final CommandXboxController m_operatorController =
       new CommandXboxController(OperatorConstants.OPERATOR_CONTROLLER_PORT);
 
+  // Every auto path, loaded and mirrored at startup
+  private final TrajectoryCache m_trajectoryCache;
+
   // Auto chooser
   private final SendableChooser<Command> m_autoChooser = new SendableChooser<>();
 
+  // Shot sequences most autos end with, built once and shared by all of them (see SharedCommand)
+  private final SharedCommand m_shootHigh;
+  private final SharedCommand m_fireHigh;
+  // False only while building throwaway autos the old way, to measure what sharing saves
+  private boolean m_shareShotSequences = true;
+
   /** The container for the robot. Contains subsystems, OI devices, and commands. */
   public RobotContainer() {
-    // Start camera
-    CameraServer.startAutomaticCapture();
+    this(ModeConstants.CURRENT_MODE);
+  }
+
+  /**
+   * Builds the robot for a specific mode. Benchmarks use this with {@code Mode.REPLAY} to get the
+   * real commands wired to blank IOs.
+   *
+   * @param mode Which IO implementations to use
+   */
+  RobotContainer(ModeConstants.Mode mode) {
+    PowerIO powerIO;
+    switch (mode) {
+      case REPLAY:
+        // Replay: every IO is a blank "do nothing" remote. The inputs come from the log file.
+        m_driveSubsystem = new DriveSubsystem(new DriveIO() {}, new GyroIO() {});
+        m_pivotSubsystem = new PivotSubsystem(new PivotIO() {});
+        m_shieldSubsystem = new ShieldSubsystem(new ShieldIO() {});
+        m_shooterSubsystem = new ShooterSubsystem(new ShooterIO() {});
+        m_visionSubsystem =
+            new VisionSubsystem(m_driveSubsystem::addVisionMeasurement, new VisionIO() {});
+        powerIO = new PowerIO() {};
+        break;
+      case SIM:
+        // Sim: physics models stand in for the motors, so code and autos run on a desktop
+        DriveIOSim driveSim = new DriveIOSim();
+        m_driveSubsystem = new DriveSubsystem(driveSim, new GyroIOSim(driveSim));
+        m_pivotSubsystem = new PivotSubsystem(PivotSubsystem.createSimIO());
+        m_shieldSubsystem = new ShieldSubsystem(new ShieldIO() {});
+        m_shooterSubsystem = new ShooterSubsystem(ShooterSubsystem.createSimIO());
+        m_visionSubsystem =
+            new VisionSubsystem(
+                m_driveSubsystem::addVisionMeasurement,
+                VisionSubsystem.createHardwareIO(Blackboard.ROBOT_POSE::get));
+        powerIO = new PowerIORoboRIO(); // Sim battery voltage
+        break;
+      case REAL:
+      default:
+        m_driveSubsystem =
+            new DriveSubsystem(DriveSubsystem.createHardwareIO(), new GyroIOADIS16470());
+        m_pivotSubsystem = new PivotSubsystem(PivotSubsystem.createHardwareIO());
+        m_shieldSubsystem = new ShieldSubsystem(ShieldSubsystem.createHardwareIO());
+        m_shooterSubsystem = new ShooterSubsystem(ShooterSubsystem.createHardwareIO());
+        m_visionSubsystem =
+            new VisionSubsystem(
+                m_driveSubsystem::addVisionMeasurement,
+                VisionSubsystem.createHardwareIO(Blackboard.ROBOT_POSE::get));
+        powerIO = new PowerIORoboRIO();
+
+        // Start camera
+        CameraServer.startAutomaticCapture();
+        break;
+    }
+
+    // Shooter, pivot and shield are driven by goals (see Superstructure)
+    m_superstructure =
+        new Superstructure(
+            m_shooterSubsystem,
+            m_pivotSubsystem,
+            m_shieldSubsystem,
+            ShotMap.loadDeployFile(
+                Constants.AimConstants.SHOT_MAP_FILE, Superstructure.createFallbackShotMap()));
+
+    // Shares the battery between drive and flywheel so pushing matches don't brown out
+    m_powerManager =
+        new PowerManager(powerIO, m_driveSubsystem, m_shooterSubsystem, m_pivotSubsystem);
 
     // Configure the trigger bindings
     configureBindings();
 
-    // Configure autonomous chooser
-    configureAutoChooser();
+    // Load paths and configure autonomous chooser (path markers need the named commands first)
+    registerNamedCommands();
+    m_trajectoryCache =
+        new TrajectoryCache(
+            m_driveSubsystem.getRobotConfig(),
+            Constants.AutoConstants.CENTER_NOTE_PATH,
+            Constants.AutoConstants.CENTER_RETURN_PATH,
+            Constants.AutoConstants.RIGHT_NOTE_PATH,
+            Constants.AutoConstants.RIGHT_RETURN_PATH,
+            Constants.AutoConstants.LEFT_NOTE_PATH,
+            Constants.AutoConstants.LEFT_RETURN_PATH,
+            Constants.AutoConstants.RIGHT_LEAVE_PATH,
+            Constants.AutoConstants.LEFT_LEAVE_PATH);
+    // Build the shot sequences once; every auto shares them through shootHigh() and fireHigh()
+    m_shootHigh = new SharedCommand(shootHighCommand().withName("Shoot High"));
+    m_fireHigh = new SharedCommand(fireHighCommand().withName("Fire High"));
+    Command[] autos = buildAutos(true);
+    configureAutoChooser(autos);
 
     // Set default commands
     setDefaultCommands();
@@ -68,20 +185,7 @@ public class RobotContainer {
     m_driverController
         .a()
         .or(m_operatorController.a())
-        .whileTrue(
-            Commands.run(
-                () -> {
-                  m_shooterSubsystem.spinReverse();
-                  m_shooterSubsystem.feedReverse();
-                  m_pivotSubsystem.moveToIntake();
-                  if (m_pivotSubsystem.getPosition()
-                      > Constants.PivotConstants.SHOOTING_LOW_POS) {
-                    m_shieldSubsystem.moveDown();
-                  }
-                },
-                m_shooterSubsystem,
-                m_pivotSubsystem,
-                m_shieldSubsystem));
+        .whileTrue(m_superstructure.goalCommand(Goal.INTAKE));
 
     // B button (without RB) - High shot prep
     // (pivot high, shooter spin, shield mid)
@@ -92,19 +196,10 @@ public class RobotContainer {
             m_operatorController
                 .b()
                 .and(m_operatorController.rightBumper().negate()))
-        .whileTrue(
-            Commands.run(
-                () -> {
-                  m_shooterSubsystem.spinUp();
-                  m_pivotSubsystem.moveToHigh();
-                  m_shieldSubsystem.moveMid();
-                },
-                m_shooterSubsystem,
-                m_pivotSubsystem,
-                m_shieldSubsystem));
+        .whileTrue(m_superstructure.goalCommand(Goal.AIM_HIGH));
 
     // B + RB - High shot fire
-    // (pivot high, shooter spin, feeder on, shield mid)
+    // (pivot high, shooter spin, feeder on once at speed, shield mid)
     m_driverController
         .b()
         .and(m_driverController.rightBumper())
@@ -112,17 +207,7 @@ public class RobotContainer {
             m_operatorController
                 .b()
                 .and(m_operatorController.rightBumper()))
-        .whileTrue(
-            Commands.run(
-                () -> {
-                  m_shooterSubsystem.spinUp();
-                  m_shooterSubsystem.feed();
-                  m_pivotSubsystem.moveToHigh();
-                  m_shieldSubsystem.moveMid();
-                },
-                m_shooterSubsystem,
-                m_pivotSubsystem,
-                m_shieldSubsystem));
+        .whileTrue(m_superstructure.goalCommand(Goal.FIRE_HIGH));
 
     // X button (without RB) - Low shot prep
     // (pivot low, shield up)
@@ -133,12 +218,10 @@ public class RobotContainer {
             m_operatorController
                 .x()
                 .and(m_operatorController.rightBumper().negate()))
-        .whileTrue(
-            Commands.parallel(
-                m_pivotSubsystem.moveToLowCommand(), m_shieldSubsystem.moveUpCommand()));
+        .whileTrue(m_superstructure.goalCommand(Goal.AIM_LOW));
 
     // X + RB - Low shot fire
-    // (pivot low, shooter spin, feeder on, shield up)
+    // (pivot low, shooter spin, feeder on once at speed, shield up)
     m_driverController
         .x()
         .and(m_driverController.rightBumper())
@@ -146,17 +229,29 @@ public class RobotContainer {
             m_operatorController
                 .x()
                 .and(m_operatorController.rightBumper()))
-        .whileTrue(
-            Commands.run(
-                () -> {
-                  m_shooterSubsystem.spinUp();
-                  m_shooterSubsystem.feed();
-                  m_pivotSubsystem.moveToLow();
-                  m_shieldSubsystem.moveUp();
-                },
-                m_shooterSubsystem,
-                m_pivotSubsystem,
-                m_shieldSubsystem));
+        .whileTrue(m_superstructure.goalCommand(Goal.FIRE_LOW));
+
+    // LB (without RB) - Auto aim
+    // (pivot and shooter speed from the shot map for our distance to the speaker, shield mid)
+    m_driverController
+        .leftBumper()
+        .and(m_driverController.rightBumper().negate())
+        .or(
+            m_operatorController
+                .leftBumper()
+                .and(m_operatorController.rightBumper().negate()))
+        .whileTrue(m_superstructure.goalCommand(Goal.AUTO_AIM));
+
+    // LB + RB - Auto aim and fire
+    // (auto aim, feeder on once at speed)
+    m_driverController
+        .leftBumper()
+        .and(m_driverController.rightBumper())
+        .or(
+            m_operatorController
+                .leftBumper()
+                .and(m_operatorController.rightBumper()))
+        .whileTrue(m_superstructure.goalCommand(Goal.AUTO_FIRE));
 
     // Start button - Toggle velocity mode
     m_driverController.start().onTrue(m_driveSubsystem.toggleVelocityModeCommand());
@@ -168,6 +263,15 @@ public class RobotContainer {
     m_driverController.y().onTrue(m_driveSubsystem.resetGyroCommand());
   }
 
+  /**
+   * Registers the commands that path event markers can run. The names must match the markers in
+   * the .path files, and this must happen before any path is loaded.
+   */
+  private void registerNamedCommands() {
+    NamedCommands.registerCommand("Intake", m_superstructure.goalCommand(Goal.INTAKE));
+    NamedCommands.registerCommand("Prep High", m_superstructure.goalCommand(Goal.AIM_HIGH));
+  }
+
   /** Sets default commands for subsystems. */
   private void setDefaultCommands() {
     // Default drive command - mecanum drive with joysticks
@@ -177,32 +281,45 @@ public class RobotContainer {
             () -> m_driverController.getLeftX(),
             () -> -m_driverController.getRightX()));
 
-    // Default stowed command - pivot high, shield mid when below low position
-    m_pivotSubsystem.setDefaultCommand(
-        Commands.run(
-                () -> {
-                  m_pivotSubsystem.moveToHigh();
-                  m_shooterSubsystem.stopAll();
-                  if (m_pivotSubsystem.getPosition()
-                      < Constants.PivotConstants.SHOOTING_LOW_POS) {
-                    m_shieldSubsystem.moveMid();
-                  }
-                },
-                m_pivotSubsystem,
-                m_shooterSubsystem,
-                m_shieldSubsystem)
-            .withName("Stowed"));
+    // Default stowed command - pivot high, shooter off, shield mid once the pivot is above low
+    m_pivotSubsystem.setDefaultCommand(m_superstructure.goalCommand(Goal.STOW));
   }
 
-  /** Configures the autonomous chooser with all auto modes. */
-  private void configureAutoChooser() {
-    m_autoChooser.setDefaultOption(Constants.AutoConstants.DO_NOTHING, doNothingAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_1, shootOnlyAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_2, centerDoubleAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_3, rightSideDoubleAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_4, leftSideDoubleAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_5, rightSideMoveAuto());
-    m_autoChooser.addOption(Constants.AutoConstants.AUTO_6, leftSideMoveAuto());
+  /**
+   * Builds every auto in the chooser: Do Nothing, then Autos 1-6. Package-private so the
+   * benchmarks can compare both ways.
+   *
+   * @param shareShotSequences True to use the shared shot sequences (what the robot does), false
+   *     to give every auto its own copy (how it used to be, for measuring)
+   */
+  Command[] buildAutos(boolean shareShotSequences) {
+    m_shareShotSequences = shareShotSequences;
+    try {
+      return new Command[] {
+        doNothingAuto(),
+        shootOnlyAuto(),
+        centerDoubleAuto(),
+        rightSideDoubleAuto(),
+        leftSideDoubleAuto(),
+        rightSideMoveAuto(),
+        leftSideMoveAuto()
+      };
+    } finally {
+      m_shareShotSequences = true;
+    }
+  }
+
+  /** Configures the autonomous chooser with all auto modes (from {@link #buildAutos}). */
+  private void configureAutoChooser(Command[] autos) {
+    m_autoChooser.setDefaultOption(Constants.AutoConstants.DO_NOTHING, autos[0]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_1, autos[1]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_2, autos[2]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_3, autos[3]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_4, autos[4]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_5, autos[5]);
+    m_autoChooser.addOption(Constants.AutoConstants.AUTO_6, autos[6]);
+    m_autoChooser.addOption(
+        Constants.AutoConstants.DRIVE_CHARACTERIZATION, m_driveSubsystem.characterizeCommand());
 
     SmartDashboard.putData("Auto Chooser", m_autoChooser);
   }
@@ -213,13 +330,123 @@ public class RobotContainer {
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
-    return m_autoChooser.getSelected();
+    Command selected = m_autoChooser.getSelected();
+    if (selected == null || MotorConfigPipeline.isFinished()) {
+      return selected;
+    }
+    // Right after a reboot the motors may still be configuring, so wait for them first.
+    // (Proxied so the chooser's command can still be run again later.)
+    return MotorConfigPipeline.waitUntilFinished(Constants.AutoConstants.MOTOR_CONFIG_WAIT_TIME)
+        .andThen(selected.asProxy())
+        .withName(selected.getName());
+  }
+
+  /**
+   * Switches every motor controller to the status frame rates for a robot mode. Called by {@link
+   * Robot} whenever the mode changes.
+   */
+  public void setFrameProfile(FrameProfile profile) {
+    m_driveSubsystem.setFrameProfile(profile);
+    m_pivotSubsystem.setFrameProfile(profile);
+    m_shieldSubsystem.setFrameProfile(profile);
+    m_shooterSubsystem.setFrameProfile(profile);
+    CanBusBudget.setProfile(profile);
   }
 
   // ==================== Autonomous Commands ====================
+  // The auto factories are package-private so the JMH benchmarks can build them.
+
+  /**
+   * Follows a cached path, running its event markers (intake, shooter prep) while driving. The
+   * blue or red copy is picked when the command starts, so nothing is loaded or generated then.
+   *
+   * <p>Safety: If there are no drive encoders we can't tell where we are, so the move is skipped.
+   */
+  private Command followPath(String pathName) {
+    PathPlannerPath bluePath = m_trajectoryCache.get(pathName, false);
+    PathPlannerPath redPath = m_trajectoryCache.get(pathName, true);
+    if (bluePath == null || !DriveSubsystem.hasDriveEncoders()) {
+      return Commands.none().withName("Follow Path (Skipped)");
+    }
+    return Commands.either(
+            AutoBuilder.followPath(redPath),
+            AutoBuilder.followPath(bluePath),
+            TrajectoryCache::isRedAlliance)
+        .withName("Follow " + pathName);
+  }
+
+  /** Tells odometry the robot is sitting at the start of a path (for our alliance). */
+  private Command resetPoseToStart(String pathName) {
+    if (m_trajectoryCache.get(pathName, false) == null) {
+      return Commands.none();
+    }
+    return Commands.runOnce(
+            () ->
+                m_trajectoryCache
+                    .get(pathName, TrajectoryCache.isRedAlliance())
+                    .getStartingHolonomicPose()
+                    .ifPresent(m_driveSubsystem::resetPose))
+        .withName("Reset Pose to Path Start");
+  }
+
+  /**
+   * Spins up from rest and shoots the note we are holding into the high goal. The autos share one
+   * copy of this ({@code m_shootHigh}); it's package-private so the benchmarks can compare
+   * building a fresh one against sharing.
+   */
+  Command shootHighCommand() {
+    return Commands.sequence(
+        Commands.parallel(
+            m_pivotSubsystem.moveToHighCommand(),
+            m_shooterSubsystem.spinUpCommand(),
+            m_shieldSubsystem.moveMidCommand()),
+        // Feed the moment the flywheel is ready instead of always waiting the full spin-up time
+        m_shooterSubsystem.waitUntilAtSpeed(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
+        m_shooterSubsystem.feedCommand(),
+        Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
+        m_shooterSubsystem.stopCommand());
+  }
+
+  /** The shoot-high sequence for one auto: a stand-in for the shared copy, or a fresh one. */
+  private Command shootHigh() {
+    return m_shareShotSequences ? m_shootHigh.use() : shootHighCommand().withName("Shoot High");
+  }
+
+  /** The fire-high sequence for one auto: a stand-in for the shared copy, or a fresh one. */
+  private Command fireHigh() {
+    return m_shareShotSequences ? m_fireHigh.use() : fireHighCommand().withName("Fire High");
+  }
+
+  /** Fires a note when the "Prep High" marker has already spun the shooter up on the way in. */
+  private Command fireHighCommand() {
+    return Commands.sequence(
+        m_shooterSubsystem.spinUpCommand(),
+        m_shooterSubsystem.waitUntilAtSpeed(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
+        m_shooterSubsystem.feedCommand(),
+        Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
+        m_shooterSubsystem.stopCommand());
+  }
+
+  /**
+   * Two note auto: shoot, drive out intaking, drive back spinning up, shoot. The intake and
+   * shooter run during the drive instead of stopping for each step.
+   */
+  private Command doubleNoteAuto(String notePathName, String returnPathName, String name) {
+    return Commands.sequence(
+            resetPoseToStart(notePathName),
+            // First shot
+            shootHigh(),
+            // Drive to the note while intaking ("Intake" marker)
+            followPath(notePathName),
+            // Drive back while getting ready to shoot ("Prep High" marker)
+            followPath(returnPathName),
+            // Second shot
+            fireHigh())
+        .withName(name);
+  }
 
   /** Do nothing auto - all motors off. */
-  private Command doNothingAuto() {
+  Command doNothingAuto() {
     return Commands.run(
             () -> {
               m_driveSubsystem.stop();
@@ -233,210 +460,57 @@ public class RobotContainer {
   }
 
   /** Auto 1 - Just shoot high. */
-  private Command shootOnlyAuto() {
-    return Commands.sequence(
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            m_shooterSubsystem.stopCommand())
-        .withName("Auto 1 - Shoot Only");
+  Command shootOnlyAuto() {
+    return shootHigh().withName("Auto 1 - Shoot Only");
   }
 
   /** Auto 2 - Center field double auto. */
-  private Command centerDoubleAuto() {
-    return Commands.sequence(
-            // First shot
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            // Move to intake
-            m_shooterSubsystem.stopCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToIntakeCommand(), m_shieldSubsystem.moveDownCommand()),
-            Commands.waitUntil(
-                () ->
-                    Math.abs(
-                            m_pivotSubsystem.getPosition()
-                                - Constants.PivotConstants.INTAKE_POS)
-                        < Constants.PivotConstants.POSITION_TOLERANCE),
-            // Drive back while intaking
-            Commands.parallel(
-                m_shooterSubsystem.reverseAllCommand(),
-                m_driveSubsystem.driveToPositionCommand(-25, -25)),
-            // Return and shoot
-            m_shooterSubsystem.stopCommand(),
-            m_pivotSubsystem.moveToHighCommand(),
-            Commands.waitUntil(
-                () ->
-                    m_pivotSubsystem.getPosition()
-                        < Constants.PivotConstants.SHOOTING_LOW_POS),
-            m_shieldSubsystem.moveMidCommand(),
-            m_driveSubsystem.driveToPositionCommand(0, 0),
-            m_shooterSubsystem.spinUpCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            m_shooterSubsystem.stopCommand())
-        .withName("Auto 2 - Center Double");
+  Command centerDoubleAuto() {
+    return doubleNoteAuto(
+        Constants.AutoConstants.CENTER_NOTE_PATH,
+        Constants.AutoConstants.CENTER_RETURN_PATH,
+        "Auto 2 - Center Double");
   }
 
   /** Auto 3 - Right side double auto. */
-  private Command rightSideDoubleAuto() {
-    return Commands.sequence(
-            // First shot
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            // Move to intake
-            m_shooterSubsystem.stopCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToIntakeCommand(), m_shieldSubsystem.moveDownCommand()),
-            Commands.waitUntil(
-                () ->
-                    Math.abs(
-                            m_pivotSubsystem.getPosition()
-                                - Constants.PivotConstants.INTAKE_POS)
-                        < Constants.PivotConstants.POSITION_TOLERANCE),
-            // Drive back
-            Commands.parallel(
-                m_shooterSubsystem.reverseAllCommand(),
-                m_driveSubsystem.driveToPositionCommand(-15, -15)),
-            // Turn right
-            m_driveSubsystem.driveToPositionCommand(-45, -15),
-            // Drive back more
-            m_driveSubsystem.driveToPositionCommand(-65, -35),
-            // Drive forward
-            m_driveSubsystem.driveToPositionCommand(-45, -15),
-            // Prepare to shoot
-            Commands.parallel(
-                m_shooterSubsystem.stopCommand(),
-                m_pivotSubsystem.moveToHighCommand(),
-                Commands.waitUntil(
-                        () ->
-                            m_pivotSubsystem.getPosition()
-                                < Constants.PivotConstants.SHOOTING_LOW_POS)
-                    .andThen(m_shieldSubsystem.moveMidCommand())),
-            // Turn left
-            m_driveSubsystem.driveToPositionCommand(-15, -15),
-            // Drive forward
-            m_driveSubsystem.driveToPositionCommand(0, 0),
-            // Shoot
-            m_shooterSubsystem.spinUpCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            m_shooterSubsystem.stopCommand())
-        .withName("Auto 3 - Right Side Double");
+  Command rightSideDoubleAuto() {
+    return doubleNoteAuto(
+        Constants.AutoConstants.RIGHT_NOTE_PATH,
+        Constants.AutoConstants.RIGHT_RETURN_PATH,
+        "Auto 3 - Right Side Double");
   }
 
   /** Auto 4 - Left side double auto. */
-  private Command leftSideDoubleAuto() {
-    return Commands.sequence(
-            // First shot
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            // Move to intake
-            m_shooterSubsystem.stopCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToIntakeCommand(), m_shieldSubsystem.moveDownCommand()),
-            Commands.waitUntil(
-                () ->
-                    Math.abs(
-                            m_pivotSubsystem.getPosition()
-                                - Constants.PivotConstants.INTAKE_POS)
-                        < Constants.PivotConstants.POSITION_TOLERANCE),
-            // Drive back
-            Commands.parallel(
-                m_shooterSubsystem.reverseAllCommand(),
-                m_driveSubsystem.driveToPositionCommand(-15, -15)),
-            // Turn left
-            m_driveSubsystem.driveToPositionCommand(-15, -45),
-            // Drive back more
-            m_driveSubsystem.driveToPositionCommand(-35, -65),
-            // Drive forward
-            m_driveSubsystem.driveToPositionCommand(-15, -45),
-            // Prepare to shoot
-            Commands.parallel(
-                m_shooterSubsystem.stopCommand(),
-                m_pivotSubsystem.moveToHighCommand(),
-                Commands.waitUntil(
-                        () ->
-                            m_pivotSubsystem.getPosition()
-                                < Constants.PivotConstants.SHOOTING_LOW_POS)
-                    .andThen(m_shieldSubsystem.moveMidCommand())),
-            // Turn right
-            m_driveSubsystem.driveToPositionCommand(-15, -15),
-            // Drive forward
-            m_driveSubsystem.driveToPositionCommand(0, 0),
-            // Shoot
-            m_shooterSubsystem.spinUpCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            m_shooterSubsystem.stopCommand())
-        .withName("Auto 4 - Left Side Double");
+  Command leftSideDoubleAuto() {
+    return doubleNoteAuto(
+        Constants.AutoConstants.LEFT_NOTE_PATH,
+        Constants.AutoConstants.LEFT_RETURN_PATH,
+        "Auto 4 - Left Side Double");
   }
 
   /** Auto 5 - Right side move auto. */
-  private Command rightSideMoveAuto() {
+  Command rightSideMoveAuto() {
     return Commands.sequence(
+            resetPoseToStart(Constants.AutoConstants.RIGHT_LEAVE_PATH),
             // Shoot
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            // Stop and wait
-            m_shooterSubsystem.stopCommand(),
+            shootHigh(),
+            // Wait for teammates to clear out
             Commands.waitSeconds(Constants.AutoConstants.WAIT_TIME),
             // Move
-            m_driveSubsystem.driveToPositionCommand(-47, -15),
-            m_driveSubsystem.driveToPositionCommand(-62, -30))
+            followPath(Constants.AutoConstants.RIGHT_LEAVE_PATH))
         .withName("Auto 5 - Right Side Move");
   }
 
   /** Auto 6 - Left side move auto. */
-  private Command leftSideMoveAuto() {
+  Command leftSideMoveAuto() {
     return Commands.sequence(
+            resetPoseToStart(Constants.AutoConstants.LEFT_LEAVE_PATH),
             // Shoot
-            m_driveSubsystem.resetEncodersCommand(),
-            Commands.parallel(
-                m_pivotSubsystem.moveToHighCommand(),
-                m_shooterSubsystem.spinUpCommand(),
-                m_shieldSubsystem.moveMidCommand()),
-            Commands.waitSeconds(Constants.AutoConstants.SHOOTER_SPINUP_TIME),
-            m_shooterSubsystem.feedCommand(),
-            Commands.waitSeconds(Constants.AutoConstants.FEED_TIME),
-            // Stop and wait
-            m_shooterSubsystem.stopCommand(),
+            shootHigh(),
+            // Wait for teammates to clear out
             Commands.waitSeconds(Constants.AutoConstants.WAIT_TIME),
             // Move
-            m_driveSubsystem.driveToPositionCommand(-15, -47),
-            m_driveSubsystem.driveToPositionCommand(-30, -62))
+            followPath(Constants.AutoConstants.LEFT_LEAVE_PATH))
         .withName("Auto 6 - Left Side Move");
   }
 }
@@ -1,5 +1,9 @@
 package frc.robot.subsystems;
 
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.DriveConstants;
+import org.littletonrobotics.junction.AutoLog;
+
 /**
  * DriveIO is the "Universal Remote" interface for our drivetrain.
  * 
@@ -9,8 +13,50 @@ package frc.robot.subsystems;
  * 
  * <p>By using this, the main robot code (DriveSubsystem) doesn't need to know
  * if we are using NEOs or CIMs. It just pushes the buttons on this remote.
+ *
+ * <p>Every button has a "do nothing" default. That blank remote ({@code new DriveIO() {}}) is
+ * what we use in log replay, where the sensor values come from the log file instead.
  */
 public interface DriveIO {
+  /** Names of the four drive motors in MotorConfigPipeline, in the usual {FL, RL, FR, RR} order. */
+  String[] CONFIG_NAMES = {"DriveFrontLeft", "DriveRearLeft", "DriveFrontRight", "DriveRearRight"};
+
+  /**
+   * Everything the drivetrain can tell us, in one reusable "clipboard".
+   *
+   * <p>The arrays are created once and then overwritten in place every loop. Wheel order is
+   * always {FrontLeft, RearLeft, FrontRight, RearRight}.
+   *
+   * <p>{@code @AutoLog} generates {@code DriveIOInputsAutoLogged}, which knows how to write
+   * these values to the match log (and read them back in replay).
+   */
+  @AutoLog
+  public static class DriveIOInputs {
+    /** Wheel positions in Rotations. */
+    public double[] positions = new double[4];
+
+    /** Wheel velocities in RPM. */
+    public double[] velocities = new double[4];
+
+    /** Voltage each motor is actually applying. */
+    public double[] appliedVolts = new double[4];
+
+    /** Current each motor is drawing in Amps. */
+    public double[] currentAmps = new double[4];
+
+    /** How many high-rate odometry samples arrived since last loop. */
+    public int odometrySampleCount = 0;
+
+    /** FPGA time (seconds) of each odometry sample. Only the first odometrySampleCount are valid. */
+    public double[] odometryTimestamps = new double[DriveConstants.ODOMETRY_QUEUE_CAPACITY];
+
+    /**
+     * Wheel positions (Rotations) of each odometry sample, four per sample in the usual wheel
+     * order. Sample i is at [4 * i] to [4 * i + 3].
+     */
+    public double[] odometryPositions = new double[4 * DriveConstants.ODOMETRY_QUEUE_CAPACITY];
+  }
+
   /**
    * Applies electrical power (voltage) directly to the motors.
    * This is "Open Loop" control - we just give power and hope it moves.
@@ -20,20 +66,22 @@ public interface DriveIO {
    * @param frontRightVolts Voltage for front right motor (-12.0 to 12.0)
    * @param rearRightVolts Voltage for rear right motor (-12.0 to 12.0)
    */
-  void setVoltages(double frontLeftVolts, double rearLeftVolts, double frontRightVolts, double rearRightVolts);
+  public default void setVoltages(double frontLeftVolts, double rearLeftVolts, double frontRightVolts, double rearRightVolts) {}
 
   /**
    * Tells the motors to spin at a specific speed (RPM).
    * This is "Closed Loop" control - the motor checks its sensor and adjusts power to match the target.
-   * 
-   * <p>NOTE: If we don't have sensors (Encoders), this might just guess the voltage needed.
    *
-   * @param frontLeftVel Target velocity (RPM)
-   * @param rearLeftVel Target velocity (RPM)
-   * @param frontRightVel Target velocity (RPM)
-   * @param rearRightVel Target velocity (RPM)
+   * <p>The feedforward is our best guess of the voltage each wheel needs for that speed (from
+   * DriveSubsystem's characterized gains). The motor controller adds it to its PID output, so
+   * the PID only has to correct the error that's left.
+   *
+   * <p>NOTE: If we don't have sensors (Encoders), the feedforward voltage is all we can send.
+   *
+   * @param velocitiesRpm Target velocity of each wheel in RPM, {FL, RL, FR, RR}
+   * @param feedforwardVolts Feedforward voltage of each wheel, {FL, RL, FR, RR}
    */
-  void setVelocities(double frontLeftVel, double rearLeftVel, double frontRightVel, double rearRightVel);
+  public default void setVelocities(double[] velocitiesRpm, double[] feedforwardVolts) {}
 
   /**
    * Tells the motors to drive to a specific total rotation count.
@@ -42,30 +90,41 @@ public interface DriveIO {
    * @param leftPos Target position for left side (Rotations)
    * @param rightPos Target position for right side (Rotations)
    */
-  void setPositionTargets(double leftPos, double rightPos);
+  public default void setPositionTargets(double leftPos, double rightPos) {}
 
   /**
-   * Asks the motors: "Where are you right now?"
+   * Asks the motors: "Where are you and how fast are you spinning right now?"
    *
-   * @return Array of positions {FrontLeft, RearLeft, FrontRight, RearRight} in Rotations
-   */
-  double[] getPositions();
-
-  /**
-   * Asks the motors: "How fast are you spinning right now?"
+   * <p>The answers are written into the {@link DriveIOInputs} object we pass in. We hand over
+   * the SAME object every loop, so reading sensors never creates new objects (garbage) that the
+   * roboRIO has to clean up later.
    *
-   * @return Array of velocities {FrontLeft, RearLeft, FrontRight, RearRight} in RPM
+   * @param inputs The reusable object to fill with fresh sensor readings
    */
-  double[] getVelocities();
+  public default void updateInputs(DriveIOInputs inputs) {}
 
   /** 
    * Resets the "Zero" point for the sensors. 
    * Usually done at the start of a match or auto routine.
    */
-  void resetEncoders();
+  public default void resetEncoders() {}
 
   /** 
    * Emergency Stop. Cuts power to all motors. 
    */
-  void stop();
-}
\ No newline at end of file
+  public default void stop() {}
+
+  /**
+   * Caps how much current each drive motor can draw from the battery (see PowerManager).
+   *
+   * @param amps Supply current limit per motor
+   */
+  public default void setCurrentLimit(double amps) {}
+
+  /**
+   * Changes how often the drivetrain sends its status frames (see {@link FrameProfile}).
+   *
+   * @param profile Frame rates for the mode the robot just entered
+   */
+  public default void setFrameProfile(FrameProfile profile) {}
+}
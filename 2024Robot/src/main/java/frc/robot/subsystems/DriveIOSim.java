@@ -0,0 +1,210 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.DiagnosticsConstants;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * Physics simulation of the mecanum drive, so drive code and autos can run on a desktop.
+ *
+ * <p>Each wheel is a DC motor (WPILib's {@link DCMotor} numbers) carrying a quarter of the robot's
+ * mass. The motor controller's velocity and position loops are replaced by simple P loops (plus the
+ * feedforward sent with velocity setpoints). Like the real IOs,
+ * positions are motor rotations and velocities are motor RPM.
+ *
+ * <p>The physics is the same as WPILib's {@code DCMotorSim}, but written out with plain numbers
+ * instead of matrices, so {@link #updateInputs} allocates nothing (the same rule as the real IOs,
+ * checked by {@code DriveIOSimTest}).
+ */
+public class DriveIOSim implements DriveIO {
+  private enum ControlMode {
+    VOLTAGE,
+    VELOCITY,
+    POSITION
+  }
+
+  // Physics steps per loop, one per odometry sample (100 Hz odometry = 2 steps per 20 ms loop)
+  private static final int SUBSTEPS =
+      Math.max(
+          1,
+          (int) Math.round(
+              DiagnosticsConstants.LOOP_PERIOD_SECONDS * DriveConstants.ODOMETRY_FREQUENCY));
+  private static final double SUBSTEP_SECONDS =
+      DiagnosticsConstants.LOOP_PERIOD_SECONDS / SUBSTEPS;
+
+  private final DCMotor m_motor =
+      DriveConstants.CURRENT_DRIVETRAIN_TYPE == DriveConstants.DrivetrainHardwareType.SPARK_MAX_NEO
+          ? DCMotor.getNEO(1)
+          : DCMotor.getCIM(1);
+
+  // Wheel speed over one substep, for a constant voltage (exact for a DC motor):
+  //   velocity' = velocity * VELOCITY_DECAY + volts * VELOCITY_PER_VOLT
+  //   position' = position + velocity * POSITION_PER_VELOCITY + volts * POSITION_PER_VOLT
+  private final double m_velocityDecay;
+  private final double m_velocityPerVolt;
+  private final double m_positionPerVelocity;
+  private final double m_positionPerVolt;
+
+  // Array order is {FL, RL, FR, RR}, like everywhere else in the drive code
+  private final double[] m_wheelRadPerSec = new double[4];
+  private final double[] m_wheelRadians = new double[4];
+  private final double[] m_appliedVolts = new double[4];
+  private final double[] m_targets = new double[4];
+  private final double[] m_feedforwardVolts = new double[4];
+  private final double[] m_positionOffsets = new double[4];
+  private ControlMode m_controlMode = ControlMode.VOLTAGE;
+
+  private double m_yawRadians = 0.0;
+  private double m_yawRateRadPerSec = 0.0;
+  private final double[] m_sampleYawRadians = new double[SUBSTEPS];
+
+  public DriveIOSim() {
+    // A quarter of the robot, seen from the wheel
+    double wheelRadius = DriveConstants.WHEEL_DIAMETER_METERS / 2;
+    double inertia = DriveConstants.ROBOT_MASS_KG / 4 * wheelRadius * wheelRadius;
+
+    // inertia * acceleration = torque from the volts - back-EMF drag (seen at the wheel)
+    double gearing = DriveConstants.DRIVE_GEAR_RATIO;
+    double a =
+        -gearing * gearing * m_motor.KtNMPerAmp
+            / (m_motor.KvRadPerSecPerVolt * m_motor.rOhms * inertia);
+    double b = gearing * m_motor.KtNMPerAmp / (m_motor.rOhms * inertia);
+    double decay = Math.exp(a * SUBSTEP_SECONDS);
+    m_velocityDecay = decay;
+    m_velocityPerVolt = (decay - 1) / a * b;
+    m_positionPerVelocity = (decay - 1) / a;
+    m_positionPerVolt = b * ((decay - 1) / a - SUBSTEP_SECONDS) / a;
+  }
+
+  /** Motor rotations (what the encoders would read). */
+  private double getMotorRotations(int wheel) {
+    return m_wheelRadians[wheel] / (2 * Math.PI) * DriveConstants.DRIVE_GEAR_RATIO
+        - m_positionOffsets[wheel];
+  }
+
+  /** Motor RPM (what the encoders would read). */
+  private double getMotorRpm(int wheel) {
+    return m_wheelRadPerSec[wheel] * 60 / (2 * Math.PI) * DriveConstants.DRIVE_GEAR_RATIO;
+  }
+
+  @Override
+  public void updateInputs(DriveIOInputs inputs) {
+    double now = Timer.getFPGATimestamp();
+    for (int step = 0; step < SUBSTEPS; step++) {
+      for (int i = 0; i < 4; i++) {
+        double volts = MathUtil.clamp(calculateVolts(i), -12.0, 12.0);
+        m_appliedVolts[i] = volts;
+        m_wheelRadians[i] += m_wheelRadPerSec[i] * m_positionPerVelocity + volts * m_positionPerVolt;
+        m_wheelRadPerSec[i] = m_wheelRadPerSec[i] * m_velocityDecay + volts * m_velocityPerVolt;
+      }
+      updateYaw();
+
+      // One odometry sample per physics step, like the real odometry thread
+      inputs.odometryTimestamps[step] = now - (SUBSTEPS - 1 - step) * SUBSTEP_SECONDS;
+      for (int i = 0; i < 4; i++) {
+        inputs.odometryPositions[4 * step + i] = getMotorRotations(i);
+      }
+      m_sampleYawRadians[step] = m_yawRadians;
+    }
+    inputs.odometrySampleCount = SUBSTEPS;
+
+    for (int i = 0; i < 4; i++) {
+      inputs.positions[i] = getMotorRotations(i);
+      inputs.velocities[i] = getMotorRpm(i);
+      inputs.appliedVolts[i] = m_appliedVolts[i];
+      double motorRadPerSec = m_wheelRadPerSec[i] * DriveConstants.DRIVE_GEAR_RATIO;
+      inputs.currentAmps[i] = Math.abs(m_motor.getCurrent(motorRadPerSec, m_appliedVolts[i]));
+    }
+  }
+
+  /** Stands in for the motor controller's closed loops. */
+  private double calculateVolts(int wheel) {
+    switch (m_controlMode) {
+      case VELOCITY:
+        return m_feedforwardVolts[wheel]
+            + DriveConstants.SIM_VELOCITY_P * (m_targets[wheel] - getMotorRpm(wheel));
+      case POSITION:
+        return DriveConstants.SIM_POSITION_P * (m_targets[wheel] - getMotorRotations(wheel));
+      case VOLTAGE:
+      default:
+        return m_targets[wheel];
+    }
+  }
+
+  /**
+   * Spins the robot by however much the wheels turned it (a perfect gyro). Same answer as
+   * MecanumDriveKinematics.toChassisSpeeds(), worked out by hand for a rectangle of wheels.
+   */
+  private void updateYaw() {
+    double halfLengthPlusWidth =
+        (DriveConstants.WHEEL_BASE_METERS + DriveConstants.TRACK_WIDTH_METERS) / 2;
+    m_yawRateRadPerSec =
+        (-wheelMetersPerSecond(0) - wheelMetersPerSecond(1)
+                + wheelMetersPerSecond(2) + wheelMetersPerSecond(3))
+            / (4 * halfLengthPlusWidth);
+    m_yawRadians += m_yawRateRadPerSec * SUBSTEP_SECONDS;
+  }
+
+  private double wheelMetersPerSecond(int wheel) {
+    return m_wheelRadPerSec[wheel] * DriveConstants.WHEEL_DIAMETER_METERS / 2;
+  }
+
+  /** Simulated heading in radians, counter-clockwise positive. */
+  double getYawRadians() {
+    return m_yawRadians;
+  }
+
+  /** Simulated turn rate in radians per second, counter-clockwise positive. */
+  double getYawRateRadPerSec() {
+    return m_yawRateRadPerSec;
+  }
+
+  /** Simulated heading at each odometry sample from the last updateInputs(). */
+  double getSampleYawRadians(int sample) {
+    return m_sampleYawRadians[sample];
+  }
+
+  /** How many odometry samples each updateInputs() produces. */
+  int getSamplesPerLoop() {
+    return SUBSTEPS;
+  }
+
+  @Override
+  public void setVoltages(double frontLeftVolts, double rearLeftVolts, double frontRightVolts, double rearRightVolts) {
+    m_controlMode = ControlMode.VOLTAGE;
+    m_targets[0] = frontLeftVolts;
+    m_targets[1] = rearLeftVolts;
+    m_targets[2] = frontRightVolts;
+    m_targets[3] = rearRightVolts;
+  }
+
+  @Override
+  public void setVelocities(double[] velocitiesRpm, double[] feedforwardVolts) {
+    m_controlMode = ControlMode.VELOCITY;
+    System.arraycopy(velocitiesRpm, 0, m_targets, 0, 4);
+    System.arraycopy(feedforwardVolts, 0, m_feedforwardVolts, 0, 4);
+  }
+
+  @Override
+  public void setPositionTargets(double leftPos, double rightPos) {
+    m_controlMode = ControlMode.POSITION;
+    m_targets[0] = leftPos;
+    m_targets[1] = leftPos;
+    m_targets[2] = rightPos;
+    m_targets[3] = rightPos;
+  }
+
+  @Override
+  public void resetEncoders() {
+    for (int i = 0; i < 4; i++) {
+      m_positionOffsets[i] += getMotorRotations(i);
+    }
+  }
+
+  @Override
+  public void stop() {
+    setVoltages(0, 0, 0, 0);
+  }
+}
@@ -2,14 +2,20 @@ package frc.robot.subsystems;
 
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkBase.ControlType;
 import com.revrobotics.PersistMode;
+import com.revrobotics.REVLibError;
 import com.revrobotics.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.config.SparkMaxConfig;
+import com.revrobotics.spark.config.SparkMaxConfigAccessor;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.util.MotorConfigPipeline;
 
 /**
  * Hardware Implementation for REV SparkMax Motor Controllers (NEO Motors).
@@ -36,6 +42,13 @@ public class DriveIOSparkMax implements DriveIO {
   private final RelativeEncoder m_frontRightEncoder;
   private final RelativeEncoder m_rearRightEncoder;
 
+  // Odometry thread signal indexes, in the usual wheel order
+  private final int[] m_odometrySignals = new int[4];
+
+  // The robot mode's frame rates. Configuration runs in the background and can finish after a
+  // mode change, so it applies this (not the startup rates) at the end. Guarded by this.
+  private FrameProfile m_frameProfile = CanBusConstants.STARTUP_PROFILE;
+
   public DriveIOSparkMax() {
     // 1. Initialize motors using IDs from Constants
     m_frontLeft = new SparkMax(DriveConstants.FRONT_LEFT_MOTOR_ID, MotorType.kBrushless);
@@ -44,41 +57,59 @@ public class DriveIOSparkMax implements DriveIO {
     m_rearRight = new SparkMax(DriveConstants.REAR_RIGHT_MOTOR_ID, MotorType.kBrushless);
 
     // 2. Configure each motor (set PID gains, current limits, etc.)
-    configureMotor(m_frontRight, DriveConstants.FRONT_RIGHT_INVERTED);
-    m_frontRightPID = m_frontRight.getClosedLoopController();
-    m_frontRightEncoder = m_frontRight.getEncoder();
-
-    configureMotor(m_rearRight, DriveConstants.REAR_RIGHT_INVERTED);
-    m_rearRightPID = m_rearRight.getClosedLoopController();
-    m_rearRightEncoder = m_rearRight.getEncoder();
+    // All four are configured at the same time in the background (see MotorConfigPipeline)
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[0], () -> configureMotor(m_frontLeft, DriveConstants.FRONT_LEFT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[1], () -> configureMotor(m_rearLeft, DriveConstants.REAR_LEFT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[2], () -> configureMotor(m_frontRight, DriveConstants.FRONT_RIGHT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[3], () -> configureMotor(m_rearRight, DriveConstants.REAR_RIGHT_INVERTED));
 
-    configureMotor(m_frontLeft, DriveConstants.FRONT_LEFT_INVERTED);
     m_frontLeftPID = m_frontLeft.getClosedLoopController();
     m_frontLeftEncoder = m_frontLeft.getEncoder();
-
-    configureMotor(m_rearLeft, DriveConstants.REAR_LEFT_INVERTED);
     m_rearLeftPID = m_rearLeft.getClosedLoopController();
     m_rearLeftEncoder = m_rearLeft.getEncoder();
+    m_frontRightPID = m_frontRight.getClosedLoopController();
+    m_frontRightEncoder = m_frontRight.getEncoder();
+    m_rearRightPID = m_rearRight.getClosedLoopController();
+    m_rearRightEncoder = m_rearRight.getEncoder();
+
+    // 3. Ask the odometry thread to sample each encoder at high rate
+    DriveOdometryThread odometry = DriveOdometryThread.getInstance();
+    m_odometrySignals[0] = odometry.registerSignal(m_frontLeftEncoder::getPosition);
+    m_odometrySignals[1] = odometry.registerSignal(m_rearLeftEncoder::getPosition);
+    m_odometrySignals[2] = odometry.registerSignal(m_frontRightEncoder::getPosition);
+    m_odometrySignals[3] = odometry.registerSignal(m_rearRightEncoder::getPosition);
   }
 
   /**
    * Helper method to apply settings to a SparkMax.
    * This uses the new 2026 "Config" object pattern.
+   *
+   * @return true if the settings were saved to flash
    */
-  private void configureMotor(SparkMax motor, boolean inverted) {
+  private boolean configureMotor(SparkMax motor, boolean inverted) {
     SparkMaxConfig config = new SparkMaxConfig();
 
     config.inverted(inverted);
     config.openLoopRampRate(DriveConstants.RAMP_RATE); // How fast we accelerate
+    config.smartCurrentLimit((int) DriveConstants.DRIVE_CURRENT_LIMIT); // PowerManager lowers it
 
     // OPTIMIZATION: Slow down CAN status signals to save bandwidth and CPU
     // We only need fast updates for position and velocity. 
-    // Bus voltage and temperature can be much slower.
+    // Position runs at the odometry thread rate. Bus voltage and temperature can be much slower.
+    // Output, current and velocity change with the robot mode (see setFrameProfile).
     config.signals
-        .primaryEncoderPositionPeriodMs(20)
-        .primaryEncoderVelocityPeriodMs(20)
-        .busVoltagePeriodMs(100)
-        .motorTemperaturePeriodMs(500);
+        .primaryEncoderPositionPeriodMs(CanBusConstants.DRIVE_ODOMETRY_FRAME_MS)
+        .busVoltagePeriodMs(CanBusConstants.DRIVE_SPARK_BUS_VOLTAGE_MS)
+        .motorTemperaturePeriodMs(CanBusConstants.DRIVE_SPARK_TEMPERATURE_MS);
+    FrameProfile profile;
+    synchronized (this) {
+      profile = m_frameProfile;
+    }
+    applySignals(config, profile);
 
     // PID Settings (P, I, D) for the internal controller
     config.closedLoop
@@ -88,8 +119,9 @@ public class DriveIOSparkMax implements DriveIO {
         .d(DriveConstants.MOTOR_D)
         .outputRange(DriveConstants.MOTOR_MIN_OUTPUT, DriveConstants.MOTOR_MAX_OUTPUT);
 
+    // No kV: the feedforward is sent with every setpoint (see setVelocities)
     config.closedLoop.feedForward
-        .kV(DriveConstants.MOTOR_FF);
+        .kV(0.0);
 
     // Smart Motion (Smooth movement for Auto)
     config.closedLoop.maxMotion
@@ -97,8 +129,95 @@ public class DriveIOSparkMax implements DriveIO {
         .maxAcceleration(DriveConstants.MAX_ACCELERATION)
         .allowedProfileError(DriveConstants.ALLOWED_ERROR);
 
-    // Send the config to the motor
-    motor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+    // Send the config to the motor. If the SparkMax already has these settings saved, only send
+    // them to its RAM (fast, no flash wear). Otherwise reset, write and save them.
+    boolean changed = !savedConfigMatches(motor, inverted);
+    REVLibError result;
+    if (changed) {
+      result =
+          motor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+    } else {
+      result =
+          motor.configure(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+    }
+    MotorConfigPipeline.check(result, "SparkMax " + motor.getDeviceId() + " configure");
+
+    // If the robot mode changed while configuring, the reset may have undone its rates
+    synchronized (this) {
+      if (m_frameProfile != profile) {
+        applySignalsAsync(motor, m_frameProfile);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Reads back every saved setting configureMotor() sets and compares it to Constants. Anything
+   * left out here never gets saved again once the rest matches, so a SparkMax that reboots in a
+   * match (brownout) would come back with the old value from flash. Keep this in step with
+   * configureMotor(). The signal periods aren't compared: they change with the robot mode and are
+   * sent every boot anyway.
+   */
+  private static boolean savedConfigMatches(SparkMax motor, boolean inverted) {
+    SparkMaxConfigAccessor saved = motor.configAccessor;
+    return saved.getInverted() == inverted
+        && closeEnough(saved.getOpenLoopRampRate(), DriveConstants.RAMP_RATE)
+        && saved.getSmartCurrentLimit() == (int) DriveConstants.DRIVE_CURRENT_LIMIT
+        && closeEnough(saved.closedLoop.getP(), DriveConstants.MOTOR_P)
+        && closeEnough(saved.closedLoop.getI(), DriveConstants.MOTOR_I)
+        && closeEnough(saved.closedLoop.getD(), DriveConstants.MOTOR_D)
+        && closeEnough(saved.closedLoop.getIZone(), DriveConstants.MOTOR_I_ZONE)
+        && closeEnough(saved.closedLoop.getMinOutput(), DriveConstants.MOTOR_MIN_OUTPUT)
+        && closeEnough(saved.closedLoop.getMaxOutput(), DriveConstants.MOTOR_MAX_OUTPUT)
+        // Older code saved kV = MOTOR_FF; on top of the arbitrary feedforward that's double
+        && closeEnough(saved.closedLoop.feedForward.getkV(), 0.0)
+        && closeEnough(saved.closedLoop.maxMotion.getCruiseVelocity(), DriveConstants.MAX_VELOCITY)
+        && closeEnough(
+            saved.closedLoop.maxMotion.getMaxAcceleration(), DriveConstants.MAX_ACCELERATION)
+        && closeEnough(
+            saved.closedLoop.maxMotion.getAllowedProfileError(), DriveConstants.ALLOWED_ERROR);
+  }
+
+  private static boolean closeEnough(double saved, double wanted) {
+    // The SparkMax stores floats, so allow for round-off. Relative only, so a tiny gain (or kV)
+    // never counts as equal to 0, like MotorConfigPipeline.configsMatch
+    return Math.abs(saved - wanted) <= 1e-3 * Math.max(Math.abs(saved), Math.abs(wanted));
+  }
+
+  /** Sets the signal periods that depend on the robot mode. */
+  private static void applySignals(SparkMaxConfig config, FrameProfile profile) {
+    config.signals
+        .appliedOutputPeriodMs(profile.generalMs)
+        .outputCurrentPeriodMs(profile.generalMs)
+        .primaryEncoderVelocityPeriodMs(profile.driveVelocityMs);
+  }
+
+  @Override
+  public synchronized void setFrameProfile(FrameProfile profile) {
+    m_frameProfile = profile;
+    for (SparkMax motor : new SparkMax[] {m_frontLeft, m_rearLeft, m_frontRight, m_rearRight}) {
+      applySignalsAsync(motor, profile);
+    }
+  }
+
+  /**
+   * Changes only the signal periods. Async and not persisted, so a mode change never stalls the
+   * loop or wears out the flash.
+   */
+  private static void applySignalsAsync(SparkMax motor, FrameProfile profile) {
+    SparkMaxConfig config = new SparkMaxConfig();
+    applySignals(config, profile);
+    motor.configureAsync(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+  }
+
+  @Override
+  public void setCurrentLimit(double amps) {
+    // Async and not persisted, like the frame profile
+    SparkMaxConfig config = new SparkMaxConfig();
+    config.smartCurrentLimit((int) amps);
+    for (SparkMax motor : new SparkMax[] {m_frontLeft, m_rearLeft, m_frontRight, m_rearRight}) {
+      motor.configureAsync(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+    }
   }
 
   @Override
@@ -111,12 +230,17 @@ public class DriveIOSparkMax implements DriveIO {
   }
 
   @Override
-  public void setVelocities(double frontLeftVel, double rearLeftVel, double frontRightVel, double rearRightVel) {
-    // Tell the internal PID controller to target a specific velocity (RPM)
-    m_frontLeftPID.setSetpoint(frontLeftVel, ControlType.kMAXMotionVelocityControl, ClosedLoopSlot.kSlot0);
-    m_rearLeftPID.setSetpoint(rearLeftVel, ControlType.kMAXMotionVelocityControl, ClosedLoopSlot.kSlot0);
-    m_frontRightPID.setSetpoint(frontRightVel, ControlType.kMAXMotionVelocityControl, ClosedLoopSlot.kSlot0);
-    m_rearRightPID.setSetpoint(rearRightVel, ControlType.kMAXMotionVelocityControl, ClosedLoopSlot.kSlot0);
+  public void setVelocities(double[] velocitiesRpm, double[] feedforwardVolts) {
+    // Tell the internal PID controller to target a specific velocity (RPM), plus the
+    // feedforward voltage it should add on top of its PID output
+    m_frontLeftPID.setSetpoint(velocitiesRpm[0], ControlType.kMAXMotionVelocityControl,
+        ClosedLoopSlot.kSlot0, feedforwardVolts[0], ArbFFUnits.kVoltage);
+    m_rearLeftPID.setSetpoint(velocitiesRpm[1], ControlType.kMAXMotionVelocityControl,
+        ClosedLoopSlot.kSlot0, feedforwardVolts[1], ArbFFUnits.kVoltage);
+    m_frontRightPID.setSetpoint(velocitiesRpm[2], ControlType.kMAXMotionVelocityControl,
+        ClosedLoopSlot.kSlot0, feedforwardVolts[2], ArbFFUnits.kVoltage);
+    m_rearRightPID.setSetpoint(velocitiesRpm[3], ControlType.kMAXMotionVelocityControl,
+        ClosedLoopSlot.kSlot0, feedforwardVolts[3], ArbFFUnits.kVoltage);
   }
 
   @Override
@@ -129,25 +253,38 @@ public class DriveIOSparkMax implements DriveIO {
   }
 
   @Override
-  public double[] getPositions() {
-    // Read directly from the encoders
-    return new double[] {
-      m_frontLeftEncoder.getPosition(),
-      m_rearLeftEncoder.getPosition(),
-      m_frontRightEncoder.getPosition(),
-      m_rearRightEncoder.getPosition()
-    };
-  }
+  public void updateInputs(DriveIOInputs inputs) {
+    // Read directly from the encoders into the caller's arrays (no new objects)
+    inputs.positions[0] = m_frontLeftEncoder.getPosition();
+    inputs.positions[1] = m_rearLeftEncoder.getPosition();
+    inputs.positions[2] = m_frontRightEncoder.getPosition();
+    inputs.positions[3] = m_rearRightEncoder.getPosition();
 
-  @Override
-  public double[] getVelocities() {
-    // Read directly from the encoders
-    return new double[] {
-      m_frontLeftEncoder.getVelocity(),
-      m_rearLeftEncoder.getVelocity(),
-      m_frontRightEncoder.getVelocity(),
-      m_rearRightEncoder.getVelocity()
-    };
+    inputs.velocities[0] = m_frontLeftEncoder.getVelocity();
+    inputs.velocities[1] = m_rearLeftEncoder.getVelocity();
+    inputs.velocities[2] = m_frontRightEncoder.getVelocity();
+    inputs.velocities[3] = m_rearRightEncoder.getVelocity();
+
+    // These come from status frames the SparkMax already sends, so no extra CAN traffic
+    inputs.appliedVolts[0] = m_frontLeft.getAppliedOutput() * m_frontLeft.getBusVoltage();
+    inputs.appliedVolts[1] = m_rearLeft.getAppliedOutput() * m_rearLeft.getBusVoltage();
+    inputs.appliedVolts[2] = m_frontRight.getAppliedOutput() * m_frontRight.getBusVoltage();
+    inputs.appliedVolts[3] = m_rearRight.getAppliedOutput() * m_rearRight.getBusVoltage();
+
+    inputs.currentAmps[0] = m_frontLeft.getOutputCurrent();
+    inputs.currentAmps[1] = m_rearLeft.getOutputCurrent();
+    inputs.currentAmps[2] = m_frontRight.getOutputCurrent();
+    inputs.currentAmps[3] = m_rearRight.getOutputCurrent();
+
+    // Copy the high-rate samples queued by the odometry thread (caller holds the lock)
+    DriveOdometryThread odometry = DriveOdometryThread.getInstance();
+    inputs.odometrySampleCount = odometry.getSampleCount();
+    for (int i = 0; i < inputs.odometrySampleCount; i++) {
+      inputs.odometryTimestamps[i] = odometry.getTimestamp(i);
+      for (int wheel = 0; wheel < 4; wheel++) {
+        inputs.odometryPositions[4 * i + wheel] = odometry.getValue(m_odometrySignals[wheel], i);
+      }
+    }
   }
 
   @Override
@@ -1,11 +1,18 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.util.MotorConfigPipeline;
+import java.util.Arrays;
 
 public class DriveIOTalon implements DriveIO {
   private final WPI_TalonSRX m_frontLeft;
@@ -13,46 +20,111 @@ public class DriveIOTalon implements DriveIO {
   private final WPI_TalonSRX m_frontRight;
   private final WPI_TalonSRX m_rearRight;
 
+  // The robot mode's frame rates. Configuration runs in the background and can finish after a
+  // mode change, so it applies this (not the startup rates) at the end. Guarded by this.
+  private FrameProfile m_frameProfile = CanBusConstants.STARTUP_PROFILE;
+
+  // Odometry thread signal indexes, in the usual wheel order (only used with encoders)
+  private final int[] m_odometrySignals = new int[4];
+
   public DriveIOTalon() {
     m_frontLeft = new WPI_TalonSRX(DriveConstants.FRONT_LEFT_MOTOR_ID);
     m_rearLeft = new WPI_TalonSRX(DriveConstants.REAR_LEFT_MOTOR_ID);
     m_frontRight = new WPI_TalonSRX(DriveConstants.FRONT_RIGHT_MOTOR_ID);
     m_rearRight = new WPI_TalonSRX(DriveConstants.REAR_RIGHT_MOTOR_ID);
 
-    configureMotor(m_frontLeft, DriveConstants.FRONT_LEFT_INVERTED);
-    configureMotor(m_rearLeft, DriveConstants.REAR_LEFT_INVERTED);
-    configureMotor(m_frontRight, DriveConstants.FRONT_RIGHT_INVERTED);
-    configureMotor(m_rearRight, DriveConstants.REAR_RIGHT_INVERTED);
+    // All four are configured at the same time in the background (see MotorConfigPipeline)
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[0], () -> configureMotor(m_frontLeft, DriveConstants.FRONT_LEFT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[1], () -> configureMotor(m_rearLeft, DriveConstants.REAR_LEFT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[2], () -> configureMotor(m_frontRight, DriveConstants.FRONT_RIGHT_INVERTED));
+    MotorConfigPipeline.submit(
+        CONFIG_NAMES[3], () -> configureMotor(m_rearRight, DriveConstants.REAR_RIGHT_INVERTED));
+
+    if (DriveConstants.HAS_DRIVE_ENCODERS) {
+      // Ask the odometry thread to sample each encoder at high rate (Rotations)
+      DriveOdometryThread odometry = DriveOdometryThread.getInstance();
+      m_odometrySignals[0] = odometry.registerSignal(() -> m_frontLeft.getSelectedSensorPosition() / 4096.0);
+      m_odometrySignals[1] = odometry.registerSignal(() -> m_rearLeft.getSelectedSensorPosition() / 4096.0);
+      m_odometrySignals[2] = odometry.registerSignal(() -> m_frontRight.getSelectedSensorPosition() / 4096.0);
+      m_odometrySignals[3] = odometry.registerSignal(() -> m_rearRight.getSelectedSensorPosition() / 4096.0);
+    }
   }
 
-  private void configureMotor(WPI_TalonSRX motor, boolean inverted) {
-    motor.configFactoryDefault();
+  /** Applies every setting to one drive Talon. Returns true if settings were written to flash. */
+  private boolean configureMotor(WPI_TalonSRX motor, boolean inverted) {
+    // Starts from factory defaults, like configFactoryDefault() did
+    TalonSRXConfiguration config = new TalonSRXConfiguration();
+    config.openloopRamp = DriveConstants.RAMP_RATE;
+    // Continuous limit only (peak 0); PowerManager lowers it when the battery is struggling
+    config.continuousCurrentLimit = (int) DriveConstants.DRIVE_CURRENT_LIMIT;
+    config.peakCurrentLimit = 0;
+    if (DriveConstants.HAS_DRIVE_ENCODERS) {
+      // Configure Quadrature Encoder
+      config.primaryPID.selectedFeedbackSensor = FeedbackDevice.QuadEncoder;
+
+      // PID Config
+      config.slot0.kP = DriveConstants.MOTOR_P;
+      config.slot0.kI = DriveConstants.MOTOR_I;
+      config.slot0.kD = DriveConstants.MOTOR_D;
+      // No kF: the feedforward is sent with every setpoint (see setVelocities)
+      config.slot0.kF = 0.0;
+    }
+
+    // Only written if the Talon doesn't already have these settings
+    boolean changed = MotorConfigPipeline.applyIfChanged(motor, config);
+
+    // Not saved on the Talon, so always set
     motor.setInverted(inverted);
     motor.setNeutralMode(NeutralMode.Brake);
-    motor.configOpenloopRamp(DriveConstants.RAMP_RATE);
+    motor.enableCurrentLimit(true);
 
     // OPTIMIZATION: Slow down all status frames by default to save CAN bandwidth
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, 10); // Default 10ms (Critical for control)
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, 255);
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, 50); // 50ms (20Hz) for Current/Volt monitoring
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, 255);
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_10_MotionMagic, 255);
-    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_13_Base_PIDF0, 255);
+    // (periods live in CanBusConstants so the whole bus budget can be checked in one place)
+    // General and AinTempVbat change with the robot mode (see setFrameProfile)
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, CanBusConstants.DRIVE_TALON_FEEDBACK_MS);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, CanBusConstants.DRIVE_TALON_UNUSED_MS);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_10_MotionMagic, CanBusConstants.DRIVE_TALON_UNUSED_MS);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_13_Base_PIDF0, CanBusConstants.DRIVE_TALON_UNUSED_MS);
 
     if (DriveConstants.HAS_DRIVE_ENCODERS) {
-      // If we have encoders, speed up the feedback frame
-      motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, 20);
-
-      // Configure Quadrature Encoder
-      motor.configSelectedFeedbackSensor(FeedbackDevice.QuadEncoder, 0, 30);
-      motor.setSensorPhase(true); 
+      // If we have encoders, speed up the feedback frame to the odometry thread rate
+      motor.setStatusFramePeriod(
+          StatusFrameEnhanced.Status_2_Feedback0, CanBusConstants.DRIVE_ODOMETRY_FRAME_MS);
+      motor.setSensorPhase(true);
+    }
 
-      // PID Config
-      motor.config_kP(0, DriveConstants.MOTOR_P);
-      motor.config_kI(0, DriveConstants.MOTOR_I);
-      motor.config_kD(0, DriveConstants.MOTOR_D);
-      motor.config_kF(0, DriveConstants.MOTOR_FF);
+    // Last, so a mode change while configuring isn't undone
+    synchronized (this) {
+      applyFrameProfile(motor, m_frameProfile);
     }
+    return changed;
+  }
+
+  @Override
+  public synchronized void setFrameProfile(FrameProfile profile) {
+    m_frameProfile = profile;
+    applyFrameProfile(m_frontLeft, profile);
+    applyFrameProfile(m_rearLeft, profile);
+    applyFrameProfile(m_frontRight, profile);
+    applyFrameProfile(m_rearRight, profile);
+  }
+
+  @Override
+  public void setCurrentLimit(double amps) {
+    // Timeout 0 = don't wait for the Talons to answer
+    m_frontLeft.configContinuousCurrentLimit((int) amps, 0);
+    m_rearLeft.configContinuousCurrentLimit((int) amps, 0);
+    m_frontRight.configContinuousCurrentLimit((int) amps, 0);
+    m_rearRight.configContinuousCurrentLimit((int) amps, 0);
+  }
+
+  private static void applyFrameProfile(WPI_TalonSRX motor, FrameProfile profile) {
+    // Timeout 0 = don't wait for the Talon to answer, so a mode change never stalls the loop
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.generalMs, 0);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.ainMs, 0);
   }
 
   @Override
@@ -64,21 +136,23 @@ public class DriveIOTalon implements DriveIO {
   }
 
   @Override
-  public void setVelocities(double frontLeftVel, double rearLeftVel, double frontRightVel, double rearRightVel) {
+  public void setVelocities(double[] velocitiesRpm, double[] feedforwardVolts) {
     if (DriveConstants.HAS_DRIVE_ENCODERS) {
+      // RPM -> encoder ticks per 100ms. The feedforward is a fraction of the battery voltage,
+      // added on top of the Talon's PID output.
       double conversion = 4096.0 / 600.0;
-      m_frontLeft.set(ControlMode.Velocity, frontLeftVel * conversion);
-      m_rearLeft.set(ControlMode.Velocity, rearLeftVel * conversion);
-      m_frontRight.set(ControlMode.Velocity, frontRightVel * conversion);
-      m_rearRight.set(ControlMode.Velocity, rearRightVel * conversion);
+      double batteryVolts = RobotController.getBatteryVoltage();
+      m_frontLeft.set(ControlMode.Velocity, velocitiesRpm[0] * conversion,
+          DemandType.ArbitraryFeedForward, feedforwardVolts[0] / batteryVolts);
+      m_rearLeft.set(ControlMode.Velocity, velocitiesRpm[1] * conversion,
+          DemandType.ArbitraryFeedForward, feedforwardVolts[1] / batteryVolts);
+      m_frontRight.set(ControlMode.Velocity, velocitiesRpm[2] * conversion,
+          DemandType.ArbitraryFeedForward, feedforwardVolts[2] / batteryVolts);
+      m_rearRight.set(ControlMode.Velocity, velocitiesRpm[3] * conversion,
+          DemandType.ArbitraryFeedForward, feedforwardVolts[3] / batteryVolts);
     } else {
-      double maxRPM = DriveConstants.MAX_WHEEL_VELOCITY;
-      setVoltages(
-          (frontLeftVel / maxRPM) * 12.0,
-          (rearLeftVel / maxRPM) * 12.0,
-          (frontRightVel / maxRPM) * 12.0,
-          (rearRightVel / maxRPM) * 12.0
-      );
+      // No encoders to close the loop with, so the feedforward is the whole answer
+      setVoltages(feedforwardVolts[0], feedforwardVolts[1], feedforwardVolts[2], feedforwardVolts[3]);
     }
   }
 
@@ -94,31 +168,46 @@ public class DriveIOTalon implements DriveIO {
   }
 
   @Override
-  public double[] getPositions() {
-    if (DriveConstants.HAS_DRIVE_ENCODERS) {
-       double conversion = 1.0 / 4096.0;
-       return new double[] {
-           m_frontLeft.getSelectedSensorPosition() * conversion,
-           m_rearLeft.getSelectedSensorPosition() * conversion,
-           m_frontRight.getSelectedSensorPosition() * conversion,
-           m_rearRight.getSelectedSensorPosition() * conversion
-       };
+  public void updateInputs(DriveIOInputs inputs) {
+    // Copy the high-rate samples queued by the odometry thread (caller holds the lock).
+    // Without encoders we still pass the timestamps through so the gyro samples line up.
+    DriveOdometryThread odometry = DriveOdometryThread.getInstance();
+    inputs.odometrySampleCount = odometry.getSampleCount();
+    for (int i = 0; i < inputs.odometrySampleCount; i++) {
+      inputs.odometryTimestamps[i] = odometry.getTimestamp(i);
+      for (int wheel = 0; wheel < 4; wheel++) {
+        inputs.odometryPositions[4 * i + wheel] =
+            DriveConstants.HAS_DRIVE_ENCODERS ? odometry.getValue(m_odometrySignals[wheel], i) : 0.0;
+      }
     }
-    return new double[] {0, 0, 0, 0};
-  }
 
-  @Override
-  public double[] getVelocities() {
-     if (DriveConstants.HAS_DRIVE_ENCODERS) {
-       double conversion = 600.0 / 4096.0;
-       return new double[] {
-           m_frontLeft.getSelectedSensorVelocity() * conversion,
-           m_rearLeft.getSelectedSensorVelocity() * conversion,
-           m_frontRight.getSelectedSensorVelocity() * conversion,
-           m_rearRight.getSelectedSensorVelocity() * conversion
-       };
+    // Output and current come from the General/AinTempVbat frames, which are always enabled
+    inputs.appliedVolts[0] = m_frontLeft.getMotorOutputVoltage();
+    inputs.appliedVolts[1] = m_rearLeft.getMotorOutputVoltage();
+    inputs.appliedVolts[2] = m_frontRight.getMotorOutputVoltage();
+    inputs.appliedVolts[3] = m_rearRight.getMotorOutputVoltage();
+
+    inputs.currentAmps[0] = m_frontLeft.getSupplyCurrent();
+    inputs.currentAmps[1] = m_rearLeft.getSupplyCurrent();
+    inputs.currentAmps[2] = m_frontRight.getSupplyCurrent();
+    inputs.currentAmps[3] = m_rearRight.getSupplyCurrent();
+
+    if (DriveConstants.HAS_DRIVE_ENCODERS) {
+      double positionConversion = 1.0 / 4096.0;
+      inputs.positions[0] = m_frontLeft.getSelectedSensorPosition() * positionConversion;
+      inputs.positions[1] = m_rearLeft.getSelectedSensorPosition() * positionConversion;
+      inputs.positions[2] = m_frontRight.getSelectedSensorPosition() * positionConversion;
+      inputs.positions[3] = m_rearRight.getSelectedSensorPosition() * positionConversion;
+
+      double velocityConversion = 600.0 / 4096.0;
+      inputs.velocities[0] = m_frontLeft.getSelectedSensorVelocity() * velocityConversion;
+      inputs.velocities[1] = m_rearLeft.getSelectedSensorVelocity() * velocityConversion;
+      inputs.velocities[2] = m_frontRight.getSelectedSensorVelocity() * velocityConversion;
+      inputs.velocities[3] = m_rearRight.getSelectedSensorVelocity() * velocityConversion;
+      return;
     }
-    return new double[] {0, 0, 0, 0};
+    Arrays.fill(inputs.positions, 0);
+    Arrays.fill(inputs.velocities, 0);
   }
 
   @Override
@@ -0,0 +1,130 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.DriveConstants;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples the drive encoders and gyro faster than the 20ms main loop.
+ *
+ * <p>At full speed the robot moves several centimeters per loop. Reading the wheels only once
+ * per loop blurs fast turns and strafes together, so this background thread reads every
+ * registered sensor at {@link DriveConstants#ODOMETRY_FREQUENCY} and stamps each reading with
+ * the FPGA time. The main loop then takes all the queued samples at once (while holding {@link
+ * #ODOMETRY_LOCK}) and feeds them to the pose estimator in order.
+ *
+ * <p>Samples are stored in fixed arrays, so the thread never allocates. If the main loop falls
+ * behind, the oldest samples are overwritten.
+ */
+public class DriveOdometryThread {
+  /** Hold this while reading or clearing the queued samples. */
+  public static final Lock ODOMETRY_LOCK = new ReentrantLock();
+
+  private static final int MAX_SIGNALS = 8;
+
+  private static DriveOdometryThread s_instance = null;
+
+  private final DoubleSupplier[] m_signals = new DoubleSupplier[MAX_SIGNALS];
+  private int m_signalCount = 0;
+
+  // Ring buffer of samples: m_values[signal][slot]
+  private final double[] m_timestamps = new double[DriveConstants.ODOMETRY_QUEUE_CAPACITY];
+  private final double[][] m_values =
+      new double[MAX_SIGNALS][DriveConstants.ODOMETRY_QUEUE_CAPACITY];
+  private int m_oldest = 0;
+  private int m_count = 0;
+
+  private Notifier m_notifier = null;
+
+  /** Returns the one shared odometry thread. */
+  public static DriveOdometryThread getInstance() {
+    if (s_instance == null) {
+      s_instance = new DriveOdometryThread();
+    }
+    return s_instance;
+  }
+
+  private DriveOdometryThread() {}
+
+  /**
+   * Adds a sensor reading to be sampled on the odometry thread. Must be called before {@link
+   * #start()}. The supplier is called from the background thread, so it must be thread-safe
+   * (motor controller and IMU getters are).
+   *
+   * @param signal Reads the sensor
+   * @return the signal's index, used with {@link #getValue(int, int)}
+   */
+  public int registerSignal(DoubleSupplier signal) {
+    if (m_notifier != null) {
+      throw new IllegalStateException("Odometry signals must be registered before start()");
+    }
+    if (m_signalCount >= MAX_SIGNALS) {
+      throw new IllegalStateException("Too many odometry signals (max " + MAX_SIGNALS + ")");
+    }
+    m_signals[m_signalCount] = signal;
+    return m_signalCount++;
+  }
+
+  /** Starts sampling. Does nothing if no signals were registered (e.g. in log replay). */
+  public void start() {
+    if (m_notifier != null || m_signalCount == 0) {
+      return;
+    }
+    m_notifier = new Notifier(this::sample);
+    m_notifier.setName("DriveOdometry");
+    m_notifier.startPeriodic(1.0 / DriveConstants.ODOMETRY_FREQUENCY);
+  }
+
+  private void sample() {
+    double timestamp = RobotController.getFPGATime() / 1e6;
+    ODOMETRY_LOCK.lock();
+    try {
+      int slot = (m_oldest + m_count) % m_timestamps.length;
+      if (m_count == m_timestamps.length) {
+        // Main loop fell behind: drop the oldest sample
+        m_oldest = (m_oldest + 1) % m_timestamps.length;
+      } else {
+        m_count++;
+      }
+      m_timestamps[slot] = timestamp;
+      for (int i = 0; i < m_signalCount; i++) {
+        m_values[i][slot] = m_signals[i].getAsDouble();
+      }
+    } finally {
+      ODOMETRY_LOCK.unlock();
+    }
+  }
+
+  /** Returns how many samples are queued. Caller must hold {@link #ODOMETRY_LOCK}. */
+  public int getSampleCount() {
+    return m_count;
+  }
+
+  /**
+   * Returns the FPGA time (seconds) of a queued sample. Caller must hold {@link #ODOMETRY_LOCK}.
+   *
+   * @param sample 0 = oldest
+   */
+  public double getTimestamp(int sample) {
+    return m_timestamps[(m_oldest + sample) % m_timestamps.length];
+  }
+
+  /**
+   * Returns one signal's value in a queued sample. Caller must hold {@link #ODOMETRY_LOCK}.
+   *
+   * @param signal Index returned by {@link #registerSignal(DoubleSupplier)}
+   * @param sample 0 = oldest
+   */
+  public double getValue(int signal, int sample) {
+    return m_values[signal][(m_oldest + sample) % m_timestamps.length];
+  }
+
+  /** Throws away every queued sample. Caller must hold {@link #ODOMETRY_LOCK}. */
+  public void clear() {
+    m_oldest = 0;
+    m_count = 0;
+  }
+}
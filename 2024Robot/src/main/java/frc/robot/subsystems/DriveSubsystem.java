@@ -4,22 +4,72 @@
 
 package frc.robot.subsystems;
 
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.config.ModuleConfig;
+import com.pathplanner.lib.config.PIDConstants;
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.util.PathPlannerLogging;
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.wpilibj.ADIS16470_IMU;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.estimator.MecanumDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.AimConstants;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.DiagnosticsConstants;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.ModeConstants;
 import frc.robot.Constants.OperatorConstants;
+import frc.robot.util.Blackboard;
+import frc.robot.util.FeedforwardCharacterizer;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.MotorConfigPipeline;
+import frc.robot.util.LoopTimer;
+import java.util.Arrays;
 import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+import org.littletonrobotics.junction.Logger;
 
 /** Mecanum drive subsystem for the 2024 robot. */
 public class DriveSubsystem extends SubsystemBase {
   // The "Universal Remote" that controls our motors
   private final DriveIO m_io;
 
+  // The "clipboard" the IO layer writes sensor readings into. Reused every loop.
+  private final DriveIOInputsAutoLogged m_inputs = new DriveIOInputsAutoLogged();
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Drive.periodic");
+
   // Gyroscope for field-centric driving (Knows where "North" is)
-  private final ADIS16470_IMU m_gyro = new ADIS16470_IMU();
+  private final GyroIO m_gyroIO;
+  private final GyroIOInputsAutoLogged m_gyroInputs = new GyroIOInputsAutoLogged();
+
+  // Last wheel outputs we asked for (-1.0 to 1.0), kept for the match log
+  private final double[] m_wheelOutputs = new double[4];
+
+  // Feedforward per wheel {FL, RL, FR, RR}: the voltage a wheel needs to hold a speed, so the motor
+  // controller's PID only has to fix what's left over. characterizeCommand() replaces these.
+  private final SimpleMotorFeedforward[] m_feedforwards = new SimpleMotorFeedforward[4];
+  private final double[] m_velocitySetpoints = new double[4];
+  private final double[] m_lastVelocitySetpoints = new double[4];
+  private final double[] m_feedforwardVolts = new double[4];
+  private double m_lastVelocitySetpointTime = Double.NaN;
 
   // Drive modes
   private boolean m_velocityMode = false;
@@ -29,20 +79,119 @@ public class DriveSubsystem extends SubsystemBase {
   private double m_leftTargetPosition = 0;
   private double m_rightTargetPosition = 0;
 
-  /** Creates a new DriveSubsystem. */
-  public DriveSubsystem() {
-    // STARTUP LOGIC:
-    // This decides WHICH robot we are running on based on Constants.java
+  // Where each wheel sits relative to the robot center (+X forward, +Y left)
+  private final MecanumDriveKinematics m_kinematics =
+      new MecanumDriveKinematics(
+          new Translation2d(DriveConstants.WHEEL_BASE_METERS / 2, DriveConstants.TRACK_WIDTH_METERS / 2),
+          new Translation2d(DriveConstants.WHEEL_BASE_METERS / 2, -DriveConstants.TRACK_WIDTH_METERS / 2),
+          new Translation2d(-DriveConstants.WHEEL_BASE_METERS / 2, DriveConstants.TRACK_WIDTH_METERS / 2),
+          new Translation2d(-DriveConstants.WHEEL_BASE_METERS / 2, -DriveConstants.TRACK_WIDTH_METERS / 2));
+
+  // Odometry: "Where are we on the field?" Only touched from the main loop.
+  private final MecanumDrivePoseEstimator m_poseEstimator;
+  private final MecanumDriveWheelPositions m_wheelPositions = new MecanumDriveWheelPositions();
+  private final MecanumDriveWheelPositions m_lastWheelPositions = new MecanumDriveWheelPositions();
+  private Rotation2d m_rawGyroRotation = new Rotation2d();
+
+  // Mass, wheels and motors, for PathPlanner
+  private RobotConfig m_robotConfig;
+
+  // Set when encoders are zeroed, until the samples show the reset actually happened
+  private double m_encoderResetTime = Double.NaN;
+
+  /**
+   * Creates a new DriveSubsystem.
+   *
+   * @param io The drivetrain "Universal Remote" (SparkMax, Talon, or a blank one for replay)
+   * @param gyroIO The gyro "Universal Remote"
+   */
+  public DriveSubsystem(DriveIO io, GyroIO gyroIO) {
+    m_io = io;
+    m_gyroIO = gyroIO;
+    m_poseEstimator =
+        new MecanumDrivePoseEstimator(
+            m_kinematics, m_rawGyroRotation, m_wheelPositions, new Pose2d());
+    for (int i = 0; i < 4; i++) {
+      m_feedforwards[i] =
+          new SimpleMotorFeedforward(
+              DriveConstants.DRIVE_KS[i],
+              DriveConstants.DRIVE_KV[i],
+              DriveConstants.DRIVE_KA[i],
+              DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+    }
+
+    // The IO constructors registered their sensors, so sampling can begin
+    DriveOdometryThread.getInstance().start();
+
+    configureAutoBuilder();
+  }
+
+  /**
+   * Returns true if this drivetrain has wheel encoders, so odometry (and path following) works.
+   * The practice bot may not have them. The simulator always does.
+   */
+  public static boolean hasDriveEncoders() {
+    return DriveConstants.CURRENT_DRIVETRAIN_TYPE == DriveConstants.DrivetrainHardwareType.SPARK_MAX_NEO
+        || DriveConstants.HAS_DRIVE_ENCODERS
+        || ModeConstants.CURRENT_MODE == ModeConstants.Mode.SIM;
+  }
+
+  /** Tells PathPlanner how to read and drive this robot. */
+  private void configureAutoBuilder() {
+    DCMotor driveMotor =
+        DriveConstants.CURRENT_DRIVETRAIN_TYPE == DriveConstants.DrivetrainHardwareType.SPARK_MAX_NEO
+            ? DCMotor.getNEO(1)
+            : DCMotor.getCIM(1);
+    m_robotConfig =
+        new RobotConfig(
+            DriveConstants.ROBOT_MASS_KG,
+            DriveConstants.ROBOT_MOI,
+            new ModuleConfig(
+                DriveConstants.WHEEL_DIAMETER_METERS / 2,
+                getMaxLinearSpeed(),
+                DriveConstants.WHEEL_COF,
+                driveMotor.withReduction(DriveConstants.DRIVE_GEAR_RATIO),
+                DriveConstants.DRIVE_CURRENT_LIMIT,
+                1),
+            m_kinematics.getFrontLeft(),
+            m_kinematics.getFrontRight(),
+            m_kinematics.getRearLeft(),
+            m_kinematics.getRearRight());
+
+    AutoBuilder.configure(
+        this::getPose,
+        this::resetPose,
+        this::getChassisSpeeds,
+        (speeds, feedforwards) -> runVelocity(speeds),
+        new PPHolonomicDriveController(
+            new PIDConstants(AutoConstants.TRANSLATION_P, 0.0, 0.0),
+            new PIDConstants(AutoConstants.ROTATION_P, 0.0, 0.0)),
+        m_robotConfig,
+        // Never mirror here: the TrajectoryCache already holds a red copy of every path
+        () -> false,
+        this);
+
+    // Show the active path and where the robot is supposed to be in AdvantageScope
+    PathPlannerLogging.setLogActivePathCallback(
+        poses -> Logger.recordOutput("Odometry/Trajectory", poses.toArray(new Pose2d[0])));
+    PathPlannerLogging.setLogTargetPoseCallback(
+        pose -> Logger.recordOutput("Odometry/TrajectorySetpoint", pose));
+  }
+
+  /**
+   * Builds the drivetrain IO for the real robot.
+   *
+   * <p>STARTUP LOGIC: This decides WHICH robot we are running on based on Constants.java
+   */
+  public static DriveIO createHardwareIO() {
     switch (DriveConstants.CURRENT_DRIVETRAIN_TYPE) {
       case SPARK_MAX_NEO:
         // Load the SparkMax code (Competition Bot)
-        m_io = new DriveIOSparkMax();
-        break;
+        return new DriveIOSparkMax();
       case TALON_SRX_CIM:
       default:
         // Load the TalonSRX code (Practice Bot)
-        m_io = new DriveIOTalon();
-        break;
+        return new DriveIOTalon();
     }
   }
 
@@ -58,11 +207,12 @@ public class DriveSubsystem extends SubsystemBase {
     yAxis = MathUtil.applyDeadband(yAxis, OperatorConstants.DEADBAND_Y);
     xAxis = MathUtil.applyDeadband(xAxis, OperatorConstants.DEADBAND);
     zAxis = MathUtil.applyDeadband(zAxis, OperatorConstants.DEADBAND);
+    zAxis = assistHeading(zAxis);
 
     // 2. Field Centric Math
     // If on, "Forward" is always away from the driver, regardless of how the robot is facing.
     if (m_fieldCentric) {
-      double heading = Math.toRadians(m_gyro.getAngle());
+      double heading = Math.toRadians(m_gyroInputs.yawDegrees);
       double cosA = Math.cos(-heading);
       double sinA = Math.sin(-heading);
       double fieldY = yAxis;
@@ -90,10 +240,17 @@ public class DriveSubsystem extends SubsystemBase {
       rearRightOutput = rearRightOutput / largestOutput;
     }
 
+    m_wheelOutputs[0] = frontLeftOutput;
+    m_wheelOutputs[1] = rearLeftOutput;
+    m_wheelOutputs[2] = frontRightOutput;
+    m_wheelOutputs[3] = rearRightOutput;
+    Logger.recordOutput("Drive/WheelOutputs", m_wheelOutputs);
+
     // 5. Send to Motors via the "Universal Remote"
     if (m_velocityMode) {
+      if (!isReady()) return; // No PID gains on the controllers yet
       // Velocity Mode: "Spin wheels at X RPM"
-      m_io.setVelocities(
+      setWheelVelocities(
           DriveConstants.MAX_WHEEL_VELOCITY * frontLeftOutput,
           DriveConstants.MAX_WHEEL_VELOCITY * rearLeftOutput,
           DriveConstants.MAX_WHEEL_VELOCITY * frontRightOutput,
@@ -108,14 +265,122 @@ public class DriveSubsystem extends SubsystemBase {
     }
   }
 
+  /** Returns the drivetrain description PathPlanner uses to generate trajectories. */
+  public RobotConfig getRobotConfig() {
+    return m_robotConfig;
+  }
+
+  /**
+   * Drives at a robot-relative speed using closed-loop wheel velocities. Used by path following.
+   *
+   * @param speeds Forward/left meters per second and counter-clockwise radians per second
+   */
+  public void runVelocity(ChassisSpeeds speeds) {
+    if (!isReady()) return; // No PID gains on the controllers yet
+
+    MecanumDriveWheelSpeeds wheelSpeeds = m_kinematics.toWheelSpeeds(speeds);
+    wheelSpeeds.desaturate(getMaxLinearSpeed());
+
+    // Array order is {FL, RL, FR, RR}, as a fraction of max speed like the joystick outputs
+    m_wheelOutputs[0] = wheelSpeeds.frontLeftMetersPerSecond / getMaxLinearSpeed();
+    m_wheelOutputs[1] = wheelSpeeds.rearLeftMetersPerSecond / getMaxLinearSpeed();
+    m_wheelOutputs[2] = wheelSpeeds.frontRightMetersPerSecond / getMaxLinearSpeed();
+    m_wheelOutputs[3] = wheelSpeeds.rearRightMetersPerSecond / getMaxLinearSpeed();
+    Logger.recordOutput("Drive/WheelOutputs", m_wheelOutputs);
+    Logger.recordOutput("Drive/ChassisSpeedsSetpoint", speeds);
+
+    setWheelVelocities(
+        metersPerSecondToRpm(wheelSpeeds.frontLeftMetersPerSecond),
+        metersPerSecondToRpm(wheelSpeeds.rearLeftMetersPerSecond),
+        metersPerSecondToRpm(wheelSpeeds.frontRightMetersPerSecond),
+        metersPerSecondToRpm(wheelSpeeds.rearRightMetersPerSecond));
+  }
+
+  /**
+   * Sends wheel velocity setpoints (motor RPM) along with each wheel's feedforward voltage.
+   *
+   * <p>The kA part of the feedforward needs to know how much the setpoint changed since last loop.
+   * If velocity control wasn't running last loop, it starts from how fast the wheels really spin.
+   */
+  private void setWheelVelocities(
+      double frontLeftRpm, double rearLeftRpm, double frontRightRpm, double rearRightRpm) {
+    m_velocitySetpoints[0] = frontLeftRpm;
+    m_velocitySetpoints[1] = rearLeftRpm;
+    m_velocitySetpoints[2] = frontRightRpm;
+    m_velocitySetpoints[3] = rearRightRpm;
+
+    double now = Timer.getFPGATimestamp();
+    boolean continuing =
+        now - m_lastVelocitySetpointTime < 2 * DiagnosticsConstants.LOOP_PERIOD_SECONDS;
+    for (int i = 0; i < 4; i++) {
+      double previous = continuing ? m_lastVelocitySetpoints[i] : m_inputs.velocities[i];
+      m_feedforwardVolts[i] =
+          m_feedforwards[i].calculateWithVelocities(previous, m_velocitySetpoints[i]);
+      m_lastVelocitySetpoints[i] = m_velocitySetpoints[i];
+    }
+    m_lastVelocitySetpointTime = now;
+
+    Logger.recordOutput("Drive/VelocitySetpoints", m_velocitySetpoints);
+    Logger.recordOutput("Drive/FeedforwardVolts", m_feedforwardVolts);
+    m_io.setVelocities(m_velocitySetpoints, m_feedforwardVolts);
+  }
+
+  /** Returns the fastest a wheel can go in meters per second. */
+  public static double getMaxLinearSpeed() {
+    return rpmToMetersPerSecond(DriveConstants.MAX_WHEEL_VELOCITY);
+  }
+
+  /**
+   * Returns true once every drive motor controller has finished its startup configuration (see
+   * {@link MotorConfigPipeline}). Closed-loop driving waits for this.
+   */
+  public boolean isReady() {
+    for (String name : DriveIO.CONFIG_NAMES) {
+      if (!MotorConfigPipeline.isReady(name)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the current all four drive motors are drawing together (Amps, this loop). */
+  public double getTotalCurrent() {
+    double total = 0.0;
+    for (double amps : m_inputs.currentAmps) {
+      total += amps;
+    }
+    return total;
+  }
+
+  /**
+   * Sets the current limit of each drive motor (used by {@link PowerManager}). Writes config over
+   * the CAN bus, so only call it when the limit changes.
+   *
+   * @param ampsPerMotor Limit for each of the four motors (Amps)
+   */
+  public void setCurrentLimit(double ampsPerMotor) {
+    Logger.recordOutput("Drive/CurrentLimitAmps", ampsPerMotor);
+    m_io.setCurrentLimit(ampsPerMotor);
+  }
+
   /** Stops all drive motors. */
   public void stop() {
+    Arrays.fill(m_wheelOutputs, 0);
+    Logger.recordOutput("Drive/WheelOutputs", m_wheelOutputs);
     m_io.stop();
   }
 
   /** Resets all drive encoders to zero. */
   public void resetEncoders() {
-    m_io.resetEncoders();
+    DriveOdometryThread.ODOMETRY_LOCK.lock();
+    try {
+      // Samples taken before the reset would look like a huge jump backwards
+      DriveOdometryThread.getInstance().clear();
+      m_io.resetEncoders();
+    } finally {
+      DriveOdometryThread.ODOMETRY_LOCK.unlock();
+    }
+    m_encoderResetTime = Timer.getFPGATimestamp();
     m_leftTargetPosition = 0;
     m_rightTargetPosition = 0;
   }
@@ -129,9 +394,16 @@ public class DriveSubsystem extends SubsystemBase {
   public void driveToPosition(double leftTarget, double rightTarget) {
     // SAFETY: If we don't have sensors, we CANNOT do this. Return immediately.
     if (!DriveConstants.HAS_DRIVE_ENCODERS) return; 
+    if (!isReady()) {
+      // No PID gains on the controllers yet. Say so, since the robot won't move.
+      DriverStation.reportWarning("Drive to Position ignored: drive motors still configuring", false);
+      return;
+    }
 
     m_leftTargetPosition = leftTarget;
     m_rightTargetPosition = rightTarget;
+    Logger.recordOutput("Drive/LeftTargetPosition", leftTarget);
+    Logger.recordOutput("Drive/RightTargetPosition", rightTarget);
     m_io.setPositionTargets(leftTarget, rightTarget);
   }
 
@@ -140,10 +412,9 @@ public class DriveSubsystem extends SubsystemBase {
     // If no sensors, we assume we are "there" instantly so Auto doesn't get stuck waiting.
     if (!DriveConstants.HAS_DRIVE_ENCODERS) return true;
 
-    double[] positions = m_io.getPositions();
-    // Check if both sides are close enough to the target
-    return Math.abs(positions[0] - m_leftTargetPosition) < DriveConstants.POSITION_TOLERANCE
-        && Math.abs(positions[2] - m_rightTargetPosition) < DriveConstants.POSITION_TOLERANCE;
+    // Check if both sides are close enough to the target (uses this loop's sensor readings)
+    return Math.abs(m_inputs.positions[0] - m_leftTargetPosition) < DriveConstants.POSITION_TOLERANCE
+        && Math.abs(m_inputs.positions[2] - m_rightTargetPosition) < DriveConstants.POSITION_TOLERANCE;
   }
 
   /** Toggles velocity mode on/off. */
@@ -168,12 +439,191 @@ public class DriveSubsystem extends SubsystemBase {
 
   /** Resets the gyro heading to zero. */
   public void resetGyro() {
-    m_gyro.reset();
+    DriveOdometryThread.ODOMETRY_LOCK.lock();
+    try {
+      // Samples taken before the reset would look like a sudden spin
+      DriveOdometryThread.getInstance().clear();
+      m_gyroIO.reset();
+    } finally {
+      DriveOdometryThread.ODOMETRY_LOCK.unlock();
+    }
+    // Keep our place on the field, just re-reference the heading to the new zero
+    m_rawGyroRotation = new Rotation2d();
+    m_poseEstimator.resetPosition(m_rawGyroRotation, m_lastWheelPositions, getPose());
+  }
+
+  /** Returns the estimated robot pose on the field. */
+  public Pose2d getPose() {
+    return m_poseEstimator.getEstimatedPosition();
+  }
+
+  /** Returns the estimated robot heading on the field. */
+  public Rotation2d getRotation() {
+    return getPose().getRotation();
+  }
+
+  /**
+   * Tells odometry where the robot is (e.g. at the start of an auto).
+   *
+   * @param pose The robot's actual pose on the field
+   */
+  public void resetPose(Pose2d pose) {
+    m_poseEstimator.resetPosition(m_rawGyroRotation, m_lastWheelPositions, pose);
+  }
+
+  /**
+   * Corrects odometry with a pose seen by a camera.
+   *
+   * @param visionPose Where the camera thinks the robot was
+   * @param timestampSeconds When the camera image was captured (FPGA seconds)
+   * @param stdDevs How much to trust the pose (x meters, y meters, heading radians)
+   */
+  public void addVisionMeasurement(
+      Pose2d visionPose, double timestampSeconds, Matrix<N3, N1> stdDevs) {
+    m_poseEstimator.addVisionMeasurement(visionPose, timestampSeconds, stdDevs);
+  }
+
+  /** Returns the robot's measured speeds relative to the robot (from the wheel encoders). */
+  public ChassisSpeeds getChassisSpeeds() {
+    return m_kinematics.toChassisSpeeds(
+        new MecanumDriveWheelSpeeds(
+            rpmToMetersPerSecond(m_inputs.velocities[0]),
+            rpmToMetersPerSecond(m_inputs.velocities[2]),
+            rpmToMetersPerSecond(m_inputs.velocities[1]),
+            rpmToMetersPerSecond(m_inputs.velocities[3])));
+  }
+
+  /** Returns the robot's measured speeds relative to the field. */
+  public ChassisSpeeds getFieldRelativeSpeeds() {
+    return ChassisSpeeds.fromRobotRelativeSpeeds(getChassisSpeeds(), getRotation());
+  }
+
+  /** Returns the kinematics describing our wheel layout. */
+  public MecanumDriveKinematics getKinematics() {
+    return m_kinematics;
+  }
+
+  private static double rotationsToMeters(double motorRotations) {
+    return motorRotations / DriveConstants.DRIVE_GEAR_RATIO * Math.PI * DriveConstants.WHEEL_DIAMETER_METERS;
+  }
+
+  private static double rpmToMetersPerSecond(double motorRpm) {
+    return rotationsToMeters(motorRpm) / 60.0;
+  }
+
+  private static double metersPerSecondToRpm(double metersPerSecond) {
+    return metersPerSecond * 60.0 / (Math.PI * DriveConstants.WHEEL_DIAMETER_METERS) * DriveConstants.DRIVE_GEAR_RATIO;
+  }
+
+  /** Feeds every high-rate sample queued since last loop into the pose estimator, in order. */
+  private void updateOdometry() {
+    for (int i = 0; i < m_inputs.odometrySampleCount; i++) {
+      // Array order is {FL, RL, FR, RR}; WPILib's wheel positions are named instead
+      m_wheelPositions.frontLeftMeters = rotationsToMeters(m_inputs.odometryPositions[4 * i]);
+      m_wheelPositions.rearLeftMeters = rotationsToMeters(m_inputs.odometryPositions[4 * i + 1]);
+      m_wheelPositions.frontRightMeters = rotationsToMeters(m_inputs.odometryPositions[4 * i + 2]);
+      m_wheelPositions.rearRightMeters = rotationsToMeters(m_inputs.odometryPositions[4 * i + 3]);
+      double timestamp = m_inputs.odometryTimestamps[i];
+
+      if (!Double.isNaN(m_encoderResetTime)) {
+        // Encoders were just zeroed. Wait until the samples show it (or give up after a moment),
+        // then re-seed odometry so the reset doesn't look like the robot teleported.
+        if (!wheelsNearZero() && timestamp - m_encoderResetTime < DriveConstants.ENCODER_RESET_TIMEOUT) {
+          continue;
+        }
+        m_encoderResetTime = Double.NaN;
+        m_poseEstimator.resetPosition(m_rawGyroRotation, m_wheelPositions, getPose());
+        m_lastWheelPositions.frontLeftMeters = m_wheelPositions.frontLeftMeters;
+        m_lastWheelPositions.rearLeftMeters = m_wheelPositions.rearLeftMeters;
+        m_lastWheelPositions.frontRightMeters = m_wheelPositions.frontRightMeters;
+        m_lastWheelPositions.rearRightMeters = m_wheelPositions.rearRightMeters;
+        continue;
+      }
+
+      if (m_gyroInputs.connected && i < m_gyroInputs.odometrySampleCount) {
+        m_rawGyroRotation = Rotation2d.fromDegrees(m_gyroInputs.odometryYawDegrees[i]);
+      } else {
+        // No gyro: estimate the turn from how the wheels moved
+        Twist2d twist = m_kinematics.toTwist2d(m_lastWheelPositions, m_wheelPositions);
+        m_rawGyroRotation = m_rawGyroRotation.plus(new Rotation2d(twist.dtheta));
+      }
+
+      m_poseEstimator.updateWithTime(timestamp, m_rawGyroRotation, m_wheelPositions);
+
+      m_lastWheelPositions.frontLeftMeters = m_wheelPositions.frontLeftMeters;
+      m_lastWheelPositions.rearLeftMeters = m_wheelPositions.rearLeftMeters;
+      m_lastWheelPositions.frontRightMeters = m_wheelPositions.frontRightMeters;
+      m_lastWheelPositions.rearRightMeters = m_wheelPositions.rearRightMeters;
+    }
+  }
+
+  private boolean wheelsNearZero() {
+    double tolerance = DriveConstants.ENCODER_RESET_TOLERANCE_METERS;
+    return Math.abs(m_wheelPositions.frontLeftMeters) < tolerance
+        && Math.abs(m_wheelPositions.rearLeftMeters) < tolerance
+        && Math.abs(m_wheelPositions.frontRightMeters) < tolerance
+        && Math.abs(m_wheelPositions.rearRightMeters) < tolerance;
+  }
+
+  /**
+   * Speeds up the status frames this mode needs and slows down the rest. Called by Robot when the
+   * mode changes.
+   */
+  public void setFrameProfile(FrameProfile profile) {
+    m_io.setFrameProfile(profile);
   }
 
   @Override
   public void periodic() {
-    // This method will be called once per scheduler run
+    m_periodicTimer.start();
+
+    // Read all drive sensors ONCE per loop into the reusable inputs objects. Holding the lock
+    // makes sure the wheel and gyro samples come from the same set of odometry thread readings.
+    DriveOdometryThread.ODOMETRY_LOCK.lock();
+    try {
+      m_io.updateInputs(m_inputs);
+      m_gyroIO.updateInputs(m_gyroInputs);
+      DriveOdometryThread.getInstance().clear();
+    } finally {
+      DriveOdometryThread.ODOMETRY_LOCK.unlock();
+    }
+    Logger.processInputs("Drive", m_inputs);
+    Logger.processInputs("Drive/Gyro", m_gyroInputs);
+
+    updateOdometry();
+    Logger.recordOutput("Odometry/Robot", getPose());
+    Blackboard.ROBOT_POSE.set(getPose());
+    ChassisSpeeds fieldSpeeds = getFieldRelativeSpeeds();
+    Blackboard.ROBOT_VELOCITY_X.set(fieldSpeeds.vxMetersPerSecond);
+    Blackboard.ROBOT_VELOCITY_Y.set(fieldSpeeds.vyMetersPerSecond);
+
+    Logger.recordOutput("Drive/VelocityMode", m_velocityMode);
+    Logger.recordOutput("Drive/FieldCentric", m_fieldCentric);
+
+    LoopProfiler.stop(m_periodicTimer);
+  }
+
+  /**
+   * While the superstructure auto-aims it posts the heading to shoot at (Blackboard.AIM_HEADING).
+   * If the driver isn't turning, this turns the robot toward it; the rotation stick always wins.
+   *
+   * @param zAxis Rotation axis after the deadband (positive = clockwise)
+   * @return Rotation axis to drive with
+   */
+  private double assistHeading(double zAxis) {
+    double aimHeading = Blackboard.AIM_HEADING.get();
+    if (zAxis != 0.0 || Double.isNaN(aimHeading)) {
+      return zAxis;
+    }
+    // The heading is counter-clockwise, the rotation axis clockwise
+    double error = MathUtil.angleModulus(aimHeading - getRotation().getRadians());
+    double assist =
+        MathUtil.clamp(
+            -AimConstants.HEADING_ASSIST_P * error,
+            -AimConstants.HEADING_ASSIST_MAX_OUTPUT,
+            AimConstants.HEADING_ASSIST_MAX_OUTPUT);
+    Logger.recordOutput("Drive/HeadingAssist", assist);
+    return assist;
   }
 
   // ==================== Command Factories ====================
@@ -194,13 +644,141 @@ public class DriveSubsystem extends SubsystemBase {
     if (!DriveConstants.HAS_DRIVE_ENCODERS) {
         return runOnce(() -> {}).withName("Drive to Position (Skipped)");
     }
-    // Normal: Start driving, and wait until we get there.
+    // Normal: Wait for the position gains to be on the motor controllers (see
+    // MotorConfigPipeline), start driving, and wait until we get there. If configuration is stuck,
+    // end with a warning instead of "arriving" without moving.
     return Commands.sequence(
-            runOnce(() -> driveToPosition(leftTarget, rightTarget)),
-            Commands.waitUntil(() -> atTargetPosition()))
+            Commands.waitUntil(this::isReady).withTimeout(AutoConstants.MOTOR_CONFIG_WAIT_TIME),
+            Commands.either(
+                Commands.sequence(
+                    runOnce(() -> driveToPosition(leftTarget, rightTarget)),
+                    Commands.waitUntil(() -> atTargetPosition())),
+                runOnce(
+                    () ->
+                        DriverStation.reportWarning(
+                            "Drive to Position skipped: drive motors still not configured after "
+                                + AutoConstants.MOTOR_CONFIG_WAIT_TIME
+                                + " s",
+                            false)),
+                this::isReady))
         .withName("Drive to Position");
   }
 
+  /**
+   * Measures the feedforward of each wheel, like WPILib's SysId tool, and starts using it.
+   *
+   * <p>Needs about 5 meters of clear space in front of AND behind the robot. It runs four tests,
+   * coasting to a stop between them:
+   *
+   * <ol>
+   *   <li>Quasistatic forward: voltage ramps up slowly, so speed is mostly from kS and kV
+   *   <li>Quasistatic backward
+   *   <li>Dynamic forward: a sudden voltage step, so the robot accelerates hard (kA)
+   *   <li>Dynamic backward
+   * </ol>
+   *
+   * <p>When it's done, the gains are printed and logged under "Drive/Characterization". They're
+   * used right away, but only until the robot reboots: copy them into DRIVE_KS/KV/KA to keep them.
+   */
+  public Command characterizeCommand() {
+    // Without encoders there's nothing to measure
+    if (!hasDriveEncoders()) {
+      return runOnce(() -> {}).withName("Drive Characterization (Skipped)");
+    }
+    FeedforwardCharacterizer[] fits = new FeedforwardCharacterizer[4];
+    for (int i = 0; i < 4; i++) {
+      fits[i] = new FeedforwardCharacterizer(DriveConstants.CHARACTERIZATION_MIN_VELOCITY);
+    }
+    double rampTime = DriveConstants.CHARACTERIZATION_RAMP_TIME;
+    double rampRate = DriveConstants.CHARACTERIZATION_RAMP_RATE;
+    double stepTime = DriveConstants.CHARACTERIZATION_STEP_TIME;
+    double stepVolts = DriveConstants.CHARACTERIZATION_STEP_VOLTS;
+    return Commands.sequence(
+            runOnce(
+                () -> {
+                  for (FeedforwardCharacterizer fit : fits) {
+                    fit.reset();
+                  }
+                }),
+            characterizationPhase(fits, t -> rampRate * t, rampTime),
+            characterizationPause(),
+            characterizationPhase(fits, t -> -rampRate * t, rampTime),
+            characterizationPause(),
+            characterizationPhase(fits, t -> stepVolts, stepTime),
+            characterizationPause(),
+            characterizationPhase(fits, t -> -stepVolts, stepTime),
+            runOnce(() -> applyCharacterization(fits)))
+        .finallyDo(this::stop)
+        .withName("Drive Characterization");
+  }
+
+  /**
+   * One characterization test: applies a voltage to all four wheels and records a sample per wheel
+   * every loop.
+   *
+   * @param voltsAtTime Voltage to apply, given seconds since the test started
+   */
+  private Command characterizationPhase(
+      FeedforwardCharacterizer[] fits, DoubleUnaryOperator voltsAtTime, double seconds) {
+    Timer timer = new Timer();
+    double[] lastVelocities = new double[4];
+    return startRun(
+            () -> {
+              timer.restart();
+              System.arraycopy(m_inputs.velocities, 0, lastVelocities, 0, 4);
+            },
+            () -> {
+              double volts = voltsAtTime.applyAsDouble(timer.get());
+              m_io.setVoltages(volts, volts, volts, volts);
+              for (int i = 0; i < 4; i++) {
+                double acceleration =
+                    (m_inputs.velocities[i] - lastVelocities[i])
+                        / DiagnosticsConstants.LOOP_PERIOD_SECONDS;
+                fits[i].addSample(m_inputs.appliedVolts[i], m_inputs.velocities[i], acceleration);
+                lastVelocities[i] = m_inputs.velocities[i];
+              }
+            })
+        .withTimeout(seconds);
+  }
+
+  /** Stops the wheels and gives the robot time to coast to a stop between tests. */
+  private Command characterizationPause() {
+    return runOnce(this::stop)
+        .andThen(Commands.waitSeconds(DriveConstants.CHARACTERIZATION_PAUSE_TIME));
+  }
+
+  /** Fits the samples, then prints, logs and starts using the new gains. */
+  private void applyCharacterization(FeedforwardCharacterizer[] fits) {
+    double[] kS = new double[4];
+    double[] kV = new double[4];
+    double[] kA = new double[4];
+    for (int i = 0; i < 4; i++) {
+      double[] gains = fits[i].fit();
+      if (gains == null) {
+        DriverStation.reportWarning(
+            "Drive characterization: not enough data for " + DriveIO.CONFIG_NAMES[i]
+                + ", keeping the old gains",
+            false);
+        return;
+      }
+      // Noisy data can give a tiny negative kV or kA, which SimpleMotorFeedforward won't take
+      kS[i] = gains[0];
+      kV[i] = Math.max(0.0, gains[1]);
+      kA[i] = Math.max(0.0, gains[2]);
+    }
+    for (int i = 0; i < 4; i++) {
+      m_feedforwards[i] =
+          new SimpleMotorFeedforward(kS[i], kV[i], kA[i], DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+    }
+    Logger.recordOutput("Drive/Characterization/kS", kS);
+    Logger.recordOutput("Drive/Characterization/kV", kV);
+    Logger.recordOutput("Drive/Characterization/kA", kA);
+    System.out.println("Drive characterization {FL, RL, FR, RR} (copy into DriveConstants):");
+    System.out.println("  DRIVE_KS = " + Arrays.toString(kS));
+    System.out.println("  DRIVE_KV = " + Arrays.toString(kV));
+    System.out.println("  DRIVE_KA = " + Arrays.toString(kA));
+  }
+
   public Command toggleVelocityModeCommand() {
     return runOnce(() -> toggleVelocityMode()).withName("Toggle Velocity Mode");
   }
@@ -0,0 +1,40 @@
+package frc.robot.subsystems;
+
+import frc.robot.Constants.DriveConstants;
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * GyroIO is the "Universal Remote" for the robot's gyroscope.
+ *
+ * <p>Keeping the gyro behind its own interface means DriveSubsystem never talks to the
+ * ADIS16470 directly, so the heading can be logged and replayed like every other sensor.
+ */
+public interface GyroIO {
+  /** Everything the gyro can tell us. Filled in once per loop. */
+  @AutoLog
+  public static class GyroIOInputs {
+    /** True if the gyro is plugged in and responding. */
+    public boolean connected = false;
+
+    /** Heading in degrees, as reported by the gyro (NOT wrapped to +/-180). */
+    public double yawDegrees = 0.0;
+
+    /** How fast the heading is changing in degrees per second. */
+    public double yawRateDegPerSec = 0.0;
+
+    /** How many high-rate odometry samples arrived since last loop. */
+    public int odometrySampleCount = 0;
+
+    /** Heading (degrees) of each odometry sample, matching DriveIOInputs.odometryTimestamps. */
+    public double[] odometryYawDegrees = new double[DriveConstants.ODOMETRY_QUEUE_CAPACITY];
+  }
+
+  /**
+   * Reads the latest gyro values into the reusable inputs object. The caller holds {@link
+   * DriveOdometryThread#ODOMETRY_LOCK}.
+   */
+  public default void updateInputs(GyroIOInputs inputs) {}
+
+  /** Sets the current heading as "zero". */
+  public default void reset() {}
+}
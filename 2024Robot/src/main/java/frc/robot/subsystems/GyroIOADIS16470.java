@@ -0,0 +1,32 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.ADIS16470_IMU;
+
+/** Hardware implementation for the ADIS16470 IMU plugged into the roboRIO SPI port. */
+public class GyroIOADIS16470 implements GyroIO {
+  private final ADIS16470_IMU m_gyro = new ADIS16470_IMU();
+  private final int m_yawSignal;
+
+  public GyroIOADIS16470() {
+    // Sample the heading on the odometry thread alongside the wheel encoders
+    m_yawSignal = DriveOdometryThread.getInstance().registerSignal(m_gyro::getAngle);
+  }
+
+  @Override
+  public void updateInputs(GyroIOInputs inputs) {
+    inputs.connected = m_gyro.isConnected();
+    inputs.yawDegrees = m_gyro.getAngle();
+    inputs.yawRateDegPerSec = m_gyro.getRate();
+
+    DriveOdometryThread odometry = DriveOdometryThread.getInstance();
+    inputs.odometrySampleCount = odometry.getSampleCount();
+    for (int i = 0; i < inputs.odometrySampleCount; i++) {
+      inputs.odometryYawDegrees[i] = odometry.getValue(m_yawSignal, i);
+    }
+  }
+
+  @Override
+  public void reset() {
+    m_gyro.reset();
+  }
+}
@@ -0,0 +1,33 @@
+package frc.robot.subsystems;
+
+/** Simulated gyro that reads the heading straight out of the drive simulation. */
+public class GyroIOSim implements GyroIO {
+  private final DriveIOSim m_driveSim;
+  private double m_zeroRadians = 0.0;
+
+  /**
+   * @param driveSim The simulated drive whose wheels turn the robot
+   */
+  public GyroIOSim(DriveIOSim driveSim) {
+    m_driveSim = driveSim;
+  }
+
+  @Override
+  public void updateInputs(GyroIOInputs inputs) {
+    inputs.connected = true;
+    inputs.yawDegrees = Math.toDegrees(m_driveSim.getYawRadians() - m_zeroRadians);
+    inputs.yawRateDegPerSec = Math.toDegrees(m_driveSim.getYawRateRadPerSec());
+
+    // The drive sim already stepped this loop, so its samples line up with the wheel samples
+    inputs.odometrySampleCount = m_driveSim.getSamplesPerLoop();
+    for (int i = 0; i < inputs.odometrySampleCount; i++) {
+      inputs.odometryYawDegrees[i] =
+          Math.toDegrees(m_driveSim.getSampleYawRadians(i) - m_zeroRadians);
+    }
+  }
+
+  @Override
+  public void reset() {
+    m_zeroRadians = m_driveSim.getYawRadians();
+  }
+}
@@ -0,0 +1,55 @@
+package frc.robot.subsystems;
+
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * PivotIO is the "Universal Remote" for the shooter pivot.
+ *
+ * <p>Every method has a "do nothing" default, so a disabled pivot is simply {@code new PivotIO()
+ * {}} instead of a null motor.
+ */
+public interface PivotIO {
+  /** Everything the pivot can tell us. Filled in once per loop. */
+  @AutoLog
+  public static class PivotIOInputs {
+    /** Pivot position in encoder counts. */
+    public double positionCounts = 0.0;
+
+    /** Pivot velocity in encoder counts per 100 ms (Talon native units). */
+    public double velocityCountsPer100ms = 0.0;
+
+    /** Voltage the motor is actually applying. */
+    public double appliedVolts = 0.0;
+
+    /** Current the motor is drawing from the battery in Amps. */
+    public double supplyCurrentAmps = 0.0;
+
+    /**
+     * Loop time (seconds, {@code Logger.getTimestamp()}) of the last read the motor controller
+     * reported no error for. Stays put while reads fail, so a Talon that stopped sending frames
+     * shows up as an old position. It says nothing about how old a good frame is.
+     */
+    public double lastGoodReadTimestamp = 0.0;
+  }
+
+  /** Reads the latest pivot values into the reusable inputs object. */
+  public default void updateInputs(PivotIOInputs inputs) {}
+
+  /**
+   * Drives the pivot to a position using MotionMagic.
+   *
+   * @param positionCounts Target position in encoder counts
+   */
+  public default void setPosition(double positionCounts) {}
+
+  /** Cuts power to the pivot motor. */
+  public default void stop() {}
+
+  /**
+   * Changes how often the pivot sends its status frames (see {@link FrameProfile}).
+   *
+   * @param profile Frame rates for the mode the robot just entered
+   */
+  public default void setFrameProfile(FrameProfile profile) {}
+}
@@ -0,0 +1,95 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.robot.Constants.DiagnosticsConstants;
+import frc.robot.Constants.PivotConstants;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Physics simulation of the pivot, so pivot commands and autos can run on a desktop.
+ *
+ * <p>The motor is a WPILib {@link DCMotorSim}. The Talon's MotionMagic is replaced by a trapezoid
+ * profile using the same cruise velocity and acceleration, followed by a simple P loop. Units are
+ * Mag Encoder counts on the motor shaft, like the real IO.
+ */
+public class PivotIOSim implements PivotIO {
+  private static final double COUNTS_PER_ROTATION = 4096.0;
+
+  // Small physics steps: the real loop runs at 1 kHz inside the Talon
+  private static final int SUBSTEPS = 20;
+  private static final double SUBSTEP_SECONDS =
+      DiagnosticsConstants.LOOP_PERIOD_SECONDS / SUBSTEPS;
+
+  private final DCMotor m_motor = DCMotor.getCIM(1);
+  private final DCMotorSim m_sim =
+      new DCMotorSim(
+          LinearSystemId.createDCMotorSystem(m_motor, PivotConstants.SIM_MOTOR_INERTIA, 1.0),
+          m_motor);
+
+  // MotionMagic units are per 100 ms; the profile works per second. Can't beat the motor's top
+  // speed, so cap the cruise velocity there.
+  private final double m_freeSpeedCountsPerSec =
+      m_motor.freeSpeedRadPerSec / (2 * Math.PI) * COUNTS_PER_ROTATION;
+  private final TrapezoidProfile m_profile =
+      new TrapezoidProfile(
+          new TrapezoidProfile.Constraints(
+              Math.min(PivotConstants.MOTION_CRUISE_VELOCITY * 10.0, 0.9 * m_freeSpeedCountsPerSec),
+              PivotConstants.MOTION_ACCELERATION * 10.0));
+  private TrapezoidProfile.State m_setpoint = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State m_goal = new TrapezoidProfile.State();
+  private boolean m_closedLoop = false;
+  private double m_appliedVolts = 0.0;
+
+  private double getPositionCounts() {
+    return m_sim.getAngularPositionRotations() * COUNTS_PER_ROTATION;
+  }
+
+  private double getVelocityCountsPerSec() {
+    return m_sim.getAngularVelocityRPM() / 60.0 * COUNTS_PER_ROTATION;
+  }
+
+  @Override
+  public void updateInputs(PivotIOInputs inputs) {
+    for (int step = 0; step < SUBSTEPS; step++) {
+      if (m_closedLoop) {
+        m_setpoint = m_profile.calculate(SUBSTEP_SECONDS, m_setpoint, m_goal);
+        m_appliedVolts =
+            m_setpoint.velocity / m_freeSpeedCountsPerSec * 12.0
+                + PivotConstants.SIM_P * (m_setpoint.position - getPositionCounts());
+      } else {
+        m_appliedVolts = 0.0;
+      }
+      m_appliedVolts = MathUtil.clamp(m_appliedVolts, -12.0, 12.0);
+      m_sim.setInputVoltage(m_appliedVolts);
+      m_sim.update(SUBSTEP_SECONDS);
+    }
+
+    inputs.positionCounts = getPositionCounts();
+    inputs.velocityCountsPer100ms = getVelocityCountsPerSec() / 10.0;
+    inputs.appliedVolts = m_appliedVolts;
+    inputs.supplyCurrentAmps = Math.abs(m_sim.getCurrentDrawAmps());
+    inputs.lastGoodReadTimestamp = Logger.getTimestamp() / 1e6; // The sim sensor never fails
+  }
+
+  @Override
+  public void setPosition(double positionCounts) {
+    if (!m_closedLoop || m_goal.position != positionCounts) {
+      // New target: start the profile from where the pivot is right now
+      if (!m_closedLoop) {
+        m_setpoint = new TrapezoidProfile.State(getPositionCounts(), getVelocityCountsPerSec());
+      }
+      m_goal.position = positionCounts;
+      m_goal.velocity = 0.0;
+    }
+    m_closedLoop = true;
+  }
+
+  @Override
+  public void stop() {
+    m_closedLoop = false;
+  }
+}
@@ -0,0 +1,123 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.PivotConstants;
+import frc.robot.Constants.PowerConstants;
+import frc.robot.util.MotorConfigPipeline;
+import org.littletonrobotics.junction.Logger;
+
+/** Hardware implementation for the TalonSRX pivot with a CTRE Mag Encoder. */
+public class PivotIOTalonSRX implements PivotIO {
+  /** Name of the pivot in {@link MotorConfigPipeline}. */
+  public static final String NAME = "Pivot";
+
+  private final TalonSRX m_pivotMotor;
+
+  // The robot mode's frame rates. Configuration runs in the background and can finish after a
+  // mode change, so it applies this (not the startup rates) at the end. Guarded by this.
+  private FrameProfile m_frameProfile = CanBusConstants.STARTUP_PROFILE;
+
+  public PivotIOTalonSRX() {
+    m_pivotMotor = new TalonSRX(PivotConstants.MOTOR_ID);
+
+    // The slow config calls run in the background (see MotorConfigPipeline)
+    MotorConfigPipeline.submit(NAME, this::configure);
+  }
+
+  /** Applies every pivot setting. Returns true if settings were written to flash. */
+  private boolean configure() {
+    TalonSRXConfiguration config = new TalonSRXConfiguration();
+
+    // Configure sensor feedback device
+    config.primaryPID.selectedFeedbackSensor = FeedbackDevice.CTRE_MagEncoder_Relative;
+
+    // Configure peak outputs
+    config.peakOutputForward = PivotConstants.PEAK_OUTPUT_FORWARD;
+    config.peakOutputReverse = PivotConstants.PEAK_OUTPUT_REVERSE;
+
+    // Configure PID
+    config.slot0.kF = PivotConstants.MOTOR_F;
+    config.slot0.kP = PivotConstants.MOTOR_P;
+    config.slot0.kI = PivotConstants.MOTOR_I;
+    config.slot0.kD = PivotConstants.MOTOR_D;
+
+    // Configure MotionMagic
+    config.motionCruiseVelocity = PivotConstants.MOTION_CRUISE_VELOCITY;
+    config.motionAcceleration = PivotConstants.MOTION_ACCELERATION;
+    config.motionCurveStrength = PivotConstants.MOTION_S_CURVE_STRENGTH;
+
+    // Configure current limit (continuous only; peak 0)
+    config.continuousCurrentLimit = (int) PowerConstants.PIVOT_CURRENT_LIMIT;
+    config.peakCurrentLimit = 0;
+
+    // Only written if the Talon doesn't already have these settings
+    boolean changed = MotorConfigPipeline.applyIfChanged(m_pivotMotor, config);
+
+    // Configure sensor and motor inversion (not saved on the Talon, so always set)
+    m_pivotMotor.setSensorPhase(PivotConstants.SENSOR_PHASE);
+    m_pivotMotor.setInverted(PivotConstants.INVERTED);
+    m_pivotMotor.enableCurrentLimit(true);
+
+    // OPTIMIZATION: Slow down CAN status frames for data we don't need frequently
+    // (the frames we read change with the robot mode, see setFrameProfile)
+    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, CanBusConstants.MECHANISM_MISC_MS);
+
+    // Zero the sensor (every goal is counted from here, so it has to work)
+    MotorConfigPipeline.check(
+        m_pivotMotor.setSelectedSensorPosition(
+            0, PivotConstants.PID_SLOT, PivotConstants.TIMEOUT_MS),
+        "Pivot setSelectedSensorPosition");
+
+    // Last, so a mode change while configuring isn't undone
+    synchronized (this) {
+      applyFrameProfile(m_frameProfile);
+    }
+    return changed;
+  }
+
+  @Override
+  public synchronized void setFrameProfile(FrameProfile profile) {
+    m_frameProfile = profile;
+    applyFrameProfile(profile);
+  }
+
+  private void applyFrameProfile(FrameProfile profile) {
+    // Timeout 0 = don't wait for the Talon to answer, so a mode change never stalls the loop
+    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.generalMs, 0);
+    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, profile.mechanismFeedbackMs, 0);
+    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.ainMs, 0);
+    m_pivotMotor.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_10_MotionMagic, profile.mechanismClosedLoopMs, 0);
+    m_pivotMotor.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_13_Base_PIDF0, profile.mechanismClosedLoopMs, 0);
+  }
+
+  @Override
+  public void updateInputs(PivotIOInputs inputs) {
+    inputs.positionCounts = m_pivotMotor.getSelectedSensorPosition();
+    // Phoenix 5 doesn't say when a frame arrived, only (as an error) when none has for a while
+    if (m_pivotMotor.getLastError() == ErrorCode.OK) {
+      inputs.lastGoodReadTimestamp = Logger.getTimestamp() / 1e6;
+    }
+    inputs.velocityCountsPer100ms = m_pivotMotor.getSelectedSensorVelocity();
+    inputs.appliedVolts = m_pivotMotor.getMotorOutputVoltage();
+    inputs.supplyCurrentAmps = m_pivotMotor.getSupplyCurrent();
+  }
+
+  @Override
+  public void setPosition(double positionCounts) {
+    m_pivotMotor.set(ControlMode.MotionMagic, positionCounts);
+  }
+
+  @Override
+  public void stop() {
+    m_pivotMotor.set(ControlMode.PercentOutput, 0);
+  }
+}
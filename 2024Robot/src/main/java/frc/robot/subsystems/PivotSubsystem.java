@@ -4,66 +4,42 @@
 
 package frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
 import frc.robot.Constants.PivotConstants;
+import frc.robot.util.Blackboard;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
+import frc.robot.util.MotorConfigPipeline;
+import org.littletonrobotics.junction.Logger;
 
 /** Pivot subsystem for controlling the shooter pivot mechanism. */
 public class PivotSubsystem extends SubsystemBase {
-  private final TalonSRX m_pivotMotor;
+  private final PivotIO m_io;
+  private final PivotIOInputsAutoLogged m_inputs = new PivotIOInputsAutoLogged();
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Pivot.periodic");
 
-  /** Creates a new PivotSubsystem. */
-  public PivotSubsystem() {
+  /**
+   * Creates a new PivotSubsystem.
+   *
+   * @param io The pivot hardware, or a blank "do nothing" IO when disabled or replaying
+   */
+  public PivotSubsystem(PivotIO io) {
+    m_io = io;
     if (!PivotConstants.PIVOT_ENABLED) {
-        m_pivotMotor = null;
-        System.out.println("WARNING: Pivot Subsystem is DISABLED in Constants.java");
-        return;
+      System.out.println("WARNING: Pivot Subsystem is DISABLED in Constants.java");
     }
+  }
 
-    m_pivotMotor = new TalonSRX(PivotConstants.MOTOR_ID);
-
-    // OPTIMIZATION: Slow down CAN status frames for data we don't need frequently
-    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, 50); // 50ms (Stall Detection)
-    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, 255);
-    m_pivotMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_13_Base_PIDF0, 100);
-
-    // Configure sensor feedback device
-    m_pivotMotor.configSelectedFeedbackSensor(
-        FeedbackDevice.CTRE_MagEncoder_Relative,
-        PivotConstants.PID_SLOT,
-        PivotConstants.TIMEOUT_MS);
-
-    // Configure sensor and motor inversion
-    m_pivotMotor.setSensorPhase(PivotConstants.SENSOR_PHASE);
-    m_pivotMotor.setInverted(PivotConstants.INVERTED);
-
-    // Configure peak outputs
-    m_pivotMotor.configPeakOutputForward(PivotConstants.PEAK_OUTPUT_FORWARD);
-    m_pivotMotor.configPeakOutputReverse(PivotConstants.PEAK_OUTPUT_REVERSE);
-
-    // Configure PID
-    m_pivotMotor.config_kF(
-        PivotConstants.PID_SLOT, PivotConstants.MOTOR_F, PivotConstants.TIMEOUT_MS);
-    m_pivotMotor.config_kP(
-        PivotConstants.PID_SLOT, PivotConstants.MOTOR_P, PivotConstants.TIMEOUT_MS);
-    m_pivotMotor.config_kI(
-        PivotConstants.PID_SLOT, PivotConstants.MOTOR_I, PivotConstants.TIMEOUT_MS);
-    m_pivotMotor.config_kD(
-        PivotConstants.PID_SLOT, PivotConstants.MOTOR_D, PivotConstants.TIMEOUT_MS);
-
-    // Configure MotionMagic
-    m_pivotMotor.configMotionCruiseVelocity(
-        PivotConstants.MOTION_CRUISE_VELOCITY, PivotConstants.PID_SLOT);
-    m_pivotMotor.configMotionAcceleration(
-        PivotConstants.MOTION_ACCELERATION, PivotConstants.TIMEOUT_MS);
-    m_pivotMotor.configMotionSCurveStrength(PivotConstants.MOTION_S_CURVE_STRENGTH);
+  /** Builds the pivot IO for the real robot, or a "do nothing" IO if it is disabled. */
+  public static PivotIO createHardwareIO() {
+    return PivotConstants.PIVOT_ENABLED ? new PivotIOTalonSRX() : new PivotIO() {};
+  }
 
-    // Zero the sensor
-    m_pivotMotor.setSelectedSensorPosition(0, PivotConstants.PID_SLOT, PivotConstants.TIMEOUT_MS);
+  /** Builds the simulated pivot IO, or a "do nothing" IO if it is disabled. */
+  public static PivotIO createSimIO() {
+    return PivotConstants.PIVOT_ENABLED ? new PivotIOSim() : new PivotIO() {};
   }
 
   /**
@@ -73,7 +49,9 @@ public class PivotSubsystem extends SubsystemBase {
    */
   public void setPosition(double position) {
     if (!PivotConstants.PIVOT_ENABLED) return;
-    m_pivotMotor.set(ControlMode.MotionMagic, position);
+    if (!isReady()) return; // MotionMagic without its gains and limits could go anywhere
+    Logger.recordOutput("Pivot/SetpointCounts", position);
+    m_io.setPosition(position);
   }
 
   /** Moves pivot to shooting high position. */
@@ -91,16 +69,57 @@ public class PivotSubsystem extends SubsystemBase {
     setPosition(PivotConstants.INTAKE_POS);
   }
 
+  /**
+   * Returns true once the pivot motor controller has finished its startup configuration (see
+   * {@link MotorConfigPipeline}). Setpoints are ignored until then.
+   */
+  public boolean isReady() {
+    return MotorConfigPipeline.isReady(PivotIOTalonSRX.NAME);
+  }
+
   /** Stops the pivot motor. */
   public void stop() {
     if (!PivotConstants.PIVOT_ENABLED) return;
-    m_pivotMotor.set(ControlMode.PercentOutput, 0);
+    m_io.stop();
   }
 
-  /** Returns the current pivot position in encoder counts. */
+  /**
+   * Returns the pivot position in encoder counts from this loop's sensor snapshot.
+   *
+   * <p>This never talks to the motor controller. The sensor is read once in {@link #periodic()}.
+   */
   public double getPosition() {
     if (!PivotConstants.PIVOT_ENABLED) return 0.0;
-    return m_pivotMotor.getSelectedSensorPosition();
+    return m_inputs.positionCounts;
+  }
+
+  /** Returns the pivot supply current (Amps, this loop). */
+  public double getCurrent() {
+    if (!PivotConstants.PIVOT_ENABLED) return 0.0;
+    return m_inputs.supplyCurrentAmps;
+  }
+
+  /** Returns the loop time (seconds) of the last pivot read without an error. */
+  public double getLastGoodReadTimestamp() {
+    return m_inputs.lastGoodReadTimestamp;
+  }
+
+  /**
+   * Returns seconds since the last pivot read without an error: 0 while the Talon answers, then
+   * growing a loop at a time. Uses the logged loop time, so replay gets the same answer.
+   */
+  public double getPositionAge() {
+    return Logger.getTimestamp() / 1e6 - m_inputs.lastGoodReadTimestamp;
+  }
+
+  /**
+   * Returns true if no read has worked for longer than {@link PivotConstants#MAX_SNAPSHOT_AGE}
+   * (the Talon stopped sending frames, or it's off the bus). A slow but working frame rate isn't
+   * stale: Phoenix 5 can't tell us how old a good frame is.
+   */
+  public boolean isPositionStale() {
+    if (!PivotConstants.PIVOT_ENABLED) return false;
+    return getPositionAge() > PivotConstants.MAX_SNAPSHOT_AGE;
   }
 
   /** Returns true if the pivot is at the shooting high position. */
@@ -124,9 +143,30 @@ public class PivotSubsystem extends SubsystemBase {
         < PivotConstants.POSITION_TOLERANCE;
   }
 
+  /**
+   * Speeds up the status frames this mode needs and slows down the rest. Called by Robot when the
+   * mode changes.
+   */
+  public void setFrameProfile(FrameProfile profile) {
+    m_io.setFrameProfile(profile);
+  }
+
   @Override
   public void periodic() {
-    // This method will be called once per scheduler run
+    m_periodicTimer.start();
+
+    // Read the pivot sensors ONCE per loop, then log them
+    // (every reader in the same loop sees the same snapshot, so decisions made by different
+    // commands can never disagree about where the pivot is)
+    m_io.updateInputs(m_inputs);
+    Logger.processInputs("Pivot", m_inputs);
+    Logger.recordOutput("Pivot/PositionAgeSeconds", getPositionAge());
+
+    // Post for the other subsystems and commands
+    Blackboard.PIVOT_POSITION.set(getPosition());
+    Blackboard.PIVOT_VELOCITY.set(m_inputs.velocityCountsPer100ms * 10.0);
+
+    LoopProfiler.stop(m_periodicTimer);
   }
 
   // ==================== Command Factories ====================
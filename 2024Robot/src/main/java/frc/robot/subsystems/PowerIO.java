@@ -0,0 +1,25 @@
+package frc.robot.subsystems;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * PowerIO is the "Universal Remote" for the battery readings the power manager needs.
+ *
+ * <p>The motor currents already come in through each subsystem's own IO; this is just the
+ * roboRIO's side. Keeping it behind an interface means the power manager makes the same choices
+ * in log replay as it did in the match.
+ */
+public interface PowerIO {
+  /** What the roboRIO can tell us about the battery. Filled in once per loop. */
+  @AutoLog
+  public static class PowerIOInputs {
+    /** Battery voltage at the roboRIO. */
+    public double batteryVolts = 12.0;
+
+    /** True if the roboRIO has cut motor outputs because the battery dropped too low. */
+    public boolean brownedOut = false;
+  }
+
+  /** Reads the latest battery values into the reusable inputs object. */
+  public default void updateInputs(PowerIOInputs inputs) {}
+}
@@ -0,0 +1,12 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/** Battery readings from the roboRIO (also works in simulation, where the battery is ideal). */
+public class PowerIORoboRIO implements PowerIO {
+  @Override
+  public void updateInputs(PowerIOInputs inputs) {
+    inputs.batteryVolts = RobotController.getBatteryVoltage();
+    inputs.brownedOut = RobotController.isBrownedOut();
+  }
+}
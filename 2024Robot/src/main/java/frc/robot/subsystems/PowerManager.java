@@ -0,0 +1,167 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.DiagnosticsConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.PowerConstants;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Keeps the battery from browning out by sharing a current budget between the motors.
+ *
+ * <p>When the battery sags below 6.8 V the roboRIO turns every motor off, and the loop and CAN bus
+ * struggle with it. That happens in pushing matches, with four drive motors stalled against
+ * another robot while the flywheel spins up. So every loop:
+ *
+ * <ol>
+ *   <li>Estimate the battery's open-circuit voltage from what it reads under the current load
+ *       (volts = open-circuit volts - current x resistance).
+ *   <li>Work out the most current it can give before dropping to {@link
+ *       PowerConstants#MIN_BATTERY_VOLTS}. That's the budget.
+ *   <li>Pivot and feeder always get their (small) limits. Drive and flywheel share the rest: the
+ *       flywheel goes first while it has a speed to hold (aiming or firing), otherwise drive does.
+ * </ol>
+ *
+ * <p>Limits are supply current limits on the motor controllers. Changing one is a config write
+ * on the CAN bus, so they move in {@link PowerConstants#LIMIT_STEP_AMPS} steps, go down right
+ * away and come back up slowly.
+ */
+public class PowerManager extends SubsystemBase {
+  private final PowerIO m_io;
+  private final PowerIOInputsAutoLogged m_inputs = new PowerIOInputsAutoLogged();
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Power.periodic");
+
+  private final DriveSubsystem m_drive;
+  private final ShooterSubsystem m_shooter;
+  private final PivotSubsystem m_pivot;
+
+  private final LinearFilter m_openCircuitFilter =
+      LinearFilter.singlePoleIIR(
+          PowerConstants.OPEN_CIRCUIT_FILTER_SECONDS, DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+  private final ScheduledLimit m_driveLimit = new ScheduledLimit();
+  private final ScheduledLimit m_shooterLimit = new ScheduledLimit();
+
+  /**
+   * @param io Battery readings, or a blank "do nothing" IO when replaying
+   */
+  public PowerManager(
+      PowerIO io, DriveSubsystem drive, ShooterSubsystem shooter, PivotSubsystem pivot) {
+    m_io = io;
+    m_drive = drive;
+    m_shooter = shooter;
+    m_pivot = pivot;
+    if (!PowerConstants.POWER_MANAGER_ENABLED) {
+      System.out.println("WARNING: Power Manager is DISABLED in Constants.java");
+    }
+  }
+
+  @Override
+  public void periodic() {
+    m_periodicTimer.start();
+
+    m_io.updateInputs(m_inputs);
+    Logger.processInputs("Power", m_inputs);
+    if (!PowerConstants.POWER_MANAGER_ENABLED) {
+      LoopProfiler.stop(m_periodicTimer);
+      return;
+    }
+
+    // Everything we can measure, plus the electronics we can't
+    double totalAmps =
+        m_drive.getTotalCurrent()
+            + m_shooter.getShooterCurrent()
+            + m_shooter.getFeederCurrent()
+            + m_pivot.getCurrent()
+            + PowerConstants.BASE_CURRENT_AMPS;
+    double resistance = PowerConstants.BATTERY_RESISTANCE_OHMS;
+    double openCircuitVolts =
+        m_openCircuitFilter.calculate(m_inputs.batteryVolts + totalAmps * resistance);
+
+    // The most the battery can give before sagging to the minimum
+    double budgetAmps =
+        MathUtil.clamp(
+            (openCircuitVolts - PowerConstants.MIN_BATTERY_VOLTS) / resistance,
+            0.0,
+            PowerConstants.MAX_TOTAL_CURRENT_AMPS);
+    double sharedAmps =
+        budgetAmps
+            - PowerConstants.BASE_CURRENT_AMPS
+            - PowerConstants.PIVOT_CURRENT_LIMIT
+            - PowerConstants.FEEDER_CURRENT_LIMIT;
+
+    // Drive and flywheel split the rest; whoever goes second gets what's left (but never below
+    // its minimum, so it can still move)
+    double driveMin = 4 * PowerConstants.DRIVE_MIN_CURRENT_LIMIT;
+    double driveMax = 4 * DriveConstants.DRIVE_CURRENT_LIMIT;
+    double shooterMin = PowerConstants.SHOOTER_MIN_CURRENT_LIMIT;
+    double shooterMax = PowerConstants.SHOOTER_MAX_CURRENT_LIMIT;
+    boolean flywheelFirst = m_shooter.hasVelocityTarget();
+    double shooterAmps;
+    double driveAmps;
+    if (flywheelFirst) {
+      shooterAmps = MathUtil.clamp(sharedAmps - driveMin, shooterMin, shooterMax);
+      driveAmps = MathUtil.clamp(sharedAmps - shooterAmps, driveMin, driveMax);
+    } else {
+      driveAmps = MathUtil.clamp(sharedAmps - shooterMin, driveMin, driveMax);
+      shooterAmps = MathUtil.clamp(sharedAmps - driveAmps, shooterMin, shooterMax);
+    }
+
+    // Where the battery would end up if every motor pulled its whole limit at once
+    double worstCaseAmps =
+        PowerConstants.BASE_CURRENT_AMPS
+            + PowerConstants.PIVOT_CURRENT_LIMIT
+            + PowerConstants.FEEDER_CURRENT_LIMIT
+            + driveAmps
+            + shooterAmps;
+    Logger.recordOutput("Power/TotalCurrentAmps", totalAmps);
+    Logger.recordOutput("Power/OpenCircuitVolts", openCircuitVolts);
+    Logger.recordOutput("Power/BudgetAmps", budgetAmps);
+    Logger.recordOutput("Power/WorstCaseVolts", openCircuitVolts - worstCaseAmps * resistance);
+    Logger.recordOutput("Power/FlywheelFirst", flywheelFirst);
+
+    // Only counts as sent once the motor controllers are configured (they'd overwrite it).
+    // The logged loop time keeps replay sending the limits on the same loops.
+    double now = Logger.getTimestamp() / 1e6;
+    double driveLimit = m_driveLimit.next(driveAmps / 4, now);
+    if (!Double.isNaN(driveLimit) && m_drive.isReady()) {
+      m_drive.setCurrentLimit(driveLimit);
+      m_driveLimit.sent(driveLimit, now);
+    }
+    double shooterLimit = m_shooterLimit.next(shooterAmps, now);
+    if (!Double.isNaN(shooterLimit) && m_shooter.isReady()) {
+      m_shooter.setShooterCurrentLimit(shooterLimit);
+      m_shooterLimit.sent(shooterLimit, now);
+    }
+
+    LoopProfiler.stop(m_periodicTimer);
+  }
+
+  /** One limit that changes: in whole steps, lowered right away, raised at most so often. */
+  private static final class ScheduledLimit {
+    private double m_sent = Double.NaN;
+    private double m_lastChangeTime = Double.NEGATIVE_INFINITY;
+
+    /** Returns the limit to send now, or NaN to leave it alone. */
+    double next(double wantedAmps, double now) {
+      double stepped =
+          Math.floor(wantedAmps / PowerConstants.LIMIT_STEP_AMPS) * PowerConstants.LIMIT_STEP_AMPS;
+      if (stepped == m_sent) {
+        return Double.NaN;
+      }
+      boolean raising = !Double.isNaN(m_sent) && stepped > m_sent;
+      if (raising && now - m_lastChangeTime < PowerConstants.LIMIT_RAISE_PERIOD) {
+        return Double.NaN;
+      }
+      return stepped;
+    }
+
+    void sent(double amps, double now) {
+      m_sent = amps;
+      m_lastChangeTime = now;
+    }
+  }
+}
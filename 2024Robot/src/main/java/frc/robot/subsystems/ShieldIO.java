@@ -0,0 +1,42 @@
+package frc.robot.subsystems;
+
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * ShieldIO is the "Universal Remote" for the intake shield.
+ *
+ * <p>Every method has a "do nothing" default, so a disabled shield is simply {@code new
+ * ShieldIO() {}} instead of a null motor.
+ */
+public interface ShieldIO {
+  /** Everything the shield can tell us. Filled in once per loop. */
+  @AutoLog
+  public static class ShieldIOInputs {
+    /** Shield position in encoder counts. */
+    public double positionCounts = 0.0;
+
+    /** Voltage the motor is actually applying. */
+    public double appliedVolts = 0.0;
+
+    /** Current the motor is drawing from the battery in Amps. */
+    public double supplyCurrentAmps = 0.0;
+  }
+
+  /** Reads the latest shield values into the reusable inputs object. */
+  public default void updateInputs(ShieldIOInputs inputs) {}
+
+  /**
+   * Drives the shield to a position using the Talon's position PID.
+   *
+   * @param positionCounts Target position in encoder counts
+   */
+  public default void setPosition(double positionCounts) {}
+
+  /**
+   * Changes how often the shield sends its status frames (see {@link FrameProfile}).
+   *
+   * @param profile Frame rates for the mode the robot just entered
+   */
+  public default void setFrameProfile(FrameProfile profile) {}
+}
@@ -0,0 +1,101 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.ShieldConstants;
+import frc.robot.util.MotorConfigPipeline;
+
+/** Hardware implementation for the TalonSRX shield with a CTRE Mag Encoder. */
+public class ShieldIOTalonSRX implements ShieldIO {
+  /** Name of the shield in {@link MotorConfigPipeline}. */
+  public static final String NAME = "Shield";
+
+  private final TalonSRX m_shieldMotor;
+
+  // The robot mode's frame rates. Configuration runs in the background and can finish after a
+  // mode change, so it applies this (not the startup rates) at the end. Guarded by this.
+  private FrameProfile m_frameProfile = CanBusConstants.STARTUP_PROFILE;
+
+  public ShieldIOTalonSRX() {
+    m_shieldMotor = new TalonSRX(ShieldConstants.MOTOR_ID);
+
+    // The slow config calls run in the background (see MotorConfigPipeline)
+    MotorConfigPipeline.submit(NAME, this::configure);
+  }
+
+  /** Applies every shield setting. Returns true if settings were written to flash. */
+  private boolean configure() {
+    // Starts from factory defaults, like configFactoryDefault() did
+    TalonSRXConfiguration config = new TalonSRXConfiguration();
+
+    // Configure sensor feedback device
+    config.primaryPID.selectedFeedbackSensor = FeedbackDevice.CTRE_MagEncoder_Relative;
+
+    // Configure peak outputs
+    config.peakOutputForward = ShieldConstants.PEAK_OUTPUT_FORWARD;
+    config.peakOutputReverse = ShieldConstants.PEAK_OUTPUT_REVERSE;
+
+    // Configure PID
+    config.slot0.kF = ShieldConstants.MOTOR_F;
+    config.slot0.kP = ShieldConstants.MOTOR_P;
+    config.slot0.kI = ShieldConstants.MOTOR_I;
+    config.slot0.kD = ShieldConstants.MOTOR_D;
+
+    // Only written if the Talon doesn't already have these settings
+    boolean changed = MotorConfigPipeline.applyIfChanged(m_shieldMotor, config);
+
+    // Configure sensor and motor inversion (not saved on the Talon, so always set)
+    m_shieldMotor.setSensorPhase(ShieldConstants.SENSOR_PHASE);
+    m_shieldMotor.setInverted(ShieldConstants.INVERTED);
+
+    // OPTIMIZATION: Slow down CAN status frames for data we don't need frequently
+    // (the frames we read change with the robot mode, see setFrameProfile)
+    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, CanBusConstants.MECHANISM_MISC_MS);
+
+    // Set initial position
+    MotorConfigPipeline.check(
+        m_shieldMotor.setSelectedSensorPosition(
+            ShieldConstants.INITIAL_POSITION, ShieldConstants.PID_SLOT, ShieldConstants.TIMEOUT_MS),
+        "Shield setSelectedSensorPosition");
+
+    // Last, so a mode change while configuring isn't undone
+    synchronized (this) {
+      applyFrameProfile(m_frameProfile);
+    }
+    return changed;
+  }
+
+  @Override
+  public void updateInputs(ShieldIOInputs inputs) {
+    inputs.positionCounts = m_shieldMotor.getSelectedSensorPosition();
+    inputs.appliedVolts = m_shieldMotor.getMotorOutputVoltage();
+    inputs.supplyCurrentAmps = m_shieldMotor.getSupplyCurrent();
+  }
+
+  @Override
+  public synchronized void setFrameProfile(FrameProfile profile) {
+    m_frameProfile = profile;
+    applyFrameProfile(profile);
+  }
+
+  private void applyFrameProfile(FrameProfile profile) {
+    // Timeout 0 = don't wait for the Talon to answer, so a mode change never stalls the loop
+    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.generalMs, 0);
+    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, profile.mechanismFeedbackMs, 0);
+    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.ainMs, 0);
+    m_shieldMotor.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_10_MotionMagic, profile.mechanismClosedLoopMs, 0);
+    m_shieldMotor.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_13_Base_PIDF0, profile.mechanismClosedLoopMs, 0);
+  }
+
+  @Override
+  public void setPosition(double positionCounts) {
+    m_shieldMotor.set(ControlMode.Position, positionCounts);
+  }
+}
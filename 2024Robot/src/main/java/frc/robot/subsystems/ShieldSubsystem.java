@@ -4,64 +4,38 @@
 
 package frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
 import frc.robot.Constants.ShieldConstants;
+import frc.robot.util.Blackboard;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
+import frc.robot.util.MotorConfigPipeline;
+import org.littletonrobotics.junction.Logger;
 
 /** Shield subsystem for controlling the intake shield mechanism. */
 public class ShieldSubsystem extends SubsystemBase {
-  // If SHIELD_ENABLED is false, this remains null to save resources.
-  private final TalonSRX m_shieldMotor;
+  // If SHIELD_ENABLED is false, this is a "do nothing" IO to save resources.
+  private final ShieldIO m_io;
+  private final ShieldIOInputsAutoLogged m_inputs = new ShieldIOInputsAutoLogged();
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Shield.periodic");
 
-  /** Creates a new ShieldSubsystem. */
-  public ShieldSubsystem() {
+  /**
+   * Creates a new ShieldSubsystem.
+   *
+   * @param io The shield hardware, or a blank "do nothing" IO when disabled or replaying
+   */
+  public ShieldSubsystem(ShieldIO io) {
+    m_io = io;
     if (!ShieldConstants.SHIELD_ENABLED) {
-      m_shieldMotor = null;
       System.out.println("WARNING: Shield Subsystem is DISABLED in Constants.java");
-      return;
     }
+  }
 
-    m_shieldMotor = new TalonSRX(ShieldConstants.MOTOR_ID);
-
-    // Factory default first
-    m_shieldMotor.configFactoryDefault();
-
-    // OPTIMIZATION: Slow down CAN status frames for data we don't need frequently
-    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, 50); // 50ms (Stall Detection)
-    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, 255);
-    m_shieldMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_13_Base_PIDF0, 100);
-
-    // Configure sensor feedback device
-    m_shieldMotor.configSelectedFeedbackSensor(
-        FeedbackDevice.CTRE_MagEncoder_Relative,
-        ShieldConstants.PID_SLOT,
-        ShieldConstants.TIMEOUT_MS);
-
-    // Configure sensor and motor inversion
-    m_shieldMotor.setSensorPhase(ShieldConstants.SENSOR_PHASE);
-    m_shieldMotor.setInverted(ShieldConstants.INVERTED);
-
-    // Configure peak outputs
-    m_shieldMotor.configPeakOutputForward(ShieldConstants.PEAK_OUTPUT_FORWARD);
-    m_shieldMotor.configPeakOutputReverse(ShieldConstants.PEAK_OUTPUT_REVERSE);
-
-    // Configure PID
-    m_shieldMotor.config_kF(
-        ShieldConstants.PID_SLOT, ShieldConstants.MOTOR_F, ShieldConstants.TIMEOUT_MS);
-    m_shieldMotor.config_kP(
-        ShieldConstants.PID_SLOT, ShieldConstants.MOTOR_P, ShieldConstants.TIMEOUT_MS);
-    m_shieldMotor.config_kI(
-        ShieldConstants.PID_SLOT, ShieldConstants.MOTOR_I, ShieldConstants.TIMEOUT_MS);
-    m_shieldMotor.config_kD(
-        ShieldConstants.PID_SLOT, ShieldConstants.MOTOR_D, ShieldConstants.TIMEOUT_MS);
-
-    // Set initial position
-    m_shieldMotor.setSelectedSensorPosition(
-        ShieldConstants.INITIAL_POSITION, ShieldConstants.PID_SLOT, ShieldConstants.TIMEOUT_MS);
+  /** Builds the shield IO for the real robot, or a "do nothing" IO if it is disabled. */
+  public static ShieldIO createHardwareIO() {
+    return ShieldConstants.SHIELD_ENABLED ? new ShieldIOTalonSRX() : new ShieldIO() {};
   }
 
   /**
@@ -71,7 +45,17 @@ public class ShieldSubsystem extends SubsystemBase {
    */
   public void setPosition(double position) {
     if (!ShieldConstants.SHIELD_ENABLED) return;
-    m_shieldMotor.set(ControlMode.Position, position);
+    if (!isReady()) return; // Position PID without its gains could go anywhere
+    Logger.recordOutput("Shield/SetpointCounts", position);
+    m_io.setPosition(position);
+  }
+
+  /**
+   * Returns true once the shield motor controller has finished its startup configuration (see
+   * {@link MotorConfigPipeline}). Setpoints are ignored until then.
+   */
+  public boolean isReady() {
+    return MotorConfigPipeline.isReady(ShieldIOTalonSRX.NAME);
   }
 
   /** Moves shield to down position. */
@@ -89,10 +73,10 @@ public class ShieldSubsystem extends SubsystemBase {
     setPosition(ShieldConstants.UP_POS);
   }
 
-  /** Returns the current shield position. */
+  /** Returns the current shield position (sampled once per loop). */
   public double getPosition() {
     if (!ShieldConstants.SHIELD_ENABLED) return 0.0;
-    return m_shieldMotor.getSelectedSensorPosition();
+    return m_inputs.positionCounts;
   }
 
   /** Returns true if the shield is at the down position. */
@@ -113,9 +97,24 @@ public class ShieldSubsystem extends SubsystemBase {
     return Math.abs(getPosition() - ShieldConstants.UP_POS) < 1.0;
   }
 
+  /**
+   * Speeds up the status frames this mode needs and slows down the rest. Called by Robot when the
+   * mode changes.
+   */
+  public void setFrameProfile(FrameProfile profile) {
+    m_io.setFrameProfile(profile);
+  }
+
   @Override
   public void periodic() {
-    // This method will be called once per scheduler run
+    m_periodicTimer.start();
+
+    // Read the shield sensors ONCE per loop, then log them
+    m_io.updateInputs(m_inputs);
+    Logger.processInputs("Shield", m_inputs);
+    Blackboard.SHIELD_POSITION.set(getPosition());
+
+    LoopProfiler.stop(m_periodicTimer);
   }
 
   // ==================== Command Factories ====================
@@ -0,0 +1,90 @@
+package frc.robot.subsystems;
+
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * ShooterIO is the "Universal Remote" for the flywheel and the feeder.
+ *
+ * <p>Every method has a "do nothing" default, so a disabled shooter is simply {@code new
+ * ShooterIO() {}} instead of null motors.
+ */
+public interface ShooterIO {
+  /** Everything the shooter and feeder can tell us. Filled in once per loop. */
+  @AutoLog
+  public static class ShooterIOInputs {
+    /** True if the last batch of flywheel signals arrived without errors. */
+    public boolean shooterConnected = false;
+
+    /**
+     * Flywheel velocity in rotations per second, projected forward from the CAN frame's timestamp
+     * to when it was read (latency-compensated using the acceleration).
+     */
+    public double shooterVelocityRps = 0.0;
+
+    /** Flywheel acceleration in rotations per second squared. */
+    public double shooterAccelerationRpsPerSec = 0.0;
+
+    /** When the flywheel velocity was measured (FPGA seconds, from the CAN timestamp). */
+    public double shooterVelocityTimestamp = 0.0;
+
+    /** Voltage the flywheel motor is actually applying. */
+    public double shooterAppliedVolts = 0.0;
+
+    /** Current the flywheel motor is drawing from the battery in Amps. */
+    public double shooterSupplyCurrentAmps = 0.0;
+
+    /** Current through the flywheel motor windings in Amps. */
+    public double shooterStatorCurrentAmps = 0.0;
+
+    /** Flywheel motor temperature in Celsius. */
+    public double shooterTempCelsius = 0.0;
+
+    /** Voltage the feeder motor is actually applying. */
+    public double feederAppliedVolts = 0.0;
+
+    /** Current the feeder motor is drawing from the battery in Amps. */
+    public double feederSupplyCurrentAmps = 0.0;
+
+    /** Current through the feeder motor windings in Amps (what note and jam detection use). */
+    public double feederStatorCurrentAmps = 0.0;
+  }
+
+  /** Reads the latest shooter values into the reusable inputs object. */
+  public default void updateInputs(ShooterIOInputs inputs) {}
+
+  /**
+   * Runs the flywheel open loop.
+   *
+   * @param speed Speed to spin (-1.0 to 1.0)
+   */
+  public default void setShooterSpeed(double speed) {}
+
+  /**
+   * Runs the flywheel closed loop at a velocity.
+   *
+   * @param velocityRps Target velocity in rotations per second
+   */
+  public default void setShooterVelocity(double velocityRps) {}
+
+  /**
+   * Runs the feeder open loop.
+   *
+   * @param speed Speed to run (-1.0 to 1.0)
+   */
+  public default void setFeederSpeed(double speed) {}
+
+  /**
+   * Caps how much current the flywheel can draw from the battery (see PowerManager).
+   *
+   * @param amps Supply current limit
+   */
+  public default void setShooterCurrentLimit(double amps) {}
+
+  /**
+   * Changes how often the shooter sends its status frames (see {@link FrameProfile}).
+   *
+   * @param profile Frame rates for the mode the robot just entered
+   */
+  public default void setFrameProfile(FrameProfile profile) {}
+}
@@ -0,0 +1,86 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.Constants.DiagnosticsConstants;
+import frc.robot.Constants.ShooterConstants;
+
+/**
+ * Physics simulation of the shooter, so spin-up time shows up in desktop autos.
+ *
+ * <p>The flywheel (TalonFX) and the feeder (TalonSRX) are WPILib {@link FlywheelSim}s driven
+ * by voltage. Velocity control uses the same gains as the TalonFX.
+ */
+public class ShooterIOSim implements ShooterIO {
+  private final DCMotor m_shooterMotor = DCMotor.getFalcon500(1);
+  private final DCMotor m_feederMotor = DCMotor.getCIM(1);
+  private final FlywheelSim m_shooterSim =
+      new FlywheelSim(
+          LinearSystemId.createFlywheelSystem(
+              m_shooterMotor, ShooterConstants.SIM_FLYWHEEL_INERTIA, 1.0),
+          m_shooterMotor);
+  private final FlywheelSim m_feederSim =
+      new FlywheelSim(
+          LinearSystemId.createFlywheelSystem(
+              m_feederMotor, ShooterConstants.SIM_FEEDER_INERTIA, 1.0),
+          m_feederMotor);
+
+  private double m_shooterVolts = 0.0;
+  private double m_feederVolts = 0.0;
+  private boolean m_velocityControl = false;
+  private double m_targetRps = 0.0;
+  private double m_lastVelocityRps = 0.0;
+
+  @Override
+  public void updateInputs(ShooterIOInputs inputs) {
+    if (m_velocityControl) {
+      // Same feedforward + P as the TalonFX's Slot 0
+      double velocityRps = m_shooterSim.getAngularVelocityRPM() / 60.0;
+      m_shooterVolts =
+          MathUtil.clamp(
+              Math.signum(m_targetRps) * ShooterConstants.SHOOTER_KS
+                  + ShooterConstants.SHOOTER_KV * m_targetRps
+                  + ShooterConstants.SHOOTER_KP * (m_targetRps - velocityRps),
+              -12.0,
+              12.0);
+    }
+    m_shooterSim.setInputVoltage(m_shooterVolts);
+    m_shooterSim.update(DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+    m_feederSim.setInputVoltage(m_feederVolts);
+    m_feederSim.update(DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+
+    inputs.shooterConnected = true;
+    inputs.shooterVelocityRps = m_shooterSim.getAngularVelocityRPM() / 60.0;
+    inputs.shooterAccelerationRpsPerSec =
+        (inputs.shooterVelocityRps - m_lastVelocityRps) / DiagnosticsConstants.LOOP_PERIOD_SECONDS;
+    inputs.shooterVelocityTimestamp = Timer.getFPGATimestamp();
+    m_lastVelocityRps = inputs.shooterVelocityRps;
+    inputs.shooterAppliedVolts = m_shooterVolts;
+    inputs.shooterSupplyCurrentAmps = Math.abs(m_shooterSim.getCurrentDrawAmps());
+    inputs.shooterStatorCurrentAmps = inputs.shooterSupplyCurrentAmps;
+    inputs.shooterTempCelsius = 25.0;
+    inputs.feederAppliedVolts = m_feederVolts;
+    inputs.feederSupplyCurrentAmps = Math.abs(m_feederSim.getCurrentDrawAmps());
+    inputs.feederStatorCurrentAmps = inputs.feederSupplyCurrentAmps;
+  }
+
+  @Override
+  public void setShooterSpeed(double speed) {
+    m_velocityControl = false;
+    m_shooterVolts = speed * 12.0;
+  }
+
+  @Override
+  public void setShooterVelocity(double velocityRps) {
+    m_velocityControl = true;
+    m_targetRps = velocityRps;
+  }
+
+  @Override
+  public void setFeederSpeed(double speed) {
+    m_feederVolts = speed * 12.0;
+  }
+}
@@ -0,0 +1,212 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import edu.wpi.first.units.measure.AngularAcceleration;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Temperature;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.PowerConstants;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.util.MotorConfigPipeline;
+
+/** Hardware implementation for the TalonFX flywheel and the TalonSRX feeder. */
+public class ShooterIOTalon implements ShooterIO {
+  /** Names of the two motors in {@link MotorConfigPipeline}. */
+  public static final String SHOOTER_NAME = "Shooter";
+  public static final String FEEDER_NAME = "Feeder";
+
+  private final TalonFX m_shooterMotor;
+  private final TalonSRX m_feederMotor;
+
+  // Phoenix 6 signals we log. Kept as fields so reading them never looks them up again.
+  private final StatusSignal<AngularVelocity> m_shooterVelocity;
+  private final StatusSignal<AngularAcceleration> m_shooterAcceleration;
+  private final StatusSignal<Voltage> m_shooterAppliedVolts;
+  private final StatusSignal<Current> m_shooterSupplyCurrent;
+  private final StatusSignal<Current> m_shooterStatorCurrent;
+  private final StatusSignal<Temperature> m_shooterTemp;
+
+  // Every flywheel signal, refreshed together in one call each loop
+  private final BaseStatusSignal[] m_shooterSignals;
+
+  // Reused control request (no new objects every loop)
+  private final VelocityVoltage m_velocityRequest = new VelocityVoltage(0).withSlot(0);
+
+  // Reused for PowerManager's limit changes
+  private final CurrentLimitsConfigs m_currentLimits = new CurrentLimitsConfigs();
+
+  // The robot mode's frame rates. Configuration runs in the background and can finish after a
+  // mode change, so it applies this (not the startup rates) at the end. Guarded by this.
+  private FrameProfile m_frameProfile = CanBusConstants.STARTUP_PROFILE;
+
+  public ShooterIOTalon() {
+    m_shooterMotor = new TalonFX(ShooterConstants.SHOOTER_MOTOR_ID);
+    m_feederMotor = new TalonSRX(ShooterConstants.FEEDER_MOTOR_ID);
+
+    m_shooterVelocity = m_shooterMotor.getVelocity();
+    m_shooterAcceleration = m_shooterMotor.getAcceleration();
+    m_shooterAppliedVolts = m_shooterMotor.getMotorVoltage();
+    m_shooterSupplyCurrent = m_shooterMotor.getSupplyCurrent();
+    m_shooterStatorCurrent = m_shooterMotor.getStatorCurrent();
+    m_shooterTemp = m_shooterMotor.getDeviceTemp();
+    m_shooterSignals =
+        new BaseStatusSignal[] {
+          m_shooterVelocity,
+          m_shooterAcceleration,
+          m_shooterAppliedVolts,
+          m_shooterSupplyCurrent,
+          m_shooterStatorCurrent,
+          m_shooterTemp
+        };
+
+    // The slow config calls run in the background (see MotorConfigPipeline)
+    MotorConfigPipeline.submit(SHOOTER_NAME, this::configureShooter);
+    MotorConfigPipeline.submit(FEEDER_NAME, this::configureFeeder);
+  }
+
+  /** Configures the flywheel TalonFX (Phoenix 6). Returns true if settings were written. */
+  private boolean configureShooter() {
+    TalonFXConfiguration shooterConfig = new TalonFXConfiguration();
+    shooterConfig.MotorOutput.Inverted =
+        ShooterConstants.SHOOTER_INVERTED
+            ? InvertedValue.Clockwise_Positive
+            : InvertedValue.CounterClockwise_Positive;
+    shooterConfig.Slot0.kS = ShooterConstants.SHOOTER_KS;
+    shooterConfig.Slot0.kV = ShooterConstants.SHOOTER_KV;
+    shooterConfig.Slot0.kP = ShooterConstants.SHOOTER_KP;
+    shooterConfig.CurrentLimits.SupplyCurrentLimit = PowerConstants.SHOOTER_MAX_CURRENT_LIMIT;
+    shooterConfig.CurrentLimits.SupplyCurrentLimitEnable = true;
+
+    // Only write if the motor doesn't already have these settings
+    // (if the read fails we can't trust the comparison, so write)
+    TalonFXConfiguration currentConfig = new TalonFXConfiguration();
+    StatusCode read =
+        m_shooterMotor
+            .getConfigurator()
+            .refresh(currentConfig, CanBusConstants.CONFIG_TIMEOUT_MS / 1000.0);
+    boolean changed =
+        !read.isOK() || !MotorConfigPipeline.configsMatch(shooterConfig, currentConfig);
+    if (changed) {
+      MotorConfigPipeline.check(
+          m_shooterMotor
+              .getConfigurator()
+              .apply(shooterConfig, CanBusConstants.CONFIG_TIMEOUT_MS / 1000.0),
+          "Shooter apply");
+    }
+
+    // Temperature is slow. Velocity, acceleration (used to latency-compensate the velocity),
+    // voltage and current change with the robot mode (see setFrameProfile).
+    m_shooterTemp.setUpdateFrequency(CanBusConstants.SHOOTER_TEMPERATURE_FREQUENCY);
+    // (the current mode's rates, in case it changed while configuring)
+    synchronized (this) {
+      applyShooterProfile(m_frameProfile);
+    }
+
+    // OPTIMIZATION: Automatically throttle down CAN signals we aren't using (feedback, etc.)
+    // Must come after every signal we use has been given a rate.
+    m_shooterMotor.optimizeBusUtilization();
+    return changed;
+  }
+
+  /** Configures the feeder TalonSRX (Phoenix 5). Returns true if settings were written. */
+  private boolean configureFeeder() {
+    // Factory defaults plus a continuous current limit (peak 0 = continuous limit only),
+    // written only if the feeder has something else
+    TalonSRXConfiguration feederConfig = new TalonSRXConfiguration();
+    feederConfig.continuousCurrentLimit = (int) PowerConstants.FEEDER_CURRENT_LIMIT;
+    feederConfig.peakCurrentLimit = 0;
+    boolean changed = MotorConfigPipeline.applyIfChanged(m_feederMotor, feederConfig);
+    m_feederMotor.setInverted(ShooterConstants.FEEDER_INVERTED);
+    m_feederMotor.enableCurrentLimit(true);
+
+    // OPTIMIZATION: Slow down all status frames for the feeder since we don't need feedback
+    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, CanBusConstants.FEEDER_FEEDBACK_MS);
+    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, CanBusConstants.FEEDER_MISC_MS);
+    synchronized (this) {
+      applyFeederProfile(m_frameProfile); // Current mode's rates, like the flywheel
+    }
+    return changed;
+  }
+
+  @Override
+  public synchronized void setFrameProfile(FrameProfile profile) {
+    m_frameProfile = profile;
+    applyShooterProfile(profile);
+    applyFeederProfile(profile);
+  }
+
+  private void applyShooterProfile(FrameProfile profile) {
+    // Timeout 0 = don't wait for the motor to answer, so a mode change never stalls the loop
+    m_shooterVelocity.setUpdateFrequency(profile.shooterVelocityHz, 0);
+    m_shooterAcceleration.setUpdateFrequency(profile.shooterVelocityHz, 0);
+    m_shooterAppliedVolts.setUpdateFrequency(profile.shooterElectricalHz, 0);
+    m_shooterSupplyCurrent.setUpdateFrequency(profile.shooterElectricalHz, 0);
+    m_shooterStatorCurrent.setUpdateFrequency(profile.shooterElectricalHz, 0);
+  }
+
+  private void applyFeederProfile(FrameProfile profile) {
+    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.feederGeneralMs, 0);
+    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.ainMs, 0);
+  }
+
+  @Override
+  public void updateInputs(ShooterIOInputs inputs) {
+    // One call refreshes every flywheel signal together
+    inputs.shooterConnected = BaseStatusSignal.refreshAll(m_shooterSignals).isOK();
+
+    // The velocity frame is a few ms old by now; project it forward using the acceleration
+    inputs.shooterVelocityRps =
+        BaseStatusSignal.getLatencyCompensatedValueAsDouble(
+            m_shooterVelocity, m_shooterAcceleration);
+    inputs.shooterAccelerationRpsPerSec = m_shooterAcceleration.getValueAsDouble();
+    inputs.shooterVelocityTimestamp =
+        Timer.getFPGATimestamp() - m_shooterVelocity.getTimestamp().getLatency();
+
+    inputs.shooterAppliedVolts = m_shooterAppliedVolts.getValueAsDouble();
+    inputs.shooterSupplyCurrentAmps = m_shooterSupplyCurrent.getValueAsDouble();
+    inputs.shooterStatorCurrentAmps = m_shooterStatorCurrent.getValueAsDouble();
+    inputs.shooterTempCelsius = m_shooterTemp.getValueAsDouble();
+
+    inputs.feederAppliedVolts = m_feederMotor.getMotorOutputVoltage();
+    inputs.feederSupplyCurrentAmps = m_feederMotor.getSupplyCurrent();
+    inputs.feederStatorCurrentAmps = m_feederMotor.getStatorCurrent();
+  }
+
+  @Override
+  public void setShooterSpeed(double speed) {
+    m_shooterMotor.set(speed);
+  }
+
+  @Override
+  public void setShooterVelocity(double velocityRps) {
+    m_shooterMotor.setControl(m_velocityRequest.withVelocity(velocityRps));
+  }
+
+  @Override
+  public void setShooterCurrentLimit(double amps) {
+    m_currentLimits.SupplyCurrentLimit = amps;
+    m_currentLimits.SupplyCurrentLimitEnable = true;
+    // Timeout 0 = don't wait for the motor to answer
+    m_shooterMotor.getConfigurator().apply(m_currentLimits, 0);
+  }
+
+  @Override
+  public void setFeederSpeed(double speed) {
+    m_feederMotor.set(ControlMode.PercentOutput, speed);
+  }
+}
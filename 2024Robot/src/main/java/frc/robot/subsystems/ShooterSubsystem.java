@@ -4,53 +4,60 @@
 
 package frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
 import frc.robot.Constants.ShooterConstants;
+import frc.robot.util.Blackboard;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
+import frc.robot.util.MotorConfigPipeline;
+import frc.robot.util.NoteDetector;
+import org.littletonrobotics.junction.Logger;
 
 /** Shooter subsystem for controlling the shooter and feeder motors. */
 public class ShooterSubsystem extends SubsystemBase {
-  private final TalonFX m_shooterMotor;
-  private final TalonSRX m_feederMotor;
+  private final ShooterIO m_io;
+  private final ShooterIOInputsAutoLogged m_inputs = new ShooterIOInputsAutoLogged();
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Shooter.periodic");
 
-  /** Creates a new ShooterSubsystem. */
-  public ShooterSubsystem() {
-    if (!ShooterConstants.SHOOTER_ENABLED) {
-        m_shooterMotor = null;
-        m_feederMotor = null;
-        System.out.println("WARNING: Shooter Subsystem is DISABLED in Constants.java");
-        return;
-    }
+  // Flywheel target when running closed loop (NaN when open loop or stopped)
+  private double m_targetRps = Double.NaN;
 
-    m_shooterMotor = new TalonFX(ShooterConstants.SHOOTER_MOTOR_ID);
-    m_feederMotor = new TalonSRX(ShooterConstants.FEEDER_MOTOR_ID);
+  // Note/jam detection from the feeder current, and what the feeder was last told to do
+  private final NoteDetector m_noteDetector =
+      new NoteDetector(
+          ShooterConstants.NOTE_DETECT_WINDOW,
+          ShooterConstants.NOTE_DETECT_BLANKING_SECONDS,
+          ShooterConstants.NOTE_AMPS,
+          ShooterConstants.NOTE_DEBOUNCE_SECONDS,
+          ShooterConstants.FEEDER_JAM_AMPS,
+          ShooterConstants.FEEDER_JAM_DEBOUNCE_SECONDS);
+  private double m_feederSpeed = 0.0;
+  private NoteDetector.Event m_feederEvent = NoteDetector.Event.NONE;
 
-    // Configure shooter motor (TalonFX/Phoenix6)
-    TalonFXConfiguration shooterConfig = new TalonFXConfiguration();
-    shooterConfig.MotorOutput.Inverted =
-        ShooterConstants.SHOOTER_INVERTED
-            ? InvertedValue.Clockwise_Positive
-            : InvertedValue.CounterClockwise_Positive;
-    m_shooterMotor.getConfigurator().apply(shooterConfig);
-
-    // OPTIMIZATION: Automatically throttle down CAN signals we aren't using (feedback, etc.)
-    m_shooterMotor.optimizeBusUtilization();
+  /**
+   * Creates a new ShooterSubsystem.
+   *
+   * @param io The shooter hardware, or a blank "do nothing" IO when disabled or replaying
+   */
+  public ShooterSubsystem(ShooterIO io) {
+    m_io = io;
+    if (!ShooterConstants.SHOOTER_ENABLED) {
+      System.out.println("WARNING: Shooter Subsystem is DISABLED in Constants.java");
+    }
+  }
 
-    // Configure feeder motor (TalonSRX/Phoenix5)
-    m_feederMotor.configFactoryDefault();
-    m_feederMotor.setInverted(ShooterConstants.FEEDER_INVERTED);
+  /** Builds the shooter IO for the real robot, or a "do nothing" IO if it is disabled. */
+  public static ShooterIO createHardwareIO() {
+    return ShooterConstants.SHOOTER_ENABLED ? new ShooterIOTalon() : new ShooterIO() {};
+  }
 
-    // OPTIMIZATION: Slow down all status frames for the feeder since we don't need feedback
-    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, 20); // 20ms (Matches loop)
-    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, 255);
-    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, 50); // 50ms (Jam Detection)
-    m_feederMotor.setStatusFramePeriod(StatusFrameEnhanced.Status_6_Misc, 255);
+  /** Builds the simulated shooter IO, or a "do nothing" IO if it is disabled. */
+  public static ShooterIO createSimIO() {
+    return ShooterConstants.SHOOTER_ENABLED ? new ShooterIOSim() : new ShooterIO() {};
   }
 
   /**
@@ -60,23 +67,90 @@ public class ShooterSubsystem extends SubsystemBase {
    */
   public void spinShooter(double speed) {
     if (!ShooterConstants.SHOOTER_ENABLED) return;
-    m_shooterMotor.set(speed);
+    if (!isReady()) return;
+    m_targetRps = Double.NaN;
+    Logger.recordOutput("Shooter/ShooterSetpoint", speed);
+    m_io.setShooterSpeed(speed);
   }
 
-  /** Spins the shooter at full forward speed. */
+  /**
+   * Spins the shooter at a velocity using the TalonFX's closed loop.
+   *
+   * @param velocityRps Target velocity in rotations per second
+   */
+  public void setShooterVelocity(double velocityRps) {
+    if (!ShooterConstants.SHOOTER_ENABLED) return;
+    if (!isReady()) return; // No velocity gains on the TalonFX yet
+    m_targetRps = velocityRps;
+    Logger.recordOutput("Shooter/ShooterVelocitySetpointRps", velocityRps);
+    m_io.setShooterVelocity(velocityRps);
+  }
+
+  /**
+   * Returns true once the shooter and feeder motor controllers have finished their startup
+   * configuration (see {@link MotorConfigPipeline}). Setpoints are ignored until then.
+   */
+  public boolean isReady() {
+    return MotorConfigPipeline.isReady(ShooterIOTalon.SHOOTER_NAME)
+        && MotorConfigPipeline.isReady(ShooterIOTalon.FEEDER_NAME);
+  }
+
+  /** Spins the shooter up to shooting speed. */
   public void spinUp() {
-    spinShooter(ShooterConstants.SHOOTER_SPEED);
+    setShooterVelocity(ShooterConstants.SHOOTER_TARGET_RPS);
   }
 
   /** Spins the shooter in reverse. */
   public void spinReverse() {
-    spinShooter(ShooterConstants.SHOOTER_REVERSE_SPEED);
+    setShooterVelocity(ShooterConstants.SHOOTER_REVERSE_RPS);
+  }
+
+  /** Returns the flywheel velocity in rotations per second (sampled once per loop). */
+  public double getShooterVelocity() {
+    return m_inputs.shooterVelocityRps;
+  }
+
+  /**
+   * Returns true if the flywheel is spinning forward within tolerance of its target, so a note can
+   * be fed right now.
+   */
+  public boolean atSpeed() {
+    if (!ShooterConstants.SHOOTER_ENABLED) return true; // Assume success to not block auto
+    return m_targetRps > 0
+        && Math.abs(m_inputs.shooterVelocityRps - m_targetRps)
+            < ShooterConstants.AT_SPEED_TOLERANCE_RPS;
+  }
+
+  /** Returns true while the flywheel is holding a forward speed (aiming or firing). */
+  public boolean hasVelocityTarget() {
+    return m_targetRps > 0;
+  }
+
+  /** Returns the flywheel supply current (Amps, this loop). */
+  public double getShooterCurrent() {
+    return m_inputs.shooterSupplyCurrentAmps;
+  }
+
+  /** Returns the feeder supply current (Amps, this loop). */
+  public double getFeederCurrent() {
+    return m_inputs.feederSupplyCurrentAmps;
+  }
+
+  /**
+   * Sets the flywheel supply current limit (used by {@link PowerManager}). Writes config over the
+   * CAN bus, so only call it when the limit changes.
+   *
+   * @param amps Limit (Amps)
+   */
+  public void setShooterCurrentLimit(double amps) {
+    if (!ShooterConstants.SHOOTER_ENABLED) return;
+    Logger.recordOutput("Shooter/CurrentLimitAmps", amps);
+    m_io.setShooterCurrentLimit(amps);
   }
 
   /** Stops the shooter motor. */
   public void stopShooter() {
-    if (!ShooterConstants.SHOOTER_ENABLED) return;
-    m_shooterMotor.set(0);
+    spinShooter(0);
   }
 
   /**
@@ -86,7 +160,23 @@ public class ShooterSubsystem extends SubsystemBase {
    */
   public void runFeeder(double speed) {
     if (!ShooterConstants.SHOOTER_ENABLED) return;
-    m_feederMotor.set(ControlMode.PercentOutput, speed);
+    if (!isReady()) return;
+    Logger.recordOutput("Shooter/FeederSetpoint", speed);
+    m_feederSpeed = speed;
+    m_io.setFeederSpeed(speed);
+  }
+
+  /**
+   * Returns what the feeder current showed this loop (note acquired, note fired, jammed or
+   * nothing). Each event is only returned during the loop it happened.
+   */
+  public NoteDetector.Event getFeederEvent() {
+    return m_feederEvent;
+  }
+
+  /** Returns true if the feeder current says a note is in the robot. */
+  public boolean hasNote() {
+    return m_noteDetector.hasNote();
   }
 
   /** Runs the feeder at full forward speed. */
@@ -101,8 +191,7 @@ public class ShooterSubsystem extends SubsystemBase {
 
   /** Stops the feeder motor. */
   public void stopFeeder() {
-    if (!ShooterConstants.SHOOTER_ENABLED) return;
-    m_feederMotor.set(ControlMode.PercentOutput, 0);
+    runFeeder(0);
   }
 
   /** Stops both shooter and feeder motors. */
@@ -111,9 +200,34 @@ public class ShooterSubsystem extends SubsystemBase {
     stopFeeder();
   }
 
+  /**
+   * Speeds up the status frames this mode needs and slows down the rest. Called by Robot when the
+   * mode changes.
+   */
+  public void setFrameProfile(FrameProfile profile) {
+    m_io.setFrameProfile(profile);
+  }
+
   @Override
   public void periodic() {
-    // This method will be called once per scheduler run
+    m_periodicTimer.start();
+
+    // Read the shooter sensors ONCE per loop, then log them
+    m_io.updateInputs(m_inputs);
+    Logger.processInputs("Shooter", m_inputs);
+    Logger.recordOutput("Shooter/AtSpeed", atSpeed());
+    Blackboard.SHOOTER_AT_SPEED.set(atSpeed());
+
+    // The motor is off while disabled, whatever it was last told
+    m_feederEvent =
+        m_noteDetector.update(
+            m_inputs.feederStatorCurrentAmps, DriverStation.isEnabled() ? m_feederSpeed : 0.0);
+    Logger.recordOutput("Shooter/FeederFilteredAmps", m_noteDetector.getFilteredAmps());
+    Logger.recordOutput("Shooter/FeederEvent", m_feederEvent.name());
+    Logger.recordOutput("Shooter/HasNote", m_noteDetector.hasNote());
+    Blackboard.HAS_NOTE.set(m_noteDetector.hasNote());
+
+    LoopProfiler.stop(m_periodicTimer);
   }
 
   // ==================== Command Factories ====================
@@ -136,6 +250,16 @@ public class ShooterSubsystem extends SubsystemBase {
     return runOnce(() -> stopShooter()).withName("Stop Shooter");
   }
 
+  /**
+   * Returns a command that waits until the flywheel is at speed, giving up after {@code
+   * timeoutSeconds} so a bad sensor can't stall an auto.
+   */
+  public Command waitUntilAtSpeed(double timeoutSeconds) {
+    return Commands.waitUntil(this::atSpeed)
+        .withTimeout(timeoutSeconds)
+        .withName("Wait Until at Speed");
+  }
+
   /** Returns a command to run the feeder. */
   public Command feedCommand() {
     if (!ShooterConstants.SHOOTER_ENABLED) return runOnce(() -> {}).withName("Shooter Disabled");
@@ -0,0 +1,424 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.AimConstants;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.PivotConstants;
+import frc.robot.Constants.ShieldConstants;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.Blackboard;
+import frc.robot.util.MovingShotSolver;
+import frc.robot.util.NoteDetector;
+import frc.robot.util.PivotShieldPlanner;
+import frc.robot.util.ShotMap;
+import frc.robot.util.TrajectoryCache;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * The "coach" for the shooter, pivot and shield: instead of each button telling every motor what to
+ * do every loop, a button picks a {@link Goal} and the superstructure works out the setpoints.
+ *
+ * <p>Two things this does that the old per-button commands didn't:
+ *
+ * <ul>
+ *   <li>Setpoints are only sent when they change. Holding a button no longer re-sends the same
+ *       {@code spinUp()}/{@code moveToHigh()}/{@code moveMid()} calls every 20 ms.
+ *   <li>The shield interlock lives in one place. The shield is only down while the pivot is past
+ *       the low shooting position. Instead of waiting to see the pivot get there, each move is
+ *       planned ahead ({@link PivotShieldPlanner}) so both move at once.
+ *   <li>The feeder current is watched (see {@link NoteDetector}). Intake ends by itself once a note
+ *       is in, and a jammed feeder backs off and tries again.
+ * </ul>
+ *
+ * <p>Goal commands require the shooter, pivot and shield, so nothing else can move them while one
+ * runs. When a goal command starts, everything is sent once, because another command (like an
+ * auto) may have moved the motors since.
+ */
+public class Superstructure extends SubsystemBase {
+  /** What the driver wants the shooter, pivot and shield to be doing. */
+  public enum Goal {
+    /** Pivot high, shooter and feeder off, shield mid. */
+    STOW("Stow"),
+    /**
+     * Pivot down, shooter and feeder pulling in, shield down once the pivot is past low. Finishes
+     * once the feeder current shows a note.
+     */
+    INTAKE("Intake"),
+    /** Pivot high, shooter spinning up, shield mid. */
+    AIM_HIGH("Aim High"),
+    /** Aim high, and feed once the flywheel is at speed. */
+    FIRE_HIGH("Fire High"),
+    /** Pivot low, shield up. */
+    AIM_LOW("Aim Low"),
+    /** Aim low with the shooter spinning, and feed once the flywheel is at speed. */
+    FIRE_LOW("Fire Low"),
+    /** Pivot and flywheel from the shot map for our distance to the speaker, shield mid. */
+    AUTO_AIM("Auto Aim"),
+    /** Auto aim, and feed once the flywheel is at speed. */
+    AUTO_FIRE("Auto Fire");
+
+    private final String m_displayName;
+
+    Goal(String displayName) {
+      m_displayName = displayName;
+    }
+
+    public String getDisplayName() {
+      return m_displayName;
+    }
+  }
+
+  private final ShooterSubsystem m_shooter;
+  private final PivotSubsystem m_pivot;
+  private final ShieldSubsystem m_shield;
+
+  // Auto aim: the shot map, the shoot-on-the-move solver and where each alliance's speaker is
+  private final ShotMap m_shotMap;
+  private final MovingShotSolver m_solver;
+  private final Translation2d m_blueSpeaker;
+  private final Translation2d m_redSpeaker;
+  private final boolean m_canAutoAim;
+  private Translation2d m_speaker;
+  private double m_aimHeading = Double.NaN; // Posted to the blackboard; NaN when not auto-aiming
+
+  // Pivot/shield move in progress: the goals it was planned for and when
+  private final PivotShieldPlanner m_planner =
+      new PivotShieldPlanner(
+          PivotConstants.PLAN_CRUISE_VELOCITY,
+          PivotConstants.PLAN_ACCELERATION,
+          ShieldConstants.PLAN_MAX_VELOCITY,
+          ShieldConstants.PLAN_ACCELERATION,
+          PivotConstants.SHOOTING_LOW_POS,
+          PivotConstants.POSITION_TOLERANCE,
+          ShieldConstants.CLEAR_POS,
+          ShieldConstants.PLAN_MARGIN_SECONDS);
+  private final Timer m_planTimer = new Timer();
+  private double m_plannedPivotCounts = Double.NaN;
+  private double m_plannedShieldCounts = Double.NaN;
+
+  // Goal of the running goal command, or null if none is running
+  private Goal m_goal = null;
+  private final Timer m_goalTimer = new Timer();
+  private boolean m_feeding = false;
+  private boolean m_goalDone = false;
+
+  // Jam clearing: while the timer runs, the feeder runs at m_unjamSpeed instead
+  private final Timer m_unjamTimer = new Timer();
+  private double m_unjamSpeed = 0.0;
+  private int m_unjamAttempts = 0;
+
+  // Last setpoints actually sent (NaN = send the next one no matter what)
+  private double m_sentPivotCounts = Double.NaN;
+  private double m_sentShieldCounts = Double.NaN;
+  private double m_sentShooterRps = Double.NaN;
+  private double m_sentFeederSpeed = Double.NaN;
+
+  /**
+   * @param shotMap Pivot and flywheel for each distance to the speaker, for the auto aim goals
+   */
+  public Superstructure(
+      ShooterSubsystem shooter, PivotSubsystem pivot, ShieldSubsystem shield, ShotMap shotMap) {
+    m_shooter = shooter;
+    m_pivot = pivot;
+    m_shield = shield;
+    m_shotMap = shotMap;
+    m_solver =
+        new MovingShotSolver(
+            shotMap,
+            AimConstants.SHOOT_ON_MOVE_MAX_ITERATIONS,
+            AimConstants.SHOOT_ON_MOVE_TOLERANCE_SECONDS);
+    m_blueSpeaker = speakerPosition(AimConstants.BLUE_SPEAKER_TAG_ID);
+    m_redSpeaker = speakerPosition(AimConstants.RED_SPEAKER_TAG_ID);
+    m_speaker = m_blueSpeaker;
+    // Without drive encoders the pose isn't good enough to aim by, so auto aim does a high shot
+    m_canAutoAim =
+        DriveSubsystem.hasDriveEncoders() && m_blueSpeaker != null && m_redSpeaker != null;
+  }
+
+  /** Where a speaker is on the field (its AprilTag), or null if the tag isn't in the layout. */
+  private static Translation2d speakerPosition(int tagId) {
+    return VisionConstants.APRILTAG_LAYOUT
+        .getTagPose(tagId)
+        .map(Pose3d::toPose2d)
+        .map(Pose2d::getTranslation)
+        .orElse(null);
+  }
+
+  /**
+   * Builds the shot map to use when the deploy file can't be loaded: the fixed high shot from any
+   * distance, with no leading for robot motion.
+   */
+  public static ShotMap createFallbackShotMap() {
+    return new ShotMap(
+        new double[] {0.0},
+        new double[] {PivotConstants.SHOOTING_HIGH_POS},
+        new double[] {ShooterConstants.SHOOTER_TARGET_RPS},
+        new double[] {0.0});
+  }
+
+  /**
+   * Returns a command that works toward a goal until interrupted (or, for {@link Goal#INTAKE},
+   * until a note is in).
+   *
+   * @param goal What the shooter, pivot and shield should do
+   */
+  public Command goalCommand(Goal goal) {
+    return Commands.startRun(
+            () -> startGoal(goal), this::applyGoal, this, m_shooter, m_pivot, m_shield)
+        .until(() -> m_goalDone)
+        .finallyDo(this::endGoal)
+        .withName(goal.getDisplayName());
+  }
+
+  private void startGoal(Goal goal) {
+    m_goal = goal;
+    if (m_canAutoAim) {
+      // The alliance can't change mid-goal, so look it up once instead of every loop
+      m_speaker = TrajectoryCache.isRedAlliance() ? m_redSpeaker : m_blueSpeaker;
+    }
+    m_goalTimer.restart();
+    m_feeding = false;
+    m_goalDone = false;
+    m_unjamAttempts = 0;
+    m_sentPivotCounts = Double.NaN;
+    m_sentShieldCounts = Double.NaN;
+    m_sentShooterRps = Double.NaN;
+    m_sentFeederSpeed = Double.NaN;
+    m_plannedPivotCounts = Double.NaN;
+    m_plannedShieldCounts = Double.NaN;
+    m_aimHeading = Double.NaN;
+  }
+
+  private void endGoal() {
+    m_goal = null;
+    m_aimHeading = Double.NaN;
+    m_unjamTimer.stop();
+    m_unjamTimer.reset();
+  }
+
+  /** Works out this loop's setpoints for the goal. Only changed ones reach the motors. */
+  private void applyGoal() {
+    handleFeederEvent(m_shooter.getFeederEvent());
+    switch (m_goal) {
+      case INTAKE:
+        moveMechanisms(PivotConstants.INTAKE_POS, ShieldConstants.DOWN_POS);
+        setShooter(ShooterConstants.SHOOTER_REVERSE_RPS);
+        setFeeder(ShooterConstants.FEEDER_REVERSE_SPEED);
+        break;
+      case AIM_HIGH:
+      case FIRE_HIGH:
+        moveMechanisms(PivotConstants.SHOOTING_HIGH_POS, ShieldConstants.MID_POS);
+        setShooter(ShooterConstants.SHOOTER_TARGET_RPS);
+        boolean firingHigh = m_goal == Goal.FIRE_HIGH;
+        setFeeder(firingHigh && readyToFeed() ? ShooterConstants.FEEDER_SPEED : 0.0);
+        break;
+      case AIM_LOW:
+      case FIRE_LOW:
+        boolean firing = m_goal == Goal.FIRE_LOW;
+        moveMechanisms(PivotConstants.SHOOTING_LOW_POS, ShieldConstants.UP_POS);
+        setShooter(firing ? ShooterConstants.SHOOTER_TARGET_RPS : 0.0);
+        setFeeder(firing && readyToFeed() ? ShooterConstants.FEEDER_SPEED : 0.0);
+        break;
+      case AUTO_AIM:
+      case AUTO_FIRE:
+        applyAutoAim();
+        break;
+      case STOW:
+      default:
+        moveMechanisms(PivotConstants.SHOOTING_HIGH_POS, ShieldConstants.MID_POS);
+        setShooter(0.0);
+        setFeeder(0.0);
+        break;
+    }
+  }
+
+  /**
+   * Moves the pivot and shield together. A new pair of goals is planned from where they are now;
+   * the pivot goes right away and the shield when the plan says it can cross AND the measured
+   * pivot agrees (see {@link PivotShieldPlanner#shieldMayMove}). The plan is only a prediction, so
+   * if the pivot is behind it, the shield waits and the move is planned again from where the pivot
+   * really is.
+   */
+  private void moveMechanisms(double pivotCounts, double shieldCounts) {
+    if (pivotCounts != m_plannedPivotCounts || shieldCounts != m_plannedShieldCounts) {
+      planMove(pivotCounts, shieldCounts);
+    }
+    setPivot(pivotCounts);
+    double shieldGoal = m_planner.getShieldGoal();
+    boolean shieldWaiting = shieldGoal != m_sentShieldCounts && m_shield.isReady();
+    if (shieldWaiting && m_planTimer.hasElapsed(m_planner.getShieldStartTime())) {
+      boolean mayMove =
+          m_planner.shieldMayMove(
+              Blackboard.PIVOT_POSITION.get(),
+              m_pivot.isPositionStale(),
+              Blackboard.SHIELD_POSITION.get());
+      if (mayMove) {
+        setShield(shieldGoal);
+      } else {
+        // Pivot slower than PLAN_* says, stuck, or its reading is old: hold the shield
+        planMove(pivotCounts, shieldCounts);
+      }
+      Logger.recordOutput("Superstructure/ShieldHeldForPivot", shieldGoal != m_sentShieldCounts);
+    }
+  }
+
+  /** Plans a pivot/shield move from where they are now and restarts the plan's clock. */
+  private void planMove(double pivotCounts, double shieldCounts) {
+    m_planner.plan(
+        Blackboard.PIVOT_POSITION.get(),
+        Blackboard.PIVOT_VELOCITY.get(),
+        pivotCounts,
+        Blackboard.SHIELD_POSITION.get(),
+        shieldCounts);
+    m_plannedPivotCounts = pivotCounts;
+    m_plannedShieldCounts = shieldCounts;
+    m_planTimer.restart();
+    Logger.recordOutput("Superstructure/ShieldStartDelay", m_planner.getShieldStartTime());
+  }
+
+  /**
+   * Looks up pivot and flywheel for our distance to the speaker, leading it if the robot is moving
+   * (see {@link MovingShotSolver}). They change a little every loop as the robot moves, so changes
+   * smaller than the deadbands aren't sent.
+   */
+  private void applyAutoAim() {
+    double pivotCounts = PivotConstants.SHOOTING_HIGH_POS;
+    double shooterRps = ShooterConstants.SHOOTER_TARGET_RPS;
+    boolean shotSolved = true;
+    boolean pointed = true; // Without auto aim the driver aims, like a high shot
+    if (m_canAutoAim) {
+      Pose2d robotPose = Blackboard.ROBOT_POSE.get();
+      Translation2d robot = robotPose.getTranslation();
+      shotSolved =
+          m_solver.solve(
+              robot.getX(),
+              robot.getY(),
+              Blackboard.ROBOT_VELOCITY_X.get(),
+              Blackboard.ROBOT_VELOCITY_Y.get(),
+              m_speaker.getX(),
+              m_speaker.getY());
+      pivotCounts = m_shotMap.getPivotCounts(m_solver.getDistance());
+      shooterRps = m_shotMap.getShooterRps(m_solver.getDistance());
+      // Drive turns the robot to this heading (or the driver does), see Blackboard.AIM_HEADING
+      m_aimHeading = m_solver.getHeadingRadians();
+      double headingError =
+          MathUtil.angleModulus(m_aimHeading - robotPose.getRotation().getRadians());
+      pointed =
+          Math.abs(headingError) <= Math.toRadians(AimConstants.SHOT_HEADING_TOLERANCE_DEGREES);
+      Logger.recordOutput("Superstructure/ShotHeadingErrorDegrees", Math.toDegrees(headingError));
+      Logger.recordOutput("Superstructure/ShotDistance", m_solver.getDistance());
+      Logger.recordOutput(
+          "Superstructure/ShotHeadingDegrees", Math.toDegrees(m_solver.getHeadingRadians()));
+      Logger.recordOutput("Superstructure/ShotFlightTime", m_solver.getFlightTime());
+      Logger.recordOutput("Superstructure/ShotSolverIterations", m_solver.getIterations());
+    }
+    Logger.recordOutput("Superstructure/ShotPivotCounts", pivotCounts);
+    Logger.recordOutput("Superstructure/ShotShooterRps", shooterRps);
+
+    // Small changes keep the goal already planned
+    if (Math.abs(pivotCounts - m_plannedPivotCounts) <= AimConstants.PIVOT_DEADBAND_COUNTS) {
+      pivotCounts = m_plannedPivotCounts;
+    }
+    moveMechanisms(pivotCounts, ShieldConstants.MID_POS);
+    if (Math.abs(shooterRps - m_sentShooterRps) > AimConstants.SHOOTER_DEADBAND_RPS
+        || Double.isNaN(m_sentShooterRps)) {
+      setShooter(shooterRps);
+    }
+    // Don't start feeding on a shot the solver couldn't settle, or before the robot points where
+    // the solver leads it (the note would miss sideways by the lead). Once feeding, keep going.
+    boolean firing = m_goal == Goal.AUTO_FIRE && ((shotSolved && pointed) || m_feeding);
+    setFeeder(firing && readyToFeed() ? ShooterConstants.FEEDER_SPEED : 0.0);
+  }
+
+  /** Ends the intake once a note is in, and starts backing the feeder off when it jams. */
+  private void handleFeederEvent(NoteDetector.Event event) {
+    if (event == NoteDetector.Event.NOTE_ACQUIRED && m_goal == Goal.INTAKE) {
+      m_goalDone = true;
+    } else if (event == NoteDetector.Event.JAMMED && !m_unjamTimer.isRunning()) {
+      if (m_unjamAttempts < ShooterConstants.MAX_UNJAM_ATTEMPTS) {
+        m_unjamAttempts++;
+        m_unjamSpeed = -Math.signum(m_sentFeederSpeed) * ShooterConstants.UNJAM_SPEED;
+        m_unjamTimer.restart();
+      } else if (m_unjamAttempts == ShooterConstants.MAX_UNJAM_ATTEMPTS) {
+        m_unjamAttempts++; // Only report it once
+        DriverStation.reportWarning("Feeder still jammed, stopping it until the next goal", false);
+      }
+    }
+    Logger.recordOutput("Superstructure/UnjamAttempts", m_unjamAttempts);
+  }
+
+  /**
+   * Returns true once the flywheel is at speed (or the spin-up timeout ran out). Stays true for the
+   * rest of the goal, so the feeder doesn't stop when the note slows the flywheel down.
+   */
+  private boolean readyToFeed() {
+    if (!m_feeding) {
+      m_feeding =
+          Blackboard.SHOOTER_AT_SPEED.get()
+              || m_goalTimer.hasElapsed(AutoConstants.SHOOTER_SPINUP_TIME);
+    }
+    return m_feeding;
+  }
+
+  // The subsystems ignore setpoints until their motor controllers are configured, so a setpoint
+  // only counts as sent once they're ready.
+
+  private void setPivot(double counts) {
+    if (counts != m_sentPivotCounts && m_pivot.isReady()) {
+      m_pivot.setPosition(counts);
+      m_sentPivotCounts = counts;
+    }
+  }
+
+  private void setShield(double counts) {
+    if (counts != m_sentShieldCounts && m_shield.isReady()) {
+      m_shield.setPosition(counts);
+      m_sentShieldCounts = counts;
+    }
+  }
+
+  /** 0 stops the flywheel (coasting), anything else holds that velocity. */
+  private void setShooter(double rps) {
+    if (rps != m_sentShooterRps && m_shooter.isReady()) {
+      if (rps == 0.0) {
+        m_shooter.stopShooter();
+      } else {
+        m_shooter.setShooterVelocity(rps);
+      }
+      m_sentShooterRps = rps;
+    }
+  }
+
+  private void setFeeder(double speed) {
+    // Jam clearing overrides the goal's feeder speed, and gave up = feeder off
+    if (m_unjamTimer.isRunning()) {
+      if (m_unjamTimer.hasElapsed(ShooterConstants.UNJAM_TIME)) {
+        m_unjamTimer.stop();
+      } else {
+        speed = m_unjamSpeed;
+      }
+    }
+    if (m_unjamAttempts > ShooterConstants.MAX_UNJAM_ATTEMPTS) {
+      speed = 0.0;
+    }
+    if (speed != m_sentFeederSpeed && m_shooter.isReady()) {
+      m_shooter.runFeeder(speed);
+      m_sentFeederSpeed = speed;
+    }
+  }
+
+  @Override
+  public void periodic() {
+    Logger.recordOutput("Superstructure/Goal", m_goal == null ? "None" : m_goal.name());
+    Blackboard.AIM_HEADING.set(m_aimHeading);
+  }
+}
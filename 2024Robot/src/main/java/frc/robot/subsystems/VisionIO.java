@@ -0,0 +1,40 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * VisionIO is the "Universal Remote" for one AprilTag camera.
+ *
+ * <p>Every method has a "do nothing" default, so a robot without a camera (or log replay) is simply
+ * {@code new VisionIO() {}}.
+ */
+public interface VisionIO {
+  /** Everything the camera saw since last loop. Filled in once per loop. */
+  @AutoLog
+  public static class VisionIOInputs {
+    /** True if the coprocessor is talking to us. */
+    public boolean connected = false;
+
+    /** When each pose was captured (FPGA seconds, already latency-corrected by PhotonVision). */
+    public double[] observationTimestamps = new double[] {};
+
+    /** Where the camera thinks the robot was for each observation. */
+    public Pose3d[] observationPoses = new Pose3d[] {};
+
+    /** Pose ambiguity for single-tag observations (0 for multi-tag). */
+    public double[] observationAmbiguities = new double[] {};
+
+    /** How many tags went into each observation. */
+    public int[] observationTagCounts = new int[] {};
+
+    /** Average distance to the tags in each observation in meters. */
+    public double[] observationAverageTagDistances = new double[] {};
+
+    /** Every tag ID seen since last loop. */
+    public int[] tagIds = new int[] {};
+  }
+
+  /** Moves the observations gathered since last loop into the inputs object. */
+  public default void updateInputs(VisionIOInputs inputs) {}
+}
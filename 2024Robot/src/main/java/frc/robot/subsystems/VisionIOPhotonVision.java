@@ -0,0 +1,164 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.Constants.VisionConstants;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.photonvision.PhotonCamera;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * Hardware implementation for a PhotonVision camera.
+ *
+ * <p>A background Notifier pulls new results off NetworkTables and turns them into robot poses, so
+ * the 20 ms main loop never waits on the camera. The main loop only copies the finished poses out
+ * of a small fixed-size queue.
+ */
+public class VisionIOPhotonVision implements VisionIO {
+  protected final PhotonCamera m_camera;
+  private final Transform3d m_robotToCamera;
+  private final Notifier m_notifier;
+
+  // Queue shared with the background thread. Only touch these while holding m_lock.
+  private final Lock m_lock = new ReentrantLock();
+  private final double[] m_timestamps = new double[VisionConstants.OBSERVATION_QUEUE_CAPACITY];
+  private final Pose3d[] m_poses = new Pose3d[VisionConstants.OBSERVATION_QUEUE_CAPACITY];
+  private final double[] m_ambiguities = new double[VisionConstants.OBSERVATION_QUEUE_CAPACITY];
+  private final int[] m_tagCounts = new int[VisionConstants.OBSERVATION_QUEUE_CAPACITY];
+  private final double[] m_tagDistances = new double[VisionConstants.OBSERVATION_QUEUE_CAPACITY];
+  private final boolean[] m_seenTags = new boolean[64];
+  private int m_count = 0;
+  private boolean m_connected = false;
+
+  /**
+   * @param cameraName Name of the camera in the PhotonVision web UI
+   * @param robotToCamera Where the camera sits on the robot
+   */
+  public VisionIOPhotonVision(String cameraName, Transform3d robotToCamera) {
+    m_camera = new PhotonCamera(cameraName);
+    m_robotToCamera = robotToCamera;
+    m_notifier = new Notifier(this::poll);
+    m_notifier.setName("Vision-" + cameraName);
+    m_notifier.startPeriodic(1.0 / VisionConstants.POLL_FREQUENCY);
+  }
+
+  /** Runs on the background thread. */
+  private void poll() {
+    boolean connected = m_camera.isConnected();
+    var results = m_camera.getAllUnreadResults();
+
+    m_lock.lock();
+    try {
+      m_connected = connected;
+      for (PhotonPipelineResult result : results) {
+        addResult(result);
+      }
+    } finally {
+      m_lock.unlock();
+    }
+  }
+
+  private void addResult(PhotonPipelineResult result) {
+    if (result.multitagResult.isPresent()) {
+      // Multi-tag: PhotonVision already solved for the camera pose on the coprocessor
+      var multitag = result.multitagResult.get();
+      Transform3d fieldToCamera = multitag.estimatedPose.best;
+      Pose3d robotPose =
+          new Pose3d(fieldToCamera.getTranslation(), fieldToCamera.getRotation())
+              .transformBy(m_robotToCamera.inverse());
+
+      double totalDistance = 0.0;
+      for (PhotonTrackedTarget target : result.targets) {
+        totalDistance += target.bestCameraToTarget.getTranslation().getNorm();
+      }
+      for (short id : multitag.fiducialIDsUsed) {
+        markSeen(id);
+      }
+      addObservation(
+          result.getTimestampSeconds(),
+          robotPose,
+          multitag.estimatedPose.ambiguity,
+          multitag.fiducialIDsUsed.size(),
+          totalDistance / Math.max(1, result.targets.size()));
+    } else if (!result.targets.isEmpty()) {
+      // Single tag: work backwards from where the tag is on the field
+      PhotonTrackedTarget target = result.targets.get(0);
+      var tagPose = VisionConstants.APRILTAG_LAYOUT.getTagPose(target.fiducialId);
+      if (tagPose.isEmpty()) {
+        return;
+      }
+      Transform3d cameraToTarget = target.bestCameraToTarget;
+      Pose3d robotPose =
+          tagPose.get().transformBy(cameraToTarget.inverse()).transformBy(m_robotToCamera.inverse());
+
+      markSeen(target.fiducialId);
+      addObservation(
+          result.getTimestampSeconds(),
+          robotPose,
+          target.poseAmbiguity,
+          1,
+          cameraToTarget.getTranslation().getNorm());
+    }
+  }
+
+  private void markSeen(int id) {
+    if (id >= 0 && id < m_seenTags.length) {
+      m_seenTags[id] = true;
+    }
+  }
+
+  private void addObservation(
+      double timestamp, Pose3d pose, double ambiguity, int tagCount, double tagDistance) {
+    if (m_count == m_timestamps.length) {
+      // Main loop fell behind: drop the oldest observation
+      System.arraycopy(m_timestamps, 1, m_timestamps, 0, m_count - 1);
+      System.arraycopy(m_poses, 1, m_poses, 0, m_count - 1);
+      System.arraycopy(m_ambiguities, 1, m_ambiguities, 0, m_count - 1);
+      System.arraycopy(m_tagCounts, 1, m_tagCounts, 0, m_count - 1);
+      System.arraycopy(m_tagDistances, 1, m_tagDistances, 0, m_count - 1);
+      m_count--;
+    }
+    m_timestamps[m_count] = timestamp;
+    m_poses[m_count] = pose;
+    m_ambiguities[m_count] = ambiguity;
+    m_tagCounts[m_count] = tagCount;
+    m_tagDistances[m_count] = tagDistance;
+    m_count++;
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    m_lock.lock();
+    try {
+      inputs.connected = m_connected;
+      inputs.observationTimestamps = Arrays.copyOf(m_timestamps, m_count);
+      inputs.observationPoses = Arrays.copyOf(m_poses, m_count);
+      inputs.observationAmbiguities = Arrays.copyOf(m_ambiguities, m_count);
+      inputs.observationTagCounts = Arrays.copyOf(m_tagCounts, m_count);
+      inputs.observationAverageTagDistances = Arrays.copyOf(m_tagDistances, m_count);
+
+      int seen = 0;
+      for (boolean tag : m_seenTags) {
+        if (tag) {
+          seen++;
+        }
+      }
+      inputs.tagIds = new int[seen];
+      int next = 0;
+      for (int id = 0; id < m_seenTags.length; id++) {
+        if (m_seenTags[id]) {
+          inputs.tagIds[next++] = id;
+        }
+      }
+
+      Arrays.fill(m_seenTags, false);
+      m_count = 0;
+    } finally {
+      m_lock.unlock();
+    }
+  }
+}
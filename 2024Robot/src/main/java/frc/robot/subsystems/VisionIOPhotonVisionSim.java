@@ -0,0 +1,59 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.robot.Constants.VisionConstants;
+import java.util.function.Supplier;
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.VisionSystemSim;
+
+/**
+ * Simulated PhotonVision camera, so the whole vision pipeline can run on a desktop with no
+ * coprocessor.
+ *
+ * <p>A {@link VisionSystemSim} renders the 2024 AprilTags from wherever the robot is and publishes
+ * results exactly like a real camera would. The same background thread as the real IO picks them
+ * up.
+ */
+public class VisionIOPhotonVisionSim extends VisionIOPhotonVision {
+  // One shared "world" for every simulated camera
+  private static VisionSystemSim s_visionSim;
+
+  private final Supplier<Pose2d> m_poseSupplier;
+
+  /**
+   * @param cameraName Name of the simulated camera
+   * @param robotToCamera Where the camera sits on the robot
+   * @param poseSupplier Where the simulated robot is on the field
+   */
+  public VisionIOPhotonVisionSim(
+      String cameraName, Transform3d robotToCamera, Supplier<Pose2d> poseSupplier) {
+    super(cameraName, robotToCamera);
+    m_poseSupplier = poseSupplier;
+
+    if (s_visionSim == null) {
+      s_visionSim = new VisionSystemSim("main");
+      s_visionSim.addAprilTags(VisionConstants.APRILTAG_LAYOUT);
+    }
+
+    // Roughly a 1280x800 global shutter camera
+    SimCameraProperties properties = new SimCameraProperties();
+    properties.setCalibration(1280, 800, Rotation2d.fromDegrees(70));
+    properties.setCalibError(0.25, 0.08);
+    properties.setFPS(30);
+    properties.setAvgLatencyMs(35);
+    properties.setLatencyStdDevMs(5);
+
+    PhotonCameraSim cameraSim = new PhotonCameraSim(m_camera, properties);
+    s_visionSim.addCamera(cameraSim, robotToCamera);
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    // Move the simulated robot, which publishes new camera results for the background thread
+    s_visionSim.update(m_poseSupplier.get());
+    super.updateInputs(inputs);
+  }
+}
@@ -0,0 +1,138 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.ModeConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Vision subsystem: turns AprilTag sightings into pose corrections for the drive odometry.
+ *
+ * <p>The cameras do their work on background threads (see {@link VisionIOPhotonVision}). Here we
+ * only throw out bad poses and hand the good ones, with their capture timestamps, to the pose
+ * estimator. The estimator rewinds to that timestamp, so camera latency does not drag the pose.
+ */
+public class VisionSubsystem extends SubsystemBase {
+  /** Whoever wants the vision poses (normally {@link DriveSubsystem#addVisionMeasurement}). */
+  @FunctionalInterface
+  public interface VisionConsumer {
+    void accept(Pose2d visionPose, double timestampSeconds, Matrix<N3, N1> stdDevs);
+  }
+
+  private final VisionConsumer m_consumer;
+  private final VisionIO[] m_io;
+  private final VisionIOInputsAutoLogged[] m_inputs;
+  private final LoopTimer m_periodicTimer = LoopProfiler.timer("Vision.periodic");
+
+  // Reused every loop for logging
+  private final List<Pose3d> m_acceptedPoses = new ArrayList<>();
+  private final List<Pose3d> m_rejectedPoses = new ArrayList<>();
+
+  /**
+   * Creates a new VisionSubsystem.
+   *
+   * @param consumer Where accepted poses go
+   * @param io One IO per camera, or a blank "do nothing" IO when disabled or replaying
+   */
+  public VisionSubsystem(VisionConsumer consumer, VisionIO... io) {
+    m_consumer = consumer;
+    m_io = io;
+    m_inputs = new VisionIOInputsAutoLogged[io.length];
+    for (int i = 0; i < io.length; i++) {
+      m_inputs[i] = new VisionIOInputsAutoLogged();
+    }
+    if (!VisionConstants.VISION_ENABLED) {
+      System.out.println("WARNING: Vision Subsystem is DISABLED in Constants.java");
+    }
+  }
+
+  /**
+   * Builds the camera IO: PhotonVision on the robot, a simulated camera on the desktop, or a "do
+   * nothing" IO if vision is disabled.
+   *
+   * @param poseSupplier Where the robot is, used to place the simulated camera
+   */
+  public static VisionIO createHardwareIO(Supplier<Pose2d> poseSupplier) {
+    if (!VisionConstants.VISION_ENABLED) {
+      return new VisionIO() {};
+    }
+    if (ModeConstants.CURRENT_MODE == ModeConstants.Mode.SIM) {
+      return new VisionIOPhotonVisionSim(
+          VisionConstants.FRONT_CAMERA_NAME, VisionConstants.ROBOT_TO_FRONT_CAMERA, poseSupplier);
+    }
+    return new VisionIOPhotonVision(
+        VisionConstants.FRONT_CAMERA_NAME, VisionConstants.ROBOT_TO_FRONT_CAMERA);
+  }
+
+  /** Returns true if camera {@code index} is talking to us. */
+  public boolean isConnected(int index) {
+    return m_inputs[index].connected;
+  }
+
+  @Override
+  public void periodic() {
+    m_periodicTimer.start();
+
+    m_acceptedPoses.clear();
+    m_rejectedPoses.clear();
+
+    for (int cam = 0; cam < m_io.length; cam++) {
+      VisionIOInputsAutoLogged inputs = m_inputs[cam];
+      m_io[cam].updateInputs(inputs);
+      Logger.processInputs("Vision/Camera" + cam, inputs);
+
+      for (int i = 0; i < inputs.observationTimestamps.length; i++) {
+        Pose3d pose = inputs.observationPoses[i];
+        int tagCount = inputs.observationTagCounts[i];
+        double distance = inputs.observationAverageTagDistances[i];
+
+        if (shouldReject(pose, tagCount, inputs.observationAmbiguities[i])) {
+          m_rejectedPoses.add(pose);
+          continue;
+        }
+        m_acceptedPoses.add(pose);
+
+        // Far away and single-tag poses are noisier, so trust them less
+        double stdDevFactor = distance * distance / tagCount;
+        double linearStdDev = VisionConstants.LINEAR_STD_DEV_BASELINE * stdDevFactor;
+        double angularStdDev = VisionConstants.ANGULAR_STD_DEV_BASELINE * stdDevFactor;
+        if (tagCount == 1) {
+          // One tag can't pin down the heading well; let the gyro handle it
+          angularStdDev = Double.POSITIVE_INFINITY;
+        }
+
+        m_consumer.accept(
+            pose.toPose2d(),
+            inputs.observationTimestamps[i],
+            VecBuilder.fill(linearStdDev, linearStdDev, angularStdDev));
+      }
+    }
+
+    Logger.recordOutput("Vision/AcceptedPoses", m_acceptedPoses.toArray(new Pose3d[0]));
+    Logger.recordOutput("Vision/RejectedPoses", m_rejectedPoses.toArray(new Pose3d[0]));
+
+    LoopProfiler.stop(m_periodicTimer);
+  }
+
+  /** Throws out poses that can't be right (flying, underground, off the field, or ambiguous). */
+  private static boolean shouldReject(Pose3d pose, int tagCount, double ambiguity) {
+    return tagCount == 0
+        || (tagCount == 1 && ambiguity > VisionConstants.MAX_AMBIGUITY)
+        || Math.abs(pose.getZ()) > VisionConstants.MAX_Z_ERROR
+        || pose.getX() < 0.0
+        || pose.getX() > VisionConstants.APRILTAG_LAYOUT.getFieldLength()
+        || pose.getY() < 0.0
+        || pose.getY() > VisionConstants.APRILTAG_LAYOUT.getFieldWidth();
+  }
+}
@@ -0,0 +1,177 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The robot's "bulletin board": one place where each subsystem posts what it knows, once per loop,
+ * so other code can read it without holding a reference to that subsystem or touching hardware.
+ *
+ * <p>Rules:
+ *
+ * <ul>
+ *   <li>Every entry has exactly ONE writer, the subsystem named in its section below. It posts from
+ *       its {@code periodic()}. A write from any other thread is reported and ignored.
+ *   <li>Anyone can read, from any thread (main loop, odometry, vision, logging). Values are kept in
+ *       {@code volatile} fields, so a reader always sees a whole, recent value without locks or
+ *       {@code synchronized}. Object values must be immutable (like {@link Pose2d}).
+ *   <li>Reading never allocates. A value and its timestamp are separate reads, so a reader on
+ *       another thread may see a value one loop newer than the timestamp it reads next.
+ * </ul>
+ */
+public final class Blackboard {
+  private Blackboard() {}
+
+  // ==================== Drive (DriveSubsystem) ====================
+
+  /** Where odometry plus vision thinks the robot is. */
+  public static final ObjectEntry<Pose2d> ROBOT_POSE = new ObjectEntry<>("RobotPose", new Pose2d());
+
+  /** Field-relative robot velocity along the field X axis, in meters per second. */
+  public static final DoubleEntry ROBOT_VELOCITY_X = new DoubleEntry("RobotVelocityX", 0.0);
+
+  /** Field-relative robot velocity along the field Y axis, in meters per second. */
+  public static final DoubleEntry ROBOT_VELOCITY_Y = new DoubleEntry("RobotVelocityY", 0.0);
+
+  // ==================== Pivot (PivotSubsystem) ====================
+
+  /** Pivot position in encoder counts. */
+  public static final DoubleEntry PIVOT_POSITION = new DoubleEntry("PivotPosition", 0.0);
+
+  /** Pivot velocity in encoder counts per second (positive = toward intake). */
+  public static final DoubleEntry PIVOT_VELOCITY = new DoubleEntry("PivotVelocity", 0.0);
+
+  // ==================== Shield (ShieldSubsystem) ====================
+
+  /** Shield position in encoder counts. */
+  public static final DoubleEntry SHIELD_POSITION = new DoubleEntry("ShieldPosition", 0.0);
+
+  // ==================== Shooter (ShooterSubsystem) ====================
+
+  /** True when the flywheel is close enough to its target speed to shoot. */
+  public static final BooleanEntry SHOOTER_AT_SPEED = new BooleanEntry("ShooterAtSpeed", false);
+
+  /** True when the feeder current says a note is in the robot (see NoteDetector). */
+  public static final BooleanEntry HAS_NOTE = new BooleanEntry("HasNote", false);
+
+  // ==================== Superstructure ====================
+
+  /**
+   * Field heading (radians, counter-clockwise from +X) to point the shooter for the auto-aim shot,
+   * or NaN when not auto-aiming. Drive turns toward it while the driver isn't turning.
+   */
+  public static final DoubleEntry AIM_HEADING = new DoubleEntry("AimHeading", Double.NaN);
+
+  /** What every entry has: a name, one writer thread and when it was last written. */
+  public abstract static class Entry {
+    private final String m_name;
+    private volatile Thread m_writer = null;
+    private volatile double m_timestamp = Double.NaN;
+    private boolean m_reportedWrongWriter = false;
+
+    private Entry(String name) {
+      m_name = name;
+    }
+
+    public String getName() {
+      return m_name;
+    }
+
+    /** FPGA time (seconds) of the last write, or NaN if it was never written. */
+    public double getTimestamp() {
+      return m_timestamp;
+    }
+
+    /** Returns false (and reports it once) if a second thread tries to write this entry. */
+    boolean checkWriter() {
+      Thread current = Thread.currentThread();
+      if (m_writer == null) {
+        m_writer = current;
+      } else if (m_writer != current) {
+        if (!m_reportedWrongWriter) {
+          m_reportedWrongWriter = true;
+          DriverStation.reportError(
+              "Blackboard entry " + m_name + " written from " + current.getName()
+                  + " but it belongs to " + m_writer.getName(),
+              false);
+        }
+        return false;
+      }
+      return true;
+    }
+
+    void stamp() {
+      m_timestamp = Timer.getFPGATimestamp();
+    }
+  }
+
+  /** A number on the blackboard. */
+  public static final class DoubleEntry extends Entry {
+    private volatile double m_value;
+
+    private DoubleEntry(String name, double initialValue) {
+      super(name);
+      m_value = initialValue;
+    }
+
+    public double get() {
+      return m_value;
+    }
+
+    /** Only the owning subsystem calls this, once per loop. */
+    public void set(double value) {
+      if (checkWriter()) {
+        m_value = value;
+        stamp();
+      }
+    }
+  }
+
+  /** A true/false fact on the blackboard. */
+  public static final class BooleanEntry extends Entry {
+    private volatile boolean m_value;
+
+    private BooleanEntry(String name, boolean initialValue) {
+      super(name);
+      m_value = initialValue;
+    }
+
+    public boolean get() {
+      return m_value;
+    }
+
+    /** Only the owning subsystem calls this, once per loop. */
+    public void set(boolean value) {
+      if (checkWriter()) {
+        m_value = value;
+        stamp();
+      }
+    }
+  }
+
+  /**
+   * An object on the blackboard. The object must be immutable, since readers on other threads keep
+   * using it while the writer posts the next one.
+   */
+  public static final class ObjectEntry<T> extends Entry {
+    private volatile T m_value;
+
+    private ObjectEntry(String name, T initialValue) {
+      super(name);
+      m_value = initialValue;
+    }
+
+    public T get() {
+      return m_value;
+    }
+
+    /** Only the owning subsystem calls this, once per loop. */
+    public void set(T value) {
+      if (checkWriter()) {
+        m_value = value;
+        stamp();
+      }
+    }
+  }
+}
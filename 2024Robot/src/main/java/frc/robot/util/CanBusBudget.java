@@ -0,0 +1,277 @@
+package frc.robot.util;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.PivotConstants;
+import frc.robot.Constants.ShieldConstants;
+import frc.robot.Constants.ShooterConstants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds up every frame on the CAN bus to see how busy it will be.
+ *
+ * <p>Each device lists its frames and how often they are sent, using the same periods from
+ * {@link CanBusConstants} that the IO classes configure the motors with. The bus load is then
+ * (frames per second x bits per frame) / bits per second.
+ *
+ * <p>This runs in three places:
+ *
+ * <ul>
+ *   <li>Offline: {@code CanBusBudgetTest} (part of {@code ./gradlew test} and every {@code
+ *       ./gradlew build}) prints the table for every {@link FrameProfile} and fails if any of them
+ *       is above {@link CanBusConstants#MAX_PROJECTED_UTILIZATION}.
+ *   <li>At startup: {@link #start()} prints the same tables to the console.
+ *   <li>While running: {@link #periodic()} publishes the measured load from the roboRIO next to the
+ *       projection under {@code CANBus/} in NetworkTables. If they disagree a lot, a device is
+ *       sending frames we forgot to list here (or a period in the code doesn't match).
+ * </ul>
+ *
+ * <p>Like the loop timings, the measured load goes to NetworkTables directly instead of the
+ * AdvantageKit log, because it can't be reproduced in log replay.
+ */
+public final class CanBusBudget {
+  /** One periodic frame on the bus. */
+  public record Frame(String device, String name, double periodMs) {
+    public double framesPerSecond() {
+      return 1000.0 / periodMs;
+    }
+  }
+
+  private static NetworkTable s_table;
+  private static DoublePublisher s_projectedPublisher;
+  private static DoublePublisher s_measuredPublisher;
+  private static DoublePublisher s_txFullPublisher;
+  private static DoublePublisher s_receiveErrorPublisher;
+  private static DoublePublisher s_transmitErrorPublisher;
+  private static int s_loopsSincePublish = 0;
+
+  private CanBusBudget() {}
+
+  /**
+   * Lists every frame the robot sends or receives, for the hardware set up in Constants.
+   *
+   * @param profile The frame rates for one robot mode
+   */
+  public static List<Frame> declaredFrames(FrameProfile profile) {
+    List<Frame> frames = new ArrayList<>();
+
+    // Drive (4 motors)
+    String[] driveMotors = {"FrontLeft", "RearLeft", "FrontRight", "RearRight"};
+    for (String motor : driveMotors) {
+      String device = "Drive" + motor;
+      if (DriveConstants.CURRENT_DRIVETRAIN_TYPE
+          == DriveConstants.DrivetrainHardwareType.SPARK_MAX_NEO) {
+        // Velocity and position share one frame, which goes at the faster of the two
+        int encoderMs = Math.min(CanBusConstants.DRIVE_ODOMETRY_FRAME_MS, profile.driveVelocityMs);
+        frames.add(new Frame(device, "Status0 (Output/Current)", profile.generalMs));
+        frames.add(new Frame(device, "Status1 (Faults)", CanBusConstants.SPARK_DEFAULT_FAULTS_MS));
+        frames.add(new Frame(device, "Status2 (Encoder)", encoderMs));
+        frames.add(new Frame(device, "Control", CanBusConstants.SPARK_CONTROL_MS));
+      } else {
+        int feedbackMs =
+            DriveConstants.HAS_DRIVE_ENCODERS
+                ? CanBusConstants.DRIVE_ODOMETRY_FRAME_MS
+                : CanBusConstants.DRIVE_TALON_FEEDBACK_MS;
+        addTalonSrx(
+            frames,
+            device,
+            profile.generalMs,
+            feedbackMs,
+            profile.ainMs,
+            CanBusConstants.DRIVE_TALON_UNUSED_MS,
+            CanBusConstants.DRIVE_TALON_UNUSED_MS,
+            CanBusConstants.DRIVE_TALON_UNUSED_MS);
+      }
+    }
+
+    // Pivot and shield
+    if (PivotConstants.PIVOT_ENABLED) {
+      addTalonSrx(
+          frames,
+          "Pivot",
+          profile.generalMs,
+          profile.mechanismFeedbackMs,
+          profile.ainMs,
+          CanBusConstants.MECHANISM_MISC_MS,
+          profile.mechanismClosedLoopMs,
+          profile.mechanismClosedLoopMs);
+    }
+    if (ShieldConstants.SHIELD_ENABLED) {
+      addTalonSrx(
+          frames,
+          "Shield",
+          profile.generalMs,
+          profile.mechanismFeedbackMs,
+          profile.ainMs,
+          CanBusConstants.MECHANISM_MISC_MS,
+          profile.mechanismClosedLoopMs,
+          profile.mechanismClosedLoopMs);
+    }
+
+    if (ShooterConstants.SHOOTER_ENABLED) {
+      // Flywheel TalonFX: optimizeBusUtilization() turns off every signal we didn't ask for.
+      // Counted as one frame per signal, which is a little pessimistic.
+      double velocityMs = 1000.0 / profile.shooterVelocityHz;
+      double electricalMs = 1000.0 / profile.shooterElectricalHz;
+      frames.add(new Frame("Shooter", "Velocity", velocityMs));
+      frames.add(new Frame("Shooter", "Acceleration", velocityMs));
+      frames.add(new Frame("Shooter", "MotorVoltage", electricalMs));
+      frames.add(new Frame("Shooter", "SupplyCurrent", electricalMs));
+      frames.add(new Frame("Shooter", "StatorCurrent", electricalMs));
+      frames.add(
+          new Frame("Shooter", "DeviceTemp", 1000.0 / CanBusConstants.SHOOTER_TEMPERATURE_FREQUENCY));
+      frames.add(new Frame("Shooter", "Control", CanBusConstants.PHOENIX6_CONTROL_MS));
+
+      addTalonSrx(
+          frames,
+          "Feeder",
+          profile.feederGeneralMs,
+          CanBusConstants.FEEDER_FEEDBACK_MS,
+          profile.ainMs,
+          CanBusConstants.FEEDER_MISC_MS,
+          CanBusConstants.TALON_SRX_DEFAULT_SLOW_MS,
+          CanBusConstants.TALON_SRX_DEFAULT_SLOW_MS);
+    }
+
+    // Power distribution broadcasts its channel currents whether we read them or not
+    for (int i = 0; i < CanBusConstants.POWER_DISTRIBUTION_FRAMES; i++) {
+      frames.add(
+          new Frame("PowerDistribution", "Status" + i, CanBusConstants.POWER_DISTRIBUTION_PERIOD_MS));
+    }
+    return frames;
+  }
+
+  /** Adds the frames a TalonSRX sends (the ones we set, plus the ones left at default). */
+  private static void addTalonSrx(
+      List<Frame> frames,
+      String device,
+      int generalMs,
+      int feedbackMs,
+      int ainMs,
+      int miscMs,
+      int motionMagicMs,
+      int pidf0Ms) {
+    frames.add(new Frame(device, "Status_1_General", generalMs));
+    frames.add(new Frame(device, "Status_2_Feedback0", feedbackMs));
+    frames.add(new Frame(device, "Status_4_AinTempVbat", ainMs));
+    frames.add(new Frame(device, "Status_6_Misc", miscMs));
+    frames.add(new Frame(device, "Status_10_MotionMagic", motionMagicMs));
+    frames.add(new Frame(device, "Status_13_Base_PIDF0", pidf0Ms));
+    // Never set by us, so they stay at the factory rate
+    for (String frame :
+        new String[] {
+          "Status_3_Quadrature", "Status_8_PulseWidth", "Status_12_Feedback1", "Status_14_Turn_PIDF1"
+        }) {
+      frames.add(new Frame(device, frame, CanBusConstants.TALON_SRX_DEFAULT_SLOW_MS));
+    }
+    frames.add(new Frame(device, "Control", CanBusConstants.PHOENIX5_CONTROL_MS));
+  }
+
+  /**
+   * Projected bus load for a list of frames.
+   *
+   * @return Fraction of the bus in use (0.0 to 1.0+)
+   */
+  public static double projectedUtilization(List<Frame> frames) {
+    double framesPerSecond = 0.0;
+    for (Frame frame : frames) {
+      framesPerSecond += frame.framesPerSecond();
+    }
+    return framesPerSecond * CanBusConstants.BITS_PER_FRAME / CanBusConstants.BUS_BITS_PER_SECOND;
+  }
+
+  /** A table of the load each device adds, for the console. */
+  public static String report(FrameProfile profile, List<Frame> frames) {
+    StringBuilder report = new StringBuilder("CAN bus budget (" + profile + "):\n");
+    String device = null;
+    double deviceFramesPerSecond = 0.0;
+    double totalFramesPerSecond = 0.0;
+    for (Frame frame : frames) {
+      if (!frame.device().equals(device)) {
+        appendDevice(report, device, deviceFramesPerSecond);
+        device = frame.device();
+        deviceFramesPerSecond = 0.0;
+      }
+      deviceFramesPerSecond += frame.framesPerSecond();
+      totalFramesPerSecond += frame.framesPerSecond();
+    }
+    appendDevice(report, device, deviceFramesPerSecond);
+    report.append(
+        String.format(
+            "  %-20s %7.0f frames/s  %5.1f%% (limit %.0f%%)%n",
+            "TOTAL",
+            totalFramesPerSecond,
+            projectedUtilization(frames) * 100.0,
+            CanBusConstants.MAX_PROJECTED_UTILIZATION * 100.0));
+    return report.toString();
+  }
+
+  private static void appendDevice(StringBuilder report, String device, double framesPerSecond) {
+    if (device == null) {
+      return;
+    }
+    report.append(
+        String.format(
+            "  %-20s %7.0f frames/s  %5.1f%%%n",
+            device,
+            framesPerSecond,
+            framesPerSecond * CanBusConstants.BITS_PER_FRAME / CanBusConstants.BUS_BITS_PER_SECOND
+                * 100.0));
+  }
+
+  /**
+   * Prints the projected load for every mode and starts publishing measured vs projected. Call
+   * once from robotInit.
+   */
+  public static void start() {
+    for (FrameProfile profile : FrameProfile.values()) {
+      List<Frame> frames = declaredFrames(profile);
+      double projected = projectedUtilization(frames);
+      System.out.print(report(profile, frames));
+      if (projected > CanBusConstants.MAX_PROJECTED_UTILIZATION) {
+        DriverStation.reportWarning(
+            String.format(
+                "Projected CAN bus load in %s is %.0f%%, over budget", profile, projected * 100.0),
+            false);
+      }
+    }
+
+    s_table = NetworkTableInstance.getDefault().getTable("CANBus");
+    s_projectedPublisher = s_table.getDoubleTopic("ProjectedUtilization").publish();
+    s_measuredPublisher = s_table.getDoubleTopic("MeasuredUtilization").publish();
+    s_txFullPublisher = s_table.getDoubleTopic("TxFullCount").publish();
+    s_receiveErrorPublisher = s_table.getDoubleTopic("ReceiveErrorCount").publish();
+    s_transmitErrorPublisher = s_table.getDoubleTopic("TransmitErrorCount").publish();
+    setProfile(CanBusConstants.STARTUP_PROFILE);
+  }
+
+  /** Updates the published projection after the frame rates change with the robot mode. */
+  public static void setProfile(FrameProfile profile) {
+    if (s_table == null) {
+      return;
+    }
+    s_projectedPublisher.set(projectedUtilization(declaredFrames(profile)));
+  }
+
+  /** Publishes the measured bus load every few loops. Call from robotPeriodic. */
+  public static void periodic() {
+    if (s_table == null || ++s_loopsSincePublish < CanBusConstants.PUBLISH_PERIOD_LOOPS) {
+      return;
+    }
+    s_loopsSincePublish = 0;
+
+    CANStatus status = RobotController.getCANStatus();
+    s_measuredPublisher.set(status.percentBusUtilization);
+    s_txFullPublisher.set(status.txFullCount);
+    s_receiveErrorPublisher.set(status.receiveErrorCount);
+    s_transmitErrorPublisher.set(status.transmitErrorCount);
+  }
+}
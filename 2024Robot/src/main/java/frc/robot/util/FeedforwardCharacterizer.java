@@ -0,0 +1,105 @@
+package frc.robot.util;
+
+/**
+ * Fits a motor feedforward (kS, kV, kA) to logged voltage/velocity/acceleration samples.
+ *
+ * <p>The model is the same one WPILib's {@code SimpleMotorFeedforward} uses:
+ *
+ * <pre>volts = kS * sign(velocity) + kV * velocity + kA * acceleration</pre>
+ *
+ * <p>It is fit with ordinary least squares, like SysId does. Instead of keeping every sample, only
+ * the running sums needed by the least squares ("normal equations") are kept, so adding a sample
+ * never allocates and the memory use doesn't grow with the length of the test.
+ */
+public final class FeedforwardCharacterizer {
+  // Running sums of x * x^T (3x3, symmetric) and x * volts, where x = {sign(v), v, a}
+  private final double[][] m_xtx = new double[3][3];
+  private final double[] m_xty = new double[3];
+  private final double[] m_row = new double[3];
+  private final double m_minVelocity;
+  private int m_sampleCount = 0;
+
+  /**
+   * @param minVelocity Samples slower than this are skipped, because sign(velocity) is
+   *     meaningless while the motor is (nearly) stopped
+   */
+  public FeedforwardCharacterizer(double minVelocity) {
+    m_minVelocity = minVelocity;
+  }
+
+  /** Forgets every sample. */
+  public void reset() {
+    for (int i = 0; i < 3; i++) {
+      m_xty[i] = 0.0;
+      for (int j = 0; j < 3; j++) {
+        m_xtx[i][j] = 0.0;
+      }
+    }
+    m_sampleCount = 0;
+  }
+
+  /**
+   * Adds one sample.
+   *
+   * @param volts Voltage applied to the motor
+   * @param velocity Measured velocity
+   * @param acceleration Measured acceleration (velocity units per second)
+   */
+  public void addSample(double volts, double velocity, double acceleration) {
+    if (Math.abs(velocity) < m_minVelocity
+        || !Double.isFinite(volts)
+        || !Double.isFinite(velocity)
+        || !Double.isFinite(acceleration)) {
+      return;
+    }
+    m_row[0] = Math.signum(velocity);
+    m_row[1] = velocity;
+    m_row[2] = acceleration;
+    for (int i = 0; i < 3; i++) {
+      m_xty[i] += m_row[i] * volts;
+      for (int j = 0; j < 3; j++) {
+        m_xtx[i][j] += m_row[i] * m_row[j];
+      }
+    }
+    m_sampleCount++;
+  }
+
+  /** Returns how many samples were used so far. */
+  public int getSampleCount() {
+    return m_sampleCount;
+  }
+
+  /**
+   * Solves for the gains.
+   *
+   * @return {kS, kV, kA}, or null if there isn't enough data (e.g. the motor never moved, or only
+   *     ever went at one speed)
+   */
+  public double[] fit() {
+    if (m_sampleCount < 3) {
+      return null;
+    }
+    // Cramer's rule on the 3x3 normal equations
+    double det = determinant(m_xtx);
+    if (Math.abs(det) < 1e-12) {
+      return null;
+    }
+    double[] gains = new double[3];
+    double[][] replaced = new double[3][3];
+    for (int col = 0; col < 3; col++) {
+      for (int i = 0; i < 3; i++) {
+        for (int j = 0; j < 3; j++) {
+          replaced[i][j] = j == col ? m_xty[i] : m_xtx[i][j];
+        }
+      }
+      gains[col] = determinant(replaced) / det;
+    }
+    return gains;
+  }
+
+  private static double determinant(double[][] m) {
+    return m[0][0] * (m[1][1] * m[2][2] - m[1][2] * m[2][1])
+        - m[0][1] * (m[1][0] * m[2][2] - m[1][2] * m[2][0])
+        + m[0][2] * (m[1][0] * m[2][1] - m[1][1] * m[2][0]);
+  }
+}
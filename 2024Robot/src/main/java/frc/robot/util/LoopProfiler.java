@@ -0,0 +1,127 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.DiagnosticsConstants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how long each part of the robot loop takes and publishes the results.
+ *
+ * <p>Three kinds of timers are kept:
+ *
+ * <ul>
+ *   <li>One per subsystem {@code periodic()} (subsystems call {@link #timer(String)} and wrap
+ *       their periodic body with {@link LoopTimer#start()}/{@link #stop(LoopTimer)}).
+ *   <li>One per command name, measured between scheduler callbacks. The scheduler has no "before
+ *       execute" hook, so a command's time also includes any trigger polling or command
+ *       initialization that ran just before it.
+ *   <li>One for the whole {@link CommandScheduler#run()} call.
+ * </ul>
+ *
+ * <p>Every {@link DiagnosticsConstants#PROFILER_PUBLISH_PERIOD_LOOPS} loops, each timer's p50,
+ * p99, max (ms) and overrun count are published to NetworkTables under {@code LoopTiming/}. The
+ * numbers go to NetworkTables directly instead of the AdvantageKit log because timings are
+ * different on every run and would show up as false differences in log replay.
+ */
+public final class LoopProfiler {
+  private static final long BUDGET_NANOS =
+      (long) (DiagnosticsConstants.LOOP_PERIOD_SECONDS * 1e9);
+
+  private static final NetworkTable s_table =
+      NetworkTableInstance.getDefault().getTable("LoopTiming");
+
+  private static final List<LoopTimer> s_timers = new ArrayList<>();
+  private static final List<DoubleArrayPublisher> s_publishers = new ArrayList<>();
+  private static final Map<String, LoopTimer> s_commandTimers = new HashMap<>();
+
+  // {p50, p99, max, overruns}, reused for every publish
+  private static final double[] s_stats = new double[4];
+
+  private static final LoopTimer s_schedulerTimer = timer("Scheduler.run");
+
+  private static long s_lastMarkNanos = 0;
+  private static int s_loopsSincePublish = 0;
+  private static boolean s_installed = false;
+
+  private LoopProfiler() {}
+
+  /**
+   * Creates and registers a timer. Call this once at startup (e.g. as a field initializer), never
+   * inside the loop.
+   *
+   * @param name Name shown on the dashboard
+   * @return the new timer
+   */
+  public static LoopTimer timer(String name) {
+    LoopTimer timer =
+        new LoopTimer(name, DiagnosticsConstants.PROFILER_WINDOW_SIZE, BUDGET_NANOS);
+    s_timers.add(timer);
+    s_publishers.add(s_table.getDoubleArrayTopic(name).publish());
+    return timer;
+  }
+
+  /**
+   * Ends a timed section and marks the point the next command's execute time is measured from.
+   *
+   * @param timer The timer started at the beginning of the section
+   */
+  public static void stop(LoopTimer timer) {
+    s_lastMarkNanos = timer.stop();
+  }
+
+  /** Hooks the command scheduler so every command's execute time is recorded. */
+  public static void install() {
+    if (!DiagnosticsConstants.PROFILER_ENABLED || s_installed) {
+      return;
+    }
+    s_installed = true;
+
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.onCommandInitialize(command -> s_lastMarkNanos = System.nanoTime());
+    scheduler.onCommandExecute(LoopProfiler::recordCommand);
+  }
+
+  /** Call right before {@link CommandScheduler#run()}. */
+  public static void startLoop() {
+    s_schedulerTimer.start();
+    s_lastMarkNanos = System.nanoTime();
+  }
+
+  /** Call right after {@link CommandScheduler#run()}. Publishes at a reduced rate. */
+  public static void endLoop() {
+    s_schedulerTimer.stop();
+
+    if (!DiagnosticsConstants.PROFILER_ENABLED) {
+      return;
+    }
+    if (++s_loopsSincePublish < DiagnosticsConstants.PROFILER_PUBLISH_PERIOD_LOOPS) {
+      return;
+    }
+    s_loopsSincePublish = 0;
+    for (int i = 0; i < s_timers.size(); i++) {
+      LoopTimer timer = s_timers.get(i);
+      timer.computeStatsMs(s_stats);
+      s_stats[3] = timer.getOverruns();
+      s_publishers.get(i).set(s_stats);
+    }
+  }
+
+  private static void recordCommand(Command command) {
+    long now = System.nanoTime();
+    LoopTimer timer = s_commandTimers.get(command.getName());
+    if (timer == null) {
+      // First time we see this command: allocate its timer once
+      timer = timer("Commands/" + command.getName());
+      s_commandTimers.put(command.getName(), timer);
+    }
+    timer.record(now - s_lastMarkNanos);
+    s_lastMarkNanos = now;
+  }
+}
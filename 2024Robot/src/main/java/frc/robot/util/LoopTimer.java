@@ -0,0 +1,100 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of durations for one piece of the robot loop.
+ *
+ * <p>All storage is allocated up front, so recording a sample and computing percentiles never
+ * creates garbage. Not thread-safe: only use it from the main robot thread.
+ */
+public class LoopTimer {
+  private final String m_name;
+  private final long m_budgetNanos;
+  private final long[] m_samples;
+  private final long[] m_sorted;
+
+  private int m_next = 0;
+  private int m_count = 0;
+  private long m_overruns = 0;
+  private long m_startNanos = 0;
+
+  /**
+   * Creates a timer.
+   *
+   * @param name Name shown on the dashboard (e.g. "Drive.periodic")
+   * @param windowSize How many recent samples the percentiles are computed over
+   * @param budgetNanos Samples longer than this count as an overrun
+   */
+  public LoopTimer(String name, int windowSize, long budgetNanos) {
+    m_name = name;
+    m_budgetNanos = budgetNanos;
+    m_samples = new long[windowSize];
+    m_sorted = new long[windowSize];
+  }
+
+  /** Returns the name of this timer. */
+  public String getName() {
+    return m_name;
+  }
+
+  /** Marks the start of a timed section. */
+  public void start() {
+    m_startNanos = System.nanoTime();
+  }
+
+  /**
+   * Marks the end of a timed section started with {@link #start()} and records its duration.
+   *
+   * @return the time the section ended, from {@link System#nanoTime()}
+   */
+  public long stop() {
+    long now = System.nanoTime();
+    record(now - m_startNanos);
+    return now;
+  }
+
+  /**
+   * Records one duration.
+   *
+   * @param nanos Duration in nanoseconds
+   */
+  public void record(long nanos) {
+    m_samples[m_next] = nanos;
+    m_next = (m_next + 1) % m_samples.length;
+    if (m_count < m_samples.length) {
+      m_count++;
+    }
+    if (nanos > m_budgetNanos) {
+      m_overruns++;
+    }
+  }
+
+  /** Returns how many samples ever exceeded the budget. */
+  public long getOverruns() {
+    return m_overruns;
+  }
+
+  /**
+   * Computes statistics over the current window.
+   *
+   * @param out Array of at least 3 elements, filled with {p50, p99, max} in milliseconds
+   */
+  public void computeStatsMs(double[] out) {
+    if (m_count == 0) {
+      out[0] = 0.0;
+      out[1] = 0.0;
+      out[2] = 0.0;
+      return;
+    }
+    System.arraycopy(m_samples, 0, m_sorted, 0, m_count);
+    Arrays.sort(m_sorted, 0, m_count);
+    out[0] = m_sorted[percentileIndex(0.50)] / 1e6;
+    out[1] = m_sorted[percentileIndex(0.99)] / 1e6;
+    out[2] = m_sorted[m_count - 1] / 1e6;
+  }
+
+  private int percentileIndex(double percentile) {
+    return Math.min(m_count - 1, (int) Math.ceil(percentile * m_count) - 1);
+  }
+}
@@ -0,0 +1,220 @@
+package frc.robot.util;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
+import com.ctre.phoenix6.StatusCode;
+import com.revrobotics.REVLibError;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.CanBusConstants;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures motor controllers in the background, all at once, so robotInit doesn't wait on them.
+ *
+ * <p>Every config call waits for the motor controller to answer (up to its timeout). Done one after
+ * another on the main thread, a few dozen of them add up to seconds, which is painful after a
+ * brownout reboot in a match. Here each device gets its own task on a small thread pool.
+ *
+ * <p>The tasks also skip writing settings the device already has ("read-compare-write"): they read
+ * the current config first and only write (and so only wear out the flash) if something changed.
+ *
+ * <p>Until a device's task finishes without an error, {@link #isReady(String)} is false for it and
+ * its subsystem ignores setpoints. A task that throws (a vendor call that returned an error, see
+ * the {@code check} methods) is tried again, up to {@link CanBusConstants#CONFIG_ATTEMPTS} times;
+ * after that the device is reported, {@link #hasFailed(String)} is true and it stays not ready,
+ * since a half-configured controller (no PID gains, no current limit) isn't safe to drive.
+ * Autonomous waits on {@link #waitUntilFinished(double)}, which doesn't wait for devices that
+ * already failed.
+ */
+public final class MotorConfigPipeline {
+  private static final AtomicInteger s_threadCount = new AtomicInteger();
+  private static final ExecutorService s_executor =
+      Executors.newFixedThreadPool(
+          CanBusConstants.CONFIG_THREADS,
+          runnable -> {
+            Thread thread = new Thread(runnable, "MotorConfig-" + s_threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private static final Map<String, CompletableFuture<Void>> s_tasks = new ConcurrentHashMap<>();
+  private static final Set<String> s_failed = ConcurrentHashMap.newKeySet();
+
+  // Doubles read back from a device are rounded to its fixed-point format. Relative only: a tiny
+  // gain like kI = 0.000001 must never count as equal to a stale 0 on the device. (A tiny value the
+  // device rounds by more than this just gets written again, which is safe.)
+  private static final double RELATIVE_TOLERANCE = 1e-3;
+
+  private MotorConfigPipeline() {}
+
+  /**
+   * What a config task does. Returns true if it wrote anything to the device. Throws if a setting
+   * couldn't be applied (use the {@code check} methods on vendor return codes).
+   */
+  @FunctionalInterface
+  public interface ConfigTask {
+    boolean configure();
+  }
+
+  /**
+   * Starts configuring a device in the background.
+   *
+   * @param device Name used by {@link #isReady(String)} and in the console messages
+   * @param task The config calls for that device
+   */
+  public static void submit(String device, ConfigTask task) {
+    long startNanos = System.nanoTime();
+    CompletableFuture<Void> future =
+        CompletableFuture.runAsync(
+            () -> {
+              for (int attempt = 1; attempt <= CanBusConstants.CONFIG_ATTEMPTS; attempt++) {
+                try {
+                  boolean wrote = task.configure();
+                  System.out.printf(
+                      "Motor config: %s done in %.0f ms (%s)%n",
+                      device,
+                      (System.nanoTime() - startNanos) / 1e6,
+                      wrote ? "settings written" : "already up to date");
+                  return;
+                } catch (RuntimeException e) {
+                  DriverStation.reportWarning(
+                      "Motor config for " + device + " failed (attempt " + attempt + "): "
+                          + e.getMessage(),
+                      false);
+                }
+              }
+              // Mark it before the future completes, so nobody sees it done but not failed
+              s_failed.add(device);
+              DriverStation.reportError(
+                  "Motor config for " + device + " FAILED, it will ignore setpoints until reboot",
+                  false);
+            },
+            s_executor);
+    s_tasks.put(device, future);
+  }
+
+  /** Returns true once every submitted device has finished, configured or failed. */
+  public static boolean isFinished() {
+    for (CompletableFuture<Void> task : s_tasks.values()) {
+      if (!task.isDone()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true once a device has been configured without errors. Devices that were never
+   * submitted (disabled, simulated or replayed) are always ready. A failed device never is.
+   */
+  public static boolean isReady(String device) {
+    CompletableFuture<Void> task = s_tasks.get(device);
+    return task == null || (task.isDone() && !s_failed.contains(device));
+  }
+
+  /** Returns true if a device's configuration failed every attempt. */
+  public static boolean hasFailed(String device) {
+    return s_failed.contains(device);
+  }
+
+  /**
+   * Waits until every device has finished (configured or failed), or gives up after a timeout so a
+   * stuck device can't eat the whole autonomous period.
+   *
+   * @param timeoutSeconds Longest wait
+   */
+  public static Command waitUntilFinished(double timeoutSeconds) {
+    return Commands.waitUntil(MotorConfigPipeline::isFinished)
+        .withTimeout(timeoutSeconds)
+        .withName("Wait For Motor Config");
+  }
+
+  /** Throws if a Phoenix 5 call returned an error, so the config task fails (and is retried). */
+  public static void check(ErrorCode code, String what) {
+    if (code != ErrorCode.OK) {
+      throw new IllegalStateException(what + " returned " + code);
+    }
+  }
+
+  /** Throws if a Phoenix 6 call returned an error. */
+  public static void check(StatusCode code, String what) {
+    if (!code.isOK()) {
+      throw new IllegalStateException(what + " returned " + code);
+    }
+  }
+
+  /** Throws if a REVLib call returned an error. */
+  public static void check(REVLibError code, String what) {
+    if (code != REVLibError.kOk) {
+      throw new IllegalStateException(what + " returned " + code);
+    }
+  }
+
+  /**
+   * Writes a whole TalonSRX configuration, but only if the device doesn't already have it.
+   *
+   * <p>Settings that aren't in {@code desired} are factory defaults, so this also replaces {@code
+   * configFactoryDefault()}.
+   *
+   * @return true if the settings were written
+   */
+  public static boolean applyIfChanged(TalonSRX motor, TalonSRXConfiguration desired) {
+    TalonSRXConfiguration current = new TalonSRXConfiguration();
+    // If the read fails we can't trust the comparison, so write
+    ErrorCode read = motor.getAllConfigs(current, CanBusConstants.CONFIG_TIMEOUT_MS);
+    if (read == ErrorCode.OK && configsMatch(desired, current)) {
+      return false;
+    }
+    check(
+        motor.configAllSettings(desired, CanBusConstants.CONFIG_TIMEOUT_MS),
+        "TalonSRX " + motor.getDeviceID() + " configAllSettings");
+    return true;
+  }
+
+  /**
+   * Compares two vendor config objects field by field (including nested ones like slot gains).
+   * Doubles only need to be within {@link #RELATIVE_TOLERANCE} of each other, since devices store
+   * them rounded. Zero only matches zero.
+   */
+  public static boolean configsMatch(Object desired, Object current) {
+    if (desired == null || current == null) {
+      return desired == current;
+    }
+    if (desired instanceof Number && current instanceof Number) {
+      double a = ((Number) desired).doubleValue();
+      double b = ((Number) current).doubleValue();
+      // With one side 0 this is |a| <= 0.001 * |a|, which is false, so 0 only matches 0
+      return Math.abs(a - b) <= RELATIVE_TOLERANCE * Math.max(Math.abs(a), Math.abs(b));
+    }
+    if (!desired.getClass().getName().startsWith("com.ctre.")
+        || desired.getClass().isEnum()) {
+      return desired.equals(current);
+    }
+    for (Class<?> type = desired.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) || !Modifier.isPublic(field.getModifiers())) {
+          continue;
+        }
+        try {
+          if (!configsMatch(field.get(desired), field.get(current))) {
+            return false;
+          }
+        } catch (IllegalAccessException e) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
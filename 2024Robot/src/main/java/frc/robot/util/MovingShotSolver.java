@@ -0,0 +1,114 @@
+package frc.robot.util;
+
+/**
+ * Works out how to shoot while the robot is driving.
+ *
+ * <p>A note leaves the shooter with the robot's velocity added to it. If the robot drives sideways
+ * at 2 m/s and the note flies for 0.4 s, it lands 0.8 m to the side of where we aimed. So instead
+ * of aiming at the speaker, we aim at a "virtual target" that is the speaker moved BACK along our
+ * velocity by (velocity times flight time). The note's drift then carries it into the real speaker.
+ *
+ * <p>The catch: the flight time depends on the distance, and the distance depends on where the
+ * virtual target is. So we guess, move the target, look up the new flight time, and repeat. Each
+ * round gets closer (as long as the robot is slower than the note), and it stops after {@code
+ * maxIterations} rounds no matter what, so it always fits in the loop.
+ *
+ * <p>One solver is reused every loop and the results are kept in its fields, so solving never
+ * allocates. Only use it from one thread.
+ */
+public final class MovingShotSolver {
+  private final ShotMap m_shotMap;
+  private final int m_maxIterations;
+  private final double m_toleranceSeconds;
+
+  // Results of the last solve()
+  private double m_distance = Double.NaN;
+  private double m_headingRadians = Double.NaN;
+  private double m_flightTime = Double.NaN;
+  private int m_iterations = 0;
+  private boolean m_converged = false;
+
+  /**
+   * @param shotMap Flight time (and pivot/flywheel) for each distance
+   * @param maxIterations Most rounds of guess-and-correct per solve
+   * @param toleranceSeconds Stop once the flight time changes less than this between rounds
+   */
+  public MovingShotSolver(ShotMap shotMap, int maxIterations, double toleranceSeconds) {
+    m_shotMap = shotMap;
+    m_maxIterations = maxIterations;
+    m_toleranceSeconds = toleranceSeconds;
+  }
+
+  /**
+   * Solves for a shot. All positions are field coordinates in meters, velocities in m/s.
+   *
+   * @param robotX Where the shooter is
+   * @param robotY Where the shooter is
+   * @param velocityX Field-relative robot velocity
+   * @param velocityY Field-relative robot velocity
+   * @param targetX Where the speaker is
+   * @param targetY Where the speaker is
+   * @return true if the flight time settled within the iteration limit
+   */
+  public boolean solve(
+      double robotX,
+      double robotY,
+      double velocityX,
+      double velocityY,
+      double targetX,
+      double targetY) {
+    // First guess: the flight time if we were standing still
+    double dx = targetX - robotX;
+    double dy = targetY - robotY;
+    double flightTime = m_shotMap.getFlightTime(Math.hypot(dx, dy));
+
+    m_converged = false;
+    m_iterations = 0;
+    while (m_iterations < m_maxIterations) {
+      m_iterations++;
+      // Virtual target: the speaker moved back by how far the robot carries the note in flight
+      dx = targetX - velocityX * flightTime - robotX;
+      dy = targetY - velocityY * flightTime - robotY;
+      double newFlightTime = m_shotMap.getFlightTime(Math.hypot(dx, dy));
+      double change = Math.abs(newFlightTime - flightTime);
+      flightTime = newFlightTime;
+      if (change < m_toleranceSeconds) {
+        m_converged = true;
+        break;
+      }
+    }
+
+    // Aim with the last virtual target, but look up the shot for the flight time we ended on
+    dx = targetX - velocityX * flightTime - robotX;
+    dy = targetY - velocityY * flightTime - robotY;
+    m_distance = Math.hypot(dx, dy);
+    m_headingRadians = Math.atan2(dy, dx);
+    m_flightTime = flightTime;
+    return m_converged;
+  }
+
+  /** Distance to the virtual target (meters). Look up the pivot and flywheel with this. */
+  public double getDistance() {
+    return m_distance;
+  }
+
+  /** Field-relative direction to point the shooter (radians, counter-clockwise from +X). */
+  public double getHeadingRadians() {
+    return m_headingRadians;
+  }
+
+  /** Predicted flight time of the note (seconds). */
+  public double getFlightTime() {
+    return m_flightTime;
+  }
+
+  /** Rounds of guess-and-correct the last solve used. */
+  public int getIterations() {
+    return m_iterations;
+  }
+
+  /** True if the last solve settled within the iteration limit. */
+  public boolean isConverged() {
+    return m_converged;
+  }
+}
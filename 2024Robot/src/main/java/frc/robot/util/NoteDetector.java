@@ -0,0 +1,164 @@
+package frc.robot.util;
+
+import frc.robot.Constants.DiagnosticsConstants;
+import java.util.Arrays;
+
+/**
+ * Tells when the feeder grabs a note, shoots it or jams, from nothing but the feeder motor current
+ * (no beam break needed).
+ *
+ * <p>How it works: a spinning feeder with nothing in it draws a little current. Squeezing a note
+ * takes more. Something stuck takes a lot more. The current is noisy, so it is averaged over the
+ * last few samples (a ring buffer, like {@link LoopTimer}), and each level has to last a while
+ * ("debounce") before it counts:
+ *
+ * <ul>
+ *   <li>{@link Event#NOTE_ACQUIRED}: intaking (feeder reversed) and the current stays above the
+ *       note level.
+ *   <li>{@link Event#NOTE_FIRED}: feeding forward with a note, and the current drops back to the
+ *       empty level. The feeder is spinning free, so the note is gone.
+ *   <li>{@link Event#JAMMED}: either direction, and the current stays above the jam level.
+ * </ul>
+ *
+ * <p>A motor draws a big spike when it starts, so every time the feeder speed changes the buffer is
+ * cleared and the first samples are ignored. Call {@link #update} once per loop. Only use it from
+ * the main robot thread; it never allocates.
+ */
+public class NoteDetector {
+  /** What happened this loop. Each event is reported on one loop only. */
+  public enum Event {
+    NONE,
+    NOTE_ACQUIRED,
+    NOTE_FIRED,
+    JAMMED
+  }
+
+  private final double m_noteAmps;
+  private final double m_jamAmps;
+  private final int m_blankingLoops;
+  private final int m_noteDebounceLoops;
+  private final int m_jamDebounceLoops;
+
+  // Ring buffer of the latest current samples and their running sum
+  private final double[] m_samples;
+  private int m_next = 0;
+  private int m_count = 0;
+  private double m_sum = 0.0;
+
+  // The run in progress (restarted whenever the feeder speed changes)
+  private double m_feederSpeed = 0.0;
+  private int m_runLoops = 0;
+  private int m_loadedLoops = 0;
+  private int m_emptyLoops = 0;
+  private int m_jamLoops = 0;
+  private boolean m_pushing = false;
+
+  private boolean m_hasNote = false;
+  private double m_filteredAmps = 0.0;
+
+  /**
+   * @param windowSize How many samples are averaged
+   * @param blankingSeconds Samples ignored after the feeder speed changes (start-up spike)
+   * @param noteAmps Above this the feeder is squeezing a note
+   * @param noteDebounceSeconds How long the current must stay above/below noteAmps
+   * @param jamAmps Above this the feeder is stuck
+   * @param jamDebounceSeconds How long the current must stay above jamAmps
+   */
+  public NoteDetector(
+      int windowSize,
+      double blankingSeconds,
+      double noteAmps,
+      double noteDebounceSeconds,
+      double jamAmps,
+      double jamDebounceSeconds) {
+    m_samples = new double[windowSize];
+    m_noteAmps = noteAmps;
+    m_jamAmps = jamAmps;
+    m_blankingLoops = toLoops(blankingSeconds);
+    m_noteDebounceLoops = Math.max(1, toLoops(noteDebounceSeconds));
+    m_jamDebounceLoops = Math.max(1, toLoops(jamDebounceSeconds));
+  }
+
+  private static int toLoops(double seconds) {
+    return (int) Math.ceil(seconds / DiagnosticsConstants.LOOP_PERIOD_SECONDS);
+  }
+
+  /**
+   * Adds this loop's sample.
+   *
+   * @param currentAmps Feeder stator current (the motor's load, whatever the output)
+   * @param feederSpeed What the feeder was told to do (-1.0 to 1.0, negative = intake). Pass 0
+   *     while disabled, since the motor is off no matter what it was told.
+   * @return What happened this loop
+   */
+  public Event update(double currentAmps, double feederSpeed) {
+    if (feederSpeed != m_feederSpeed) {
+      restart(feederSpeed);
+    }
+    if (feederSpeed == 0.0) {
+      return Event.NONE;
+    }
+
+    m_runLoops++;
+    m_sum += currentAmps - m_samples[m_next];
+    m_samples[m_next] = currentAmps;
+    m_next = (m_next + 1) % m_samples.length;
+    if (m_count < m_samples.length) {
+      m_count++;
+    }
+    if (m_runLoops <= m_blankingLoops || m_count < m_samples.length) {
+      return Event.NONE;
+    }
+    m_filteredAmps = m_sum / m_samples.length;
+
+    // Jammed: only reported once per stall, and again if it frees up and sticks again
+    m_jamLoops = m_filteredAmps > m_jamAmps ? m_jamLoops + 1 : 0;
+    if (m_jamLoops == m_jamDebounceLoops) {
+      return Event.JAMMED;
+    }
+
+    boolean loaded = m_filteredAmps > m_noteAmps;
+    m_loadedLoops = loaded ? m_loadedLoops + 1 : 0;
+    m_emptyLoops = loaded ? 0 : m_emptyLoops + 1;
+    if (feederSpeed < 0.0) {
+      if (!m_hasNote && m_loadedLoops >= m_noteDebounceLoops) {
+        m_hasNote = true;
+        return Event.NOTE_ACQUIRED;
+      }
+    } else {
+      // Also catches a note we didn't see come in (the preload) once it's seen being pushed
+      if (m_loadedLoops >= m_noteDebounceLoops) {
+        m_pushing = true;
+      }
+      if ((m_hasNote || m_pushing) && m_emptyLoops >= m_noteDebounceLoops) {
+        m_hasNote = false;
+        m_pushing = false;
+        return Event.NOTE_FIRED;
+      }
+    }
+    return Event.NONE;
+  }
+
+  private void restart(double feederSpeed) {
+    m_feederSpeed = feederSpeed;
+    Arrays.fill(m_samples, 0.0);
+    m_next = 0;
+    m_count = 0;
+    m_sum = 0.0;
+    m_runLoops = 0;
+    m_loadedLoops = 0;
+    m_emptyLoops = 0;
+    m_jamLoops = 0;
+    m_pushing = false;
+  }
+
+  /** True from when a note was acquired until it was fired. */
+  public boolean hasNote() {
+    return m_hasNote;
+  }
+
+  /** The averaged current the last decision was made on (Amps). */
+  public double getFilteredAmps() {
+    return m_filteredAmps;
+  }
+}
@@ -0,0 +1,192 @@
+package frc.robot.util;
+
+/**
+ * Plans a pivot and shield move together, so they can move at the same time without hitting each
+ * other.
+ *
+ * <p>The rule: the shield is down (at or below its clear position) only while the pivot is past the
+ * crossing position (down toward intake, by more than a tolerance), and back up only while the
+ * pivot is above that. So the
+ * shield can only change sides after the pivot does. The old way was to watch the pivot and start
+ * the shield once it had crossed, so the shield always started late. Here we work out ahead of time
+ * <em>when</em> the pivot will cross (it moves on a trapezoid profile: speed up, cruise, slow
+ * down), and start the shield early enough that it passes its clear position just after that. The
+ * pivot never waits.
+ *
+ * <p>The timing is only as good as the speeds and accelerations it's given (see {@code PLAN_*} in
+ * Constants), so there's a margin on every crossing, and {@link #shieldMayMove} checks the measured
+ * pivot before the shield goal is sent. Planning steps a simple profile in 1 ms
+ * steps, only when a goal changes. It never allocates. Only use it from one thread.
+ */
+public final class PivotShieldPlanner {
+  private static final double STEP_SECONDS = 0.001;
+  private static final double MAX_PLAN_SECONDS = 5.0;
+
+  private final double m_pivotMaxVelocity;
+  private final double m_pivotAcceleration;
+  private final double m_shieldMaxVelocity;
+  private final double m_shieldAcceleration;
+  private final double m_downPosition; // Pivot is down past this
+  private final double m_shieldClearPosition;
+  private final double m_marginSeconds;
+
+  // Results of the last plan()
+  private double m_shieldStartTime = 0.0;
+  private double m_shieldGoal = 0.0;
+
+  // Filled in by simulatePivot()
+  private double m_pivotFirstLowTime;
+  private double m_pivotLastLowTime;
+
+  /**
+   * @param pivotMaxVelocity Pivot cruise speed (counts per second)
+   * @param pivotAcceleration Pivot acceleration (counts per second squared)
+   * @param shieldMaxVelocity Shield top speed (counts per second)
+   * @param shieldAcceleration Shield acceleration (counts per second squared)
+   * @param crossingPosition Past this (higher counts) the pivot is down
+   * @param crossingTolerance How far past the crossing position the pivot has to be to count as
+   *     down (the low shot sits right on it, and the pivot never settles exactly there)
+   * @param shieldClearPosition At or below this the shield is down
+   * @param marginSeconds How long after the pivot crosses the shield may cross
+   */
+  public PivotShieldPlanner(
+      double pivotMaxVelocity,
+      double pivotAcceleration,
+      double shieldMaxVelocity,
+      double shieldAcceleration,
+      double crossingPosition,
+      double crossingTolerance,
+      double shieldClearPosition,
+      double marginSeconds) {
+    m_pivotMaxVelocity = pivotMaxVelocity;
+    m_pivotAcceleration = pivotAcceleration;
+    m_shieldMaxVelocity = shieldMaxVelocity;
+    m_shieldAcceleration = shieldAcceleration;
+    m_downPosition = crossingPosition + crossingTolerance;
+    m_shieldClearPosition = shieldClearPosition;
+    m_marginSeconds = marginSeconds;
+  }
+
+  /**
+   * Plans a move from where the mechanisms are now. The pivot goal can be sent right away; read
+   * when to send the shield goal with the getters.
+   *
+   * @param pivotPosition Pivot position now (counts)
+   * @param pivotVelocity Pivot velocity now (counts per second)
+   * @param pivotGoal Where the pivot should end up (counts)
+   * @param shieldPosition Shield position now (counts)
+   * @param shieldGoal Where the shield should end up (counts)
+   */
+  public void plan(
+      double pivotPosition,
+      double pivotVelocity,
+      double pivotGoal,
+      double shieldPosition,
+      double shieldGoal) {
+    m_shieldStartTime = 0.0;
+    simulatePivot(pivotPosition, pivotVelocity, pivotGoal);
+
+    // The shield ends up on the same side as the pivot, even if asked otherwise
+    boolean pivotEndsDown = pivotGoal > m_downPosition;
+    m_shieldGoal =
+        pivotEndsDown
+            ? Math.min(shieldGoal, m_shieldClearPosition)
+            : Math.max(shieldGoal, m_shieldClearPosition);
+
+    boolean shieldChangesSides = (shieldPosition <= m_shieldClearPosition) != pivotEndsDown;
+    if (shieldChangesSides) {
+      // Going down: wait for the pivot's first crossing. Coming up: for its last one (it may
+      // still be moving the wrong way, or never have been down at all).
+      double pivotCrossTime = pivotEndsDown ? m_pivotFirstLowTime : m_pivotLastLowTime;
+      if (pivotCrossTime >= 0.0) {
+        double shieldCrossTime = shieldTimeTo(shieldPosition, m_shieldGoal, m_shieldClearPosition);
+        m_shieldStartTime = Math.max(0.0, pivotCrossTime + m_marginSeconds - shieldCrossTime);
+      }
+    }
+  }
+
+  /** Seconds after planning to send the shield its goal. */
+  public double getShieldStartTime() {
+    return m_shieldStartTime;
+  }
+
+  /** Where the shield should go: on the same side of its clear position as the pivot ends up. */
+  public double getShieldGoal() {
+    return m_shieldGoal;
+  }
+
+  /**
+   * Checks the plan against the measured pivot before the shield goal is sent: the start time is
+   * only a prediction, and the pivot may be slower than planned or stuck. Only moves that put the
+   * shield down, or bring it back up from down, are checked; a shield that stays up may always
+   * move.
+   *
+   * @param pivotPosition Measured pivot position (counts)
+   * @param pivotStale True if that measurement is too old to trust
+   * @param shieldPosition Measured shield position (counts)
+   * @return true if the shield goal from the last plan can be sent now
+   */
+  public boolean shieldMayMove(double pivotPosition, boolean pivotStale, double shieldPosition) {
+    boolean goalDown = m_shieldGoal <= m_shieldClearPosition;
+    boolean shieldDown = shieldPosition <= m_shieldClearPosition;
+    if (!goalDown && !shieldDown) {
+      return true;
+    }
+    boolean pivotDown = pivotPosition > m_downPosition;
+    return !pivotStale && pivotDown == goalDown;
+  }
+
+  /**
+   * Steps the pivot's profile and records the first and last time it's past the crossing
+   * position (-1 if never). Starts from its current velocity, so a pivot still moving the other
+   * way is counted.
+   */
+  private void simulatePivot(double position, double velocity, double goal) {
+    m_pivotFirstLowTime = position > m_downPosition ? 0.0 : -1.0;
+    m_pivotLastLowTime = m_pivotFirstLowTime;
+    for (double t = STEP_SECONDS; t <= MAX_PLAN_SECONDS; t += STEP_SECONDS) {
+      velocity = step(position, velocity, goal, m_pivotMaxVelocity, m_pivotAcceleration);
+      position += velocity * STEP_SECONDS;
+      if (position > m_downPosition) {
+        if (m_pivotFirstLowTime < 0.0) {
+          m_pivotFirstLowTime = t;
+        }
+        m_pivotLastLowTime = t;
+      }
+      boolean settled =
+          Math.abs(goal - position) < 1.0
+              && Math.abs(velocity) < m_pivotAcceleration * STEP_SECONDS;
+      if (settled) {
+        break;
+      }
+    }
+  }
+
+  /** Seconds for the shield (starting at rest) to reach a position on its way to the goal. */
+  private double shieldTimeTo(double position, double goal, double target) {
+    double velocity = 0.0;
+    for (double t = STEP_SECONDS; t <= MAX_PLAN_SECONDS; t += STEP_SECONDS) {
+      velocity = step(position, velocity, goal, m_shieldMaxVelocity, m_shieldAcceleration);
+      double next = position + velocity * STEP_SECONDS;
+      if ((position - target) * (next - target) <= 0.0) {
+        return t;
+      }
+      position = next;
+    }
+    return MAX_PLAN_SECONDS;
+  }
+
+  /**
+   * One step of a trapezoid profile: speed up toward the goal, no faster than the cruise speed,
+   * and slow down in time to stop on it. Returns the new velocity.
+   */
+  private static double step(
+      double position, double velocity, double goal, double maxVelocity, double acceleration) {
+    double distance = goal - position;
+    double wanted =
+        Math.signum(distance)
+            * Math.min(maxVelocity, Math.sqrt(2.0 * acceleration * Math.abs(distance)));
+    double maxChange = acceleration * STEP_SECONDS;
+    return velocity + Math.max(-maxChange, Math.min(maxChange, wanted - velocity));
+  }
+}
@@ -0,0 +1,206 @@
+package frc.robot.util;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the outputs of a replayed log against the outputs recorded on the robot.
+ *
+ * <p>After a replay, the "_sim" log holds both the original outputs ({@code RealOutputs/...})
+ * and the ones the current code computed from the same inputs ({@code ReplayOutputs/...}). This
+ * tool walks the log one loop at a time and reports every output that changed, including outputs
+ * the robot logged that the replay is missing, so a code change can be regression-tested against
+ * old matches.
+ *
+ * <p>Run with {@code ./gradlew replayDiff -PreplayLog=path/to/log_sim.wpilog}. Exits with code
+ * 1 if any output differs.
+ */
+public final class ReplayDiff {
+  private static final String REAL_PREFIX = "RealOutputs/";
+  private static final String REPLAY_PREFIX = "ReplayOutputs/";
+
+  // Doubles closer than this are treated as equal (covers float round-off only)
+  private static final double EPSILON = 1e-9;
+
+  private ReplayDiff() {}
+
+  /** Running summary for one output key. */
+  private static final class KeyDiff {
+    long mismatchedLoops = 0;
+    long firstMismatchMicros = -1;
+    double maxAbsDelta = 0.0;
+    boolean missingFromReplay = false; // Logged under RealOutputs/ but not ReplayOutputs/
+  }
+
+  /** Entry id -> key name (with prefix stripped) and value type. */
+  private static final class Entry {
+    final String key;
+    final String type;
+    final boolean replay;
+
+    Entry(String key, String type, boolean replay) {
+      this.key = key;
+      this.type = type;
+      this.replay = replay;
+    }
+  }
+
+  public static void main(String... args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: ReplayDiff <replayed log (_sim.wpilog)>");
+      System.exit(2);
+    }
+
+    DataLogReader reader = new DataLogReader(args[0]);
+    if (!reader.isValid()) {
+      System.err.println("Not a valid WPILOG file: " + args[0]);
+      System.exit(2);
+    }
+
+    Map<Integer, Entry> entries = new HashMap<>();
+    Map<String, byte[]> realValues = new HashMap<>();
+    Map<String, byte[]> replayValues = new HashMap<>();
+    Map<String, String> types = new HashMap<>();
+    Map<String, KeyDiff> diffs = new TreeMap<>();
+
+    long loopTimestamp = -1;
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.startsWith(REAL_PREFIX)) {
+          entries.put(
+              start.entry, new Entry(start.name.substring(REAL_PREFIX.length()), start.type, false));
+        } else if (start.name.startsWith(REPLAY_PREFIX)) {
+          entries.put(
+              start.entry, new Entry(start.name.substring(REPLAY_PREFIX.length()), start.type, true));
+        }
+        continue;
+      }
+      if (record.isControl()) {
+        continue;
+      }
+
+      Entry entry = entries.get(record.getEntry());
+      if (entry == null) {
+        continue;
+      }
+
+      // All values for one loop share a timestamp, so compare once the loop is complete
+      if (record.getTimestamp() != loopTimestamp) {
+        if (loopTimestamp >= 0) {
+          compareLoop(loopTimestamp, realValues, replayValues, types, diffs);
+        }
+        loopTimestamp = record.getTimestamp();
+      }
+
+      types.put(entry.key, entry.type);
+      (entry.replay ? replayValues : realValues).put(entry.key, record.getRaw());
+    }
+    if (loopTimestamp >= 0) {
+      compareLoop(loopTimestamp, realValues, replayValues, types, diffs);
+    }
+
+    report(diffs);
+    System.exit(diffs.isEmpty() ? 0 : 1);
+  }
+
+  private static void compareLoop(
+      long timestampMicros,
+      Map<String, byte[]> realValues,
+      Map<String, byte[]> replayValues,
+      Map<String, String> types,
+      Map<String, KeyDiff> diffs) {
+    for (Map.Entry<String, byte[]> replay : replayValues.entrySet()) {
+      String key = replay.getKey();
+      double delta = difference(types.get(key), realValues.get(key), replay.getValue());
+      if (delta != 0.0) {
+        recordMismatch(diffs, key, timestampMicros, delta, false);
+      }
+    }
+    // Outputs the robot logged that the replayed code never did (removed or renamed)
+    for (String key : realValues.keySet()) {
+      if (!replayValues.containsKey(key)) {
+        recordMismatch(diffs, key, timestampMicros, Double.POSITIVE_INFINITY, true);
+      }
+    }
+  }
+
+  private static void recordMismatch(
+      Map<String, KeyDiff> diffs,
+      String key,
+      long timestampMicros,
+      double delta,
+      boolean missingFromReplay) {
+    KeyDiff diff = diffs.computeIfAbsent(key, k -> new KeyDiff());
+    diff.mismatchedLoops++;
+    if (diff.firstMismatchMicros < 0) {
+      diff.firstMismatchMicros = timestampMicros;
+    }
+    diff.maxAbsDelta = Math.max(diff.maxAbsDelta, delta);
+    diff.missingFromReplay |= missingFromReplay;
+  }
+
+  /**
+   * Returns 0 if the values match, the largest absolute difference for numeric values, or
+   * infinity for any other mismatch (missing value, length change, non-numeric change).
+   */
+  private static double difference(String type, byte[] real, byte[] replay) {
+    if (real == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+    if ("double".equals(type) || "double[]".equals(type)) {
+      if (real.length != replay.length) {
+        return Double.POSITIVE_INFINITY;
+      }
+      ByteBuffer realBuffer = ByteBuffer.wrap(real).order(ByteOrder.LITTLE_ENDIAN);
+      ByteBuffer replayBuffer = ByteBuffer.wrap(replay).order(ByteOrder.LITTLE_ENDIAN);
+      double maxDelta = 0.0;
+      while (realBuffer.remaining() >= Double.BYTES) {
+        double delta = Math.abs(realBuffer.getDouble() - replayBuffer.getDouble());
+        if (Double.isNaN(delta)) {
+          return Double.POSITIVE_INFINITY;
+        }
+        maxDelta = Math.max(maxDelta, delta);
+      }
+      return maxDelta > EPSILON ? maxDelta : 0.0;
+    }
+    return Arrays.equals(real, replay) ? 0.0 : Double.POSITIVE_INFINITY;
+  }
+
+  private static void report(Map<String, KeyDiff> diffs) {
+    if (diffs.isEmpty()) {
+      System.out.println("Replay matches: no outputs changed.");
+      return;
+    }
+
+    System.out.println(diffs.size() + " output(s) changed:");
+    System.out.printf("%-48s %10s %12s %14s%n", "Key", "Loops", "First (s)", "Max delta");
+    for (Map.Entry<String, KeyDiff> entry : diffs.entrySet()) {
+      KeyDiff diff = entry.getValue();
+      System.out.printf(
+          "%-48s %10d %12.3f %14s%n",
+          entry.getKey(),
+          diff.mismatchedLoops,
+          diff.firstMismatchMicros / 1e6,
+          describe(diff));
+    }
+  }
+
+  /** The "Max delta" column: the number, or why there isn't one. */
+  private static String describe(KeyDiff diff) {
+    if (diff.missingFromReplay) {
+      return "missing";
+    }
+    if (Double.isInfinite(diff.maxAbsDelta)) {
+      return "changed";
+    }
+    return String.format("%.6g", diff.maxAbsDelta);
+  }
+}
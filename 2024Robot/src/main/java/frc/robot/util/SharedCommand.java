@@ -0,0 +1,90 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * A command that is built once and then used inside many compositions.
+ *
+ * <p>WPILib only lets a command be in ONE composition (sequence, parallel, ...). So every auto that
+ * "shoots high" normally builds its own copy of the whole shooting sequence, with all its lambdas,
+ * names and requirement sets. Instead, build the fragment once, wrap it in a SharedCommand, and
+ * call {@link #use()} in each place that needs it. {@code use()} returns a tiny stand-in command.
+ *
+ * <p>Unlike {@code asProxy()}, the stand-in doesn't schedule the shared command on its own. It runs
+ * the shared command's initialize/execute/end itself and requires the same subsystems, so the
+ * composition around it keeps its requirements and nothing gets interrupted.
+ *
+ * <p>Only one stand-in can run the shared command at a time. That's always true for fragments of
+ * different autos, since only one auto runs. If a second one starts anyway, the first is ended as
+ * interrupted, just like a subsystem requirement conflict would.
+ */
+public final class SharedCommand {
+  private final Command m_command;
+  private final Subsystem[] m_requirements;
+  private Command m_activeUse = null;
+
+  /**
+   * @param command The fragment to share. From now on it can only run through {@link #use()}.
+   */
+  public SharedCommand(Command command) {
+    m_command = command;
+    m_requirements = command.getRequirements().toArray(new Subsystem[0]);
+    // Marks it as composed, so it can't also be scheduled or composed directly by mistake
+    CommandScheduler.getInstance().registerComposedCommands(command);
+  }
+
+  /** Returns a new stand-in for the shared command, to put in a composition. */
+  public Command use() {
+    return new Use();
+  }
+
+  private final class Use extends Command {
+    private Use() {
+      addRequirements(m_requirements);
+      setName(m_command.getName());
+    }
+
+    @Override
+    public void initialize() {
+      if (m_activeUse != null) {
+        DriverStation.reportWarning(
+            m_command.getName() + " was already running in another command; restarting it", false);
+        m_command.end(true);
+      }
+      m_activeUse = this;
+      m_command.initialize();
+    }
+
+    @Override
+    public void execute() {
+      m_command.execute();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return m_command.isFinished();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+      // A newer stand-in may have taken over; it ends the shared command itself
+      if (m_activeUse == this) {
+        m_command.end(interrupted);
+        m_activeUse = null;
+      }
+    }
+
+    @Override
+    public boolean runsWhenDisabled() {
+      return m_command.runsWhenDisabled();
+    }
+
+    @Override
+    public InterruptionBehavior getInterruptionBehavior() {
+      return m_command.getInterruptionBehavior();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which pivot angle and flywheel speed to use at each distance from the speaker.
+ *
+ * <p>The table is measured on the practice field: park at a distance, tune the shot until it goes
+ * in, write down the pivot counts and flywheel speed. Between rows the values are interpolated in
+ * a straight line; past either end the nearest row is used.
+ *
+ * <p>The columns are kept in sorted {@code double[]} arrays (no lists of objects), so a lookup is
+ * a binary search plus some multiplication: O(log n), no boxing and no garbage. It's cheap enough
+ * to run every loop.
+ *
+ * <p>File format (CSV, in src/main/deploy): one {@code
+ * distance_m,pivot_counts,shooter_rps,flight_time_s} row per line, sorted by distance. Blank lines,
+ * lines starting with {@code #} and a header line are skipped. The flight time (launch to the
+ * speaker opening) is what {@link MovingShotSolver} uses to lead the target.
+ */
+public final class ShotMap {
+  private final double[] m_distances;
+  private final double[] m_pivotCounts;
+  private final double[] m_shooterRps;
+  private final double[] m_flightTimes;
+
+  /**
+   * @param distances Distances in meters, strictly increasing
+   * @param pivotCounts Pivot position for each distance, in encoder counts
+   * @param shooterRps Flywheel speed for each distance, in rotations per second
+   * @param flightTimes Seconds from launch to the speaker for each distance
+   */
+  public ShotMap(
+      double[] distances, double[] pivotCounts, double[] shooterRps, double[] flightTimes) {
+    if (distances.length == 0
+        || distances.length != pivotCounts.length
+        || distances.length != shooterRps.length
+        || distances.length != flightTimes.length) {
+      throw new IllegalArgumentException("Shot map columns must be the same, non-zero length");
+    }
+    for (int i = 1; i < distances.length; i++) {
+      if (!(distances[i] > distances[i - 1])) {
+        throw new IllegalArgumentException(
+            "Shot map distances must be strictly increasing (row " + (i + 1) + ")");
+      }
+    }
+    m_distances = distances.clone();
+    m_pivotCounts = pivotCounts.clone();
+    m_shooterRps = shooterRps.clone();
+    m_flightTimes = flightTimes.clone();
+  }
+
+  /**
+   * Loads a shot map from the deploy directory. Call this once at startup.
+   *
+   * @param fileName File in src/main/deploy
+   * @param fallback Used (and an error reported) if the file is missing or broken
+   */
+  public static ShotMap loadDeployFile(String fileName, ShotMap fallback) {
+    Path path = Filesystem.getDeployDirectory().toPath().resolve(fileName);
+    try {
+      ShotMap map = parse(Files.readAllLines(path));
+      System.out.printf("Shot map: %d rows loaded from %s%n", map.size(), fileName);
+      return map;
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportError(
+          "Failed to load shot map \"" + fileName + "\", using the fixed high shot: "
+              + e.getMessage(),
+          false);
+      return fallback;
+    }
+  }
+
+  /** Parses the CSV lines described in the class comment. */
+  static ShotMap parse(List<String> lines) {
+    double[] distances = new double[lines.size()];
+    double[] pivotCounts = new double[lines.size()];
+    double[] shooterRps = new double[lines.size()];
+    double[] flightTimes = new double[lines.size()];
+    int rows = 0;
+    for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+      String line = lines.get(lineNumber - 1).trim();
+      if (line.isEmpty() || line.startsWith("#") || Character.isLetter(line.charAt(0))) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 4) {
+        throw new IllegalArgumentException("line " + lineNumber + " needs 4 values");
+      }
+      try {
+        distances[rows] = Double.parseDouble(fields[0].trim());
+        pivotCounts[rows] = Double.parseDouble(fields[1].trim());
+        shooterRps[rows] = Double.parseDouble(fields[2].trim());
+        flightTimes[rows] = Double.parseDouble(fields[3].trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+      }
+      rows++;
+    }
+    return new ShotMap(
+        Arrays.copyOf(distances, rows),
+        Arrays.copyOf(pivotCounts, rows),
+        Arrays.copyOf(shooterRps, rows),
+        Arrays.copyOf(flightTimes, rows));
+  }
+
+  /** Number of rows in the table. */
+  public int size() {
+    return m_distances.length;
+  }
+
+  /** Shortest distance in the table (meters). Closer than this, the first row is used. */
+  public double getMinDistance() {
+    return m_distances[0];
+  }
+
+  /** Longest distance in the table (meters). Farther than this, the last row is used. */
+  public double getMaxDistance() {
+    return m_distances[m_distances.length - 1];
+  }
+
+  /** Pivot position (encoder counts) for a shot from this far away (meters). */
+  public double getPivotCounts(double distance) {
+    return interpolate(m_pivotCounts, distance);
+  }
+
+  /** Flywheel speed (rotations per second) for a shot from this far away (meters). */
+  public double getShooterRps(double distance) {
+    return interpolate(m_shooterRps, distance);
+  }
+
+  /** Seconds from launch to the speaker for a shot from this far away (meters). */
+  public double getFlightTime(double distance) {
+    return interpolate(m_flightTimes, distance);
+  }
+
+  private double interpolate(double[] values, double distance) {
+    int last = m_distances.length - 1;
+    if (!(distance > m_distances[0])) {
+      return values[0]; // Also catches NaN
+    }
+    if (distance >= m_distances[last]) {
+      return values[last];
+    }
+    int index = Arrays.binarySearch(m_distances, distance);
+    if (index >= 0) {
+      return values[index];
+    }
+    // Not an exact match: binarySearch returns -(first larger row) - 1
+    int upper = -index - 1;
+    int lower = upper - 1;
+    double fraction =
+        (distance - m_distances[lower]) / (m_distances[upper] - m_distances[lower]);
+    return values[lower] + fraction * (values[upper] - values[lower]);
+  }
+}
@@ -0,0 +1,79 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads every auto path once at robot startup and keeps it in memory, already mirrored for the red
+ * alliance and with its trajectory already generated.
+ *
+ * <p>Without this, the path follower parses, mirrors and generates the trajectory when the auto
+ * starts, which costs hundreds of milliseconds right when the match begins. With it, starting an
+ * auto is just picking an object out of a map.
+ */
+public final class TrajectoryCache {
+  private final Map<String, PathPlannerPath> m_bluePaths = new HashMap<>();
+  private final Map<String, PathPlannerPath> m_redPaths = new HashMap<>();
+
+  /**
+   * Loads, mirrors and generates every path. Call this from robotInit, never during a match.
+   *
+   * @param robotConfig The drivetrain description used to generate the trajectories
+   * @param pathNames Files in deploy/pathplanner/paths, without ".path"
+   */
+  public TrajectoryCache(RobotConfig robotConfig, String... pathNames) {
+    long startNanos = System.nanoTime();
+    for (String name : pathNames) {
+      PathPlannerPath bluePath;
+      try {
+        bluePath = PathPlannerPath.fromPathFile(name);
+      } catch (Exception e) {
+        DriverStation.reportError(
+            "Failed to load path \"" + name + "\": " + e.getMessage(), false);
+        continue;
+      }
+      PathPlannerPath redPath = bluePath.flipPath();
+
+      // Generating the trajectory stores it inside the path, so the follower reuses it
+      warm(bluePath.getIdealTrajectory(robotConfig).orElse(null));
+      warm(redPath.getIdealTrajectory(robotConfig).orElse(null));
+
+      m_bluePaths.put(name, bluePath);
+      m_redPaths.put(name, redPath);
+    }
+    System.out.printf(
+        "Trajectory cache: %d paths ready in %.1f ms%n",
+        m_bluePaths.size(), (System.nanoTime() - startNanos) / 1e6);
+  }
+
+  /** Samples a trajectory from start to end so the JIT compiles the sampling code before auto. */
+  private static void warm(PathPlannerTrajectory trajectory) {
+    if (trajectory == null) {
+      return;
+    }
+    for (double t = 0.0; t <= trajectory.getTotalTimeSeconds(); t += 0.02) {
+      trajectory.sample(t);
+    }
+  }
+
+  /** Returns true if the Driver Station says we are on the red alliance. */
+  public static boolean isRedAlliance() {
+    return DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+  }
+
+  /**
+   * Returns a cached path for one alliance.
+   *
+   * @param name Path name, as passed to the constructor
+   * @param red True for the mirrored red alliance version
+   * @return The path, or null if it failed to load
+   */
+  public PathPlannerPath get(String name, boolean red) {
+    return red ? m_redPaths.get(name) : m_bluePaths.get(name);
+  }
+}
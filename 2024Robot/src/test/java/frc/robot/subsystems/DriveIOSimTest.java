@@ -0,0 +1,85 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.wpi.first.hal.HAL;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that reading the drive (the simulation IO, the one we can run on a desktop) allocates
+ * nothing, so it never makes garbage for the roboRIO's small heap to collect.
+ */
+class DriveIOSimTest {
+  private static final int WARMUP_LOOPS = 20_000; // Let the JIT compile everything first
+  private static final int MEASURED_LOOPS = 5_000;
+
+  // Somewhere for the counter check's array to go, so the JIT can't skip making it
+  private static Object s_escape;
+
+  @BeforeAll
+  static void initHal() {
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @Test
+  void updateInputsAllocatesNothing() {
+    com.sun.management.ThreadMXBean threads = threadBean();
+    DriveIOSim io = new DriveIOSim();
+    DriveIOInputsAutoLogged inputs = new DriveIOInputsAutoLogged();
+    double[] velocitiesRpm = {1000, 1000, 1000, 1000};
+    double[] feedforwardVolts = {2, 2, 2, 2};
+
+    double sink = 0.0;
+    for (int i = 0; i < WARMUP_LOOPS; i++) {
+      sink += runLoop(io, inputs, i, velocitiesRpm, feedforwardVolts);
+    }
+
+    long startBytes = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < MEASURED_LOOPS; i++) {
+      sink += runLoop(io, inputs, i, velocitiesRpm, feedforwardVolts);
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+
+    assertTrue(Double.isFinite(sink));
+    assertTrue(inputs.velocities[0] > 0, "the simulated wheels should be turning");
+    assertEquals(0, allocated, "bytes allocated over " + MEASURED_LOOPS + " loops");
+  }
+
+  @Test
+  void allocationCounterWorks() {
+    // Makes sure a zero above means "nothing allocated", not "not counting"
+    com.sun.management.ThreadMXBean threads = threadBean();
+    long startBytes = threads.getCurrentThreadAllocatedBytes();
+    s_escape = new double[128];
+    assertTrue(threads.getCurrentThreadAllocatedBytes() - startBytes >= 128 * Double.BYTES);
+  }
+
+  /** One robot loop: a setpoint every so often, then the sensor read. */
+  private static double runLoop(
+      DriveIOSim io,
+      DriveIOInputsAutoLogged inputs,
+      int loop,
+      double[] velocitiesRpm,
+      double[] feedforwardVolts) {
+    if (loop % 100 == 0) {
+      io.setVelocities(velocitiesRpm, feedforwardVolts);
+    }
+    io.updateInputs(inputs);
+    return inputs.positions[0] + inputs.currentAmps[3] + inputs.odometryTimestamps[0];
+  }
+
+  private static com.sun.management.ThreadMXBean threadBean() {
+    assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "this JVM can't count allocated bytes");
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "this JVM can't count allocated bytes");
+    threads.setThreadAllocatedMemoryEnabled(true);
+    return threads;
+  }
+}
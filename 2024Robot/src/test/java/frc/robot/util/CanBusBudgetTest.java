@@ -0,0 +1,38 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.CanBusConstants.FrameProfile;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Fails the build if a frame rate change pushes the projected CAN bus load over budget. */
+class CanBusBudgetTest {
+  @Test
+  void everyProfileIsUnderBudget() {
+    StringBuilder overBudget = new StringBuilder();
+    for (FrameProfile profile : FrameProfile.values()) {
+      List<CanBusBudget.Frame> frames = CanBusBudget.declaredFrames(profile);
+      System.out.print(CanBusBudget.report(profile, frames));
+      double projected = CanBusBudget.projectedUtilization(frames);
+      if (projected > CanBusConstants.MAX_PROJECTED_UTILIZATION) {
+        overBudget.append(String.format(" %s (%.1f%%)", profile, projected * 100.0));
+      }
+    }
+    assertTrue(
+        overBudget.length() == 0,
+        "Projected CAN bus load is over CanBusConstants.MAX_PROJECTED_UTILIZATION in:"
+            + overBudget
+            + ". Slow down some status frames in CanBusConstants.");
+  }
+
+  @Test
+  void everyProfileDeclaresFrames() {
+    // An empty list would pass the budget check without checking anything
+    for (FrameProfile profile : FrameProfile.values()) {
+      assertFalse(CanBusBudget.declaredFrames(profile).isEmpty(), profile.toString());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.CanBusConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.PivotConstants;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class MotorConfigPipelineTest {
+  @BeforeAll
+  static void initHal() {
+    // Failed configs are reported to the Driver Station
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @Test
+  void sameConfigMatches() {
+    assertTrue(
+        MotorConfigPipeline.configsMatch(new TalonSRXConfiguration(), new TalonSRXConfiguration()));
+  }
+
+  @Test
+  void valueRoundedByTheDeviceMatches() {
+    TalonSRXConfiguration desired = new TalonSRXConfiguration();
+    TalonSRXConfiguration onDevice = new TalonSRXConfiguration();
+    desired.slot0.kP = 0.3;
+    onDevice.slot0.kP = 0.29998;
+    assertTrue(MotorConfigPipeline.configsMatch(desired, onDevice));
+  }
+
+  @Test
+  void smallGainNeverMatchesZero() {
+    // Our real integral gains: a stale 0 on the device must be overwritten
+    for (double gain : new double[] {DriveConstants.MOTOR_I, PivotConstants.MOTOR_I, 1e-9}) {
+      if (gain == 0.0) {
+        continue;
+      }
+      TalonSRXConfiguration desired = new TalonSRXConfiguration();
+      TalonSRXConfiguration onDevice = new TalonSRXConfiguration();
+      desired.slot0.kI = gain;
+      onDevice.slot0.kI = 0.0;
+      assertFalse(MotorConfigPipeline.configsMatch(desired, onDevice), "kI = " + gain);
+      assertFalse(MotorConfigPipeline.configsMatch(onDevice, desired), "kI = " + gain);
+    }
+  }
+
+  @Test
+  void smallGainChangeIsWritten() {
+    TalonSRXConfiguration desired = new TalonSRXConfiguration();
+    TalonSRXConfiguration onDevice = new TalonSRXConfiguration();
+    desired.slot0.kI = 0.0008;
+    onDevice.slot0.kI = 0.0004;
+    assertFalse(MotorConfigPipeline.configsMatch(desired, onDevice));
+  }
+
+  @Test
+  void failedConfigIsNeverReady() throws InterruptedException {
+    AtomicInteger attempts = new AtomicInteger();
+    MotorConfigPipeline.submit(
+        "Test Failing",
+        () -> {
+          attempts.incrementAndGet();
+          throw new IllegalStateException("no answer");
+        });
+    waitForFinish();
+    assertEquals(CanBusConstants.CONFIG_ATTEMPTS, attempts.get());
+    assertTrue(MotorConfigPipeline.hasFailed("Test Failing"));
+    assertFalse(MotorConfigPipeline.isReady("Test Failing"));
+  }
+
+  @Test
+  void configThatWorksOnRetryIsReady() throws InterruptedException {
+    AtomicInteger attempts = new AtomicInteger();
+    MotorConfigPipeline.submit(
+        "Test Retry",
+        () -> {
+          if (attempts.incrementAndGet() == 1) {
+            throw new IllegalStateException("timed out once");
+          }
+          return true;
+        });
+    waitForFinish();
+    assertFalse(MotorConfigPipeline.hasFailed("Test Retry"));
+    assertTrue(MotorConfigPipeline.isReady("Test Retry"));
+  }
+
+  private static void waitForFinish() throws InterruptedException {
+    for (int i = 0; i < 500 && !MotorConfigPipeline.isFinished(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(MotorConfigPipeline.isFinished(), "config tasks didn't finish in 5 s");
+  }
+}
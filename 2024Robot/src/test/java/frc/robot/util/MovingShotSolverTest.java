@@ -0,0 +1,228 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import frc.robot.Constants.AimConstants;
+import frc.robot.Constants.DriveConstants;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sweeps {@link MovingShotSolver} over every distance, angle and velocity the robot can reach and
+ * fires a simulated note for each answer.
+ *
+ * <p>The note is checked with plain projectile physics, not with the flight times the solver reads:
+ * it leaves the shooter at {@link #EXIT_SPEED} m/s at the pivot's launch angle, the robot's velocity
+ * is added, and gravity pulls it down (no drag). The miss is how far it passes from the speaker
+ * opening. Our shot map is in pivot counts and flywheel rps, which we have no physics model for, so
+ * the solver gets a table worked out from the same projectile model, with as many rows over the
+ * same distances as the deployed one (launch angle in the pivot column, exit speed in the flywheel
+ * column). Between rows it interpolates like on the robot, so the misses include the table's
+ * interpolation error too.
+ */
+class MovingShotSolverTest {
+  private static final String SHOT_MAP_PATH = "src/main/deploy/" + AimConstants.SHOT_MAP_FILE;
+
+  // Projectile model (roughly our shooter; only has to be realistic, not exact)
+  private static final double GRAVITY = 9.81; // m/s^2
+  private static final double EXIT_SPEED = 12.0; // m/s, relative to the robot
+  private static final double RELEASE_HEIGHT = 0.6; // m
+  private static final double SPEAKER_HEIGHT = 2.05; // m, middle of the opening
+
+  private static final double MAX_MISS_METERS = 0.05;
+  private static final double MAX_SIDEWAYS_MISS_METERS = 0.02; // Aim and lead only, not height
+  private static final double VELOCITY_STEP = 0.25; // m/s
+  private static final double DISTANCE_STEP = 0.25; // m
+  private static final int ANGLE_STEPS = 13; // -60 to +60 degrees from straight out
+  private static final int WARMUP_SOLVES = 20_000;
+
+  private static ShotMap s_deployedMap;
+  private static ShotMap s_modelMap;
+  private static double s_maxSpeed;
+
+  @BeforeAll
+  static void loadShotMaps() throws IOException {
+    s_deployedMap = ShotMap.parse(Files.readAllLines(Path.of(SHOT_MAP_PATH)));
+    int rows = s_deployedMap.size();
+    double[] distances = new double[rows];
+    double[] launchAngles = new double[rows];
+    double[] exitSpeeds = new double[rows];
+    double[] flightTimes = new double[rows];
+    double step = (s_deployedMap.getMaxDistance() - s_deployedMap.getMinDistance()) / (rows - 1);
+    for (int i = 0; i < rows; i++) {
+      distances[i] = s_deployedMap.getMinDistance() + i * step;
+      launchAngles[i] = launchAngle(distances[i]);
+      exitSpeeds[i] = EXIT_SPEED;
+      flightTimes[i] = distances[i] / (EXIT_SPEED * Math.cos(launchAngles[i]));
+    }
+    s_modelMap = new ShotMap(distances, launchAngles, exitSpeeds, flightTimes);
+    s_maxSpeed =
+        DriveConstants.MAX_WHEEL_VELOCITY / DriveConstants.DRIVE_GEAR_RATIO
+            * Math.PI * DriveConstants.WHEEL_DIAMETER_METERS / 60.0;
+  }
+
+  @Test
+  void movingShotsHitTheSpeaker() {
+    MovingShotSolver solver = newSolver(s_modelMap);
+    // Speaker at the origin, robot out in front of it (+X)
+    int cases = 0;
+    int offTable = 0;
+    int failures = 0;
+    double worstMiss = 0.0;
+    double worstSidewaysMiss = 0.0;
+    String worstCase = "none";
+    for (double distance = s_modelMap.getMinDistance();
+        distance <= s_modelMap.getMaxDistance() + 1e-9;
+        distance += DISTANCE_STEP) {
+      for (int a = 0; a < ANGLE_STEPS; a++) {
+        double angle = Math.toRadians(-60.0 + 120.0 * a / (ANGLE_STEPS - 1));
+        double robotX = distance * Math.cos(angle);
+        double robotY = distance * Math.sin(angle);
+        for (double vx = -s_maxSpeed; vx <= s_maxSpeed + 1e-9; vx += VELOCITY_STEP) {
+          for (double vy = -s_maxSpeed; vy <= s_maxSpeed + 1e-9; vy += VELOCITY_STEP) {
+            if (Math.hypot(vx, vy) > s_maxSpeed) {
+              continue;
+            }
+            boolean converged = solver.solve(robotX, robotY, vx, vy, 0.0, 0.0);
+            // Driving away, the lead can put the shot past the end of the table. No table can
+            // make that shot (the nearest row is used), so it isn't the solver's miss
+            if (solver.getDistance() < s_modelMap.getMinDistance()
+                || solver.getDistance() > s_modelMap.getMaxDistance()) {
+              offTable++;
+              continue;
+            }
+            cases++;
+            double[] miss = fire(solver, robotX, robotY, vx, vy);
+            worstSidewaysMiss = Math.max(worstSidewaysMiss, miss[1]);
+            if (miss[0] > worstMiss) {
+              worstMiss = miss[0];
+              worstCase =
+                  String.format(
+                      "distance %.2f m, angle %.0f deg, velocity (%.2f, %.2f) m/s",
+                      distance, Math.toDegrees(angle), vx, vy);
+            }
+            if (!converged || miss[0] > MAX_MISS_METERS || miss[1] > MAX_SIDEWAYS_MISS_METERS) {
+              failures++;
+            }
+          }
+        }
+      }
+    }
+
+    System.out.printf(
+        "Shot solver sweep: %d shots up to %.2f m/s (%d more off the end of the table)%n",
+        cases, s_maxSpeed, offTable);
+    System.out.printf(
+        "  Worst miss: %.4f m at %s, worst sideways miss %.4f m%n",
+        worstMiss, worstCase, worstSidewaysMiss);
+    assertTrue(cases > 0);
+    assertEquals(
+        0,
+        failures,
+        "shots that didn't settle, missed by more than "
+            + MAX_MISS_METERS
+            + " m or missed sideways by more than "
+            + MAX_SIDEWAYS_MISS_METERS
+            + " m");
+  }
+
+  @Test
+  void deployedTableSettles() {
+    // The real table's flight times set how fast the guesses settle, so check it too
+    MovingShotSolver solver = newSolver(s_deployedMap);
+    int mostIterations = 0;
+    for (double distance = 1.0; distance <= 6.0; distance += DISTANCE_STEP) {
+      for (double vx = -s_maxSpeed; vx <= s_maxSpeed + 1e-9; vx += VELOCITY_STEP) {
+        for (double vy = -s_maxSpeed; vy <= s_maxSpeed + 1e-9; vy += VELOCITY_STEP) {
+          assertTrue(
+              solver.solve(distance, 0.0, vx, vy, 0.0, 0.0),
+              String.format(
+                  "didn't settle at distance %.2f m, velocity (%.2f, %.2f) m/s", distance, vx, vy));
+          mostIterations = Math.max(mostIterations, solver.getIterations());
+        }
+      }
+    }
+    System.out.printf(
+        "  Deployed table: most iterations %d of %d%n",
+        mostIterations, AimConstants.SHOOT_ON_MOVE_MAX_ITERATIONS);
+  }
+
+  @Test
+  void solveAllocatesNothing() {
+    assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "this JVM can't count allocated bytes");
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "this JVM can't count allocated bytes");
+    threads.setThreadAllocatedMemoryEnabled(true);
+    MovingShotSolver solver = newSolver(s_deployedMap);
+
+    double sink = 0.0;
+    for (int i = 0; i < WARMUP_SOLVES; i++) {
+      sink += solveOnce(solver, i);
+    }
+    long startBytes = threads.getCurrentThreadAllocatedBytes();
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < WARMUP_SOLVES; i++) {
+      sink += solveOnce(solver, i);
+    }
+    double nanosPerSolve = (System.nanoTime() - startNanos) / (double) WARMUP_SOLVES;
+    long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+
+    System.out.printf("  %.0f ns per solve (checksum %.1f)%n", nanosPerSolve, sink);
+    assertEquals(0, allocated, "bytes allocated over " + WARMUP_SOLVES + " solves");
+  }
+
+  private static MovingShotSolver newSolver(ShotMap shotMap) {
+    return new MovingShotSolver(
+        shotMap,
+        AimConstants.SHOOT_ON_MOVE_MAX_ITERATIONS,
+        AimConstants.SHOOT_ON_MOVE_TOLERANCE_SECONDS);
+  }
+
+  private static double solveOnce(MovingShotSolver solver, int i) {
+    double distance = 1.0 + (i % 19) * DISTANCE_STEP;
+    double vx = -s_maxSpeed + (i % 31) * VELOCITY_STEP;
+    solver.solve(distance, 0.5, vx, -vx / 2, 0.0, 0.0);
+    return solver.getDistance();
+  }
+
+  /**
+   * The lower of the two launch angles (radians) that put a note standing still {@code distance}
+   * meters away through the opening.
+   */
+  private static double launchAngle(double distance) {
+    double rise = SPEAKER_HEIGHT - RELEASE_HEIGHT;
+    double v2 = EXIT_SPEED * EXIT_SPEED;
+    double root = Math.sqrt(v2 * v2 - GRAVITY * (GRAVITY * distance * distance + 2 * rise * v2));
+    return Math.atan((v2 - root) / (GRAVITY * distance));
+  }
+
+  /**
+   * Fires a note along the solver's answer and returns {total miss, sideways miss} in meters: how
+   * far from the speaker (at the origin) it passes, and how far of that is along the floor.
+   */
+  private static double[] fire(
+      MovingShotSolver solver, double robotX, double robotY, double velocityX, double velocityY) {
+    // The pivot and flywheel as the robot would set them for the solver's distance
+    double launchAngle = s_modelMap.getPivotCounts(solver.getDistance());
+    double exitSpeed = s_modelMap.getShooterRps(solver.getDistance());
+    double forward = exitSpeed * Math.cos(launchAngle);
+    double noteVx = velocityX + forward * Math.cos(solver.getHeadingRadians());
+    double noteVy = velocityY + forward * Math.sin(solver.getHeadingRadians());
+    double noteVz = exitSpeed * Math.sin(launchAngle);
+
+    // Straight line along the floor, so the closest pass is where it's square to the speaker
+    double t = -(robotX * noteVx + robotY * noteVy) / (noteVx * noteVx + noteVy * noteVy);
+    double sideways = Math.hypot(robotX + noteVx * t, robotY + noteVy * t);
+    double height = RELEASE_HEIGHT + noteVz * t - 0.5 * GRAVITY * t * t - SPEAKER_HEIGHT;
+    return new double[] {Math.hypot(sideways, height), sideways};
+  }
+}
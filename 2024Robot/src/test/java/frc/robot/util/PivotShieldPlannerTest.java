@@ -0,0 +1,87 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.PivotConstants;
+import frc.robot.Constants.ShieldConstants;
+import org.junit.jupiter.api.Test;
+
+/** Checks the shield interlock against measured pivot positions. */
+class PivotShieldPlannerTest {
+  private static PivotShieldPlanner newPlanner() {
+    return new PivotShieldPlanner(
+        PivotConstants.PLAN_CRUISE_VELOCITY,
+        PivotConstants.PLAN_ACCELERATION,
+        ShieldConstants.PLAN_MAX_VELOCITY,
+        ShieldConstants.PLAN_ACCELERATION,
+        PivotConstants.SHOOTING_LOW_POS,
+        PivotConstants.POSITION_TOLERANCE,
+        ShieldConstants.CLEAR_POS,
+        ShieldConstants.PLAN_MARGIN_SECONDS);
+  }
+
+  @Test
+  void lowShotFromIntakeRaisesShieldWherePivotSettles() {
+    // Aim Low after Intake: the pivot comes up from INTAKE_POS and never lands exactly on its goal
+    PivotShieldPlanner planner = newPlanner();
+    planner.plan(
+        PivotConstants.INTAKE_POS,
+        0.0,
+        PivotConstants.SHOOTING_LOW_POS,
+        ShieldConstants.DOWN_POS,
+        ShieldConstants.UP_POS);
+    assertEquals(ShieldConstants.UP_POS, planner.getShieldGoal());
+
+    double[] settledErrors = {-2000, -1, 0, 1, 500, PivotConstants.POSITION_TOLERANCE - 1};
+    for (double error : settledErrors) {
+      double pivot = PivotConstants.SHOOTING_LOW_POS + error;
+      assertTrue(
+          planner.shieldMayMove(pivot, false, ShieldConstants.DOWN_POS),
+          "shield held with the pivot settled at " + pivot);
+    }
+    // Still on its way up from intake
+    assertFalse(planner.shieldMayMove(120000, false, ShieldConstants.DOWN_POS));
+    assertFalse(
+        planner.shieldMayMove(PivotConstants.SHOOTING_LOW_POS, true, ShieldConstants.DOWN_POS),
+        "a stale pivot reading can't clear the shield to come up");
+  }
+
+  @Test
+  void shieldOnlyGoesDownOnceThePivotIsDown() {
+    PivotShieldPlanner planner = newPlanner();
+    planner.plan(
+        PivotConstants.SHOOTING_HIGH_POS,
+        0.0,
+        PivotConstants.INTAKE_POS,
+        ShieldConstants.MID_POS,
+        ShieldConstants.DOWN_POS);
+    assertEquals(ShieldConstants.DOWN_POS, planner.getShieldGoal());
+    assertTrue(planner.getShieldStartTime() > 0.0);
+
+    double shield = ShieldConstants.MID_POS;
+    assertFalse(planner.shieldMayMove(PivotConstants.SHOOTING_HIGH_POS, false, shield));
+    // The low shot position is still up
+    assertFalse(planner.shieldMayMove(PivotConstants.SHOOTING_LOW_POS, false, shield));
+    double pastTolerance = PivotConstants.SHOOTING_LOW_POS + PivotConstants.POSITION_TOLERANCE + 1;
+    assertTrue(planner.shieldMayMove(pastTolerance, false, shield));
+    assertFalse(planner.shieldMayMove(pastTolerance, true, shield));
+  }
+
+  @Test
+  void shieldThatStaysUpIsNeverHeld() {
+    // Like the old moveUp(): up to up doesn't cross the pivot, whatever it reads
+    PivotShieldPlanner planner = newPlanner();
+    planner.plan(
+        PivotConstants.SHOOTING_HIGH_POS,
+        0.0,
+        PivotConstants.SHOOTING_LOW_POS,
+        ShieldConstants.MID_POS,
+        ShieldConstants.UP_POS);
+    assertEquals(0.0, planner.getShieldStartTime());
+    double shield = ShieldConstants.MID_POS;
+    assertTrue(planner.shieldMayMove(PivotConstants.SHOOTING_HIGH_POS, true, shield));
+    assertTrue(planner.shieldMayMove(PivotConstants.INTAKE_POS, false, shield));
+  }
+}